@@ -0,0 +1,33 @@
+package com.bergerkiller.bukkit.tc.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the TrainCarts benchmarks and writes the results as JSON, so that
+ * the results of different versions can be compared.<br>
+ * <br>
+ * Arguments: the JSON result file, followed by optional regular expressions
+ * of the benchmarks to include. By default all benchmarks are run.
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException {
+        String resultFile = (args.length >= 1) ? args[0] : "jmh-result.json";
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile);
+        if (args.length >= 2) {
+            for (int i = 1; i < args.length; i++) {
+                options.include(args[i]);
+            }
+        } else {
+            // Some benchmarks are in the package of the code they measure, to use package-private methods
+            options.include("com\\.bergerkiller\\.bukkit\\.tc\\..*Benchmark\\.");
+        }
+        new Runner(options.build()).run();
+    }
+}
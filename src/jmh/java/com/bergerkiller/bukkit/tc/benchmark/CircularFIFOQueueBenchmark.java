@@ -0,0 +1,79 @@
+package com.bergerkiller.bukkit.tc.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bergerkiller.bukkit.tc.utils.CircularFIFOQueue;
+import com.bergerkiller.bukkit.tc.utils.CircularFIFOQueue.EmptyQueueException;
+import com.bergerkiller.bukkit.tc.utils.CircularFIFOQueueStampedRW;
+import com.bergerkiller.bukkit.tc.utils.CircularFIFOQueueSynchronized;
+
+/**
+ * Measures the throughput of the FIFO queues used to send packets on
+ * another thread. One thread puts values into the queue while another
+ * thread takes them out again, like the packet queue writer thread does.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CircularFIFOQueueBenchmark {
+    private static final Object VALUE = new Object();
+
+    @Param({"StampedRW", "Synchronized"})
+    public String queueType;
+
+    @Param({"1", "64"})
+    public int batchSize;
+
+    private CircularFIFOQueue<Object> queue;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        if (this.queueType.equals("StampedRW")) {
+            this.queue = new CircularFIFOQueueStampedRW<>();
+        } else {
+            this.queue = new CircularFIFOQueueSynchronized<>();
+        }
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(1)
+    public void put() {
+        for (int i = 0; i < this.batchSize; i++) {
+            this.queue.put(VALUE);
+        }
+    }
+
+    @Benchmark
+    @Group("producerConsumer")
+    @GroupThreads(1)
+    public Object take() {
+        Object last = null;
+        try {
+            for (int i = 0; i < this.batchSize; i++) {
+                last = this.queue.take(0);
+            }
+        } catch (EmptyQueueException ex) {
+            // Producer is behind, try again next invocation
+        }
+        return last;
+    }
+}
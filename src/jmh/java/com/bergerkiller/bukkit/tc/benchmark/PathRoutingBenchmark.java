@@ -0,0 +1,112 @@
+package com.bergerkiller.bukkit.tc.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bergerkiller.bukkit.common.BlockLocation;
+import com.bergerkiller.bukkit.tc.pathfinding.PathConnection;
+import com.bergerkiller.bukkit.tc.pathfinding.PathNode;
+import com.bergerkiller.bukkit.tc.pathfinding.PathProvider;
+import com.bergerkiller.bukkit.tc.pathfinding.PathRoutingTable;
+import com.bergerkiller.bukkit.tc.pathfinding.PathWorld;
+
+/**
+ * Measures the routing decisions switcher signs make to send a train to its
+ * destination. The network is a loop of track with junctions that branch off
+ * to random other places on the loop, with a few nodes acting as destinations.
+ * Lookups are measured with the routing tables already computed, and right after
+ * a change to the network discarded the table of the destination.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathRoutingBenchmark {
+    private static final int DESTINATION_COUNT = 16;
+    private static final int LOOKUP_COUNT = 256;
+
+    @Param({"100", "1000", "10000"})
+    public int nodeCount;
+
+    private PathRoutingTable routingTable;
+    private PathNode[] lookupFrom;
+    private PathNode[] lookupDestination;
+    private int lookupIndex;
+
+    @Setup
+    public void setup() {
+        // The provider is only used to store the nodes, no plugin is needed for that
+        PathProvider provider = new PathProvider(null);
+        PathWorld world = provider.getWorld("world");
+        PathNode[] nodes = new PathNode[this.nodeCount];
+        for (int i = 0; i < this.nodeCount; i++) {
+            nodes[i] = world.addNode(new BlockLocation("world", 16 * i, 64, 0));
+        }
+
+        // Loop of track in both directions, with a junction branching off every 4 nodes
+        Random random = new Random(this.nodeCount);
+        for (int i = 0; i < this.nodeCount; i++) {
+            PathNode node = nodes[i];
+            PathNode next = nodes[(i + 1) % this.nodeCount];
+            node.addNeighbour(next, 16.0 + random.nextInt(32), "east");
+            next.addNeighbour(node, 16.0 + random.nextInt(32), "west");
+            if ((i & 3) == 0) {
+                PathNode branch = nodes[random.nextInt(this.nodeCount)];
+                if (branch != node) {
+                    node.addNeighbour(branch, 64.0 + random.nextInt(256), "north");
+                }
+            }
+        }
+
+        // Routes from random switchers to a limited number of destinations
+        this.routingTable = world.getRoutingTable();
+        PathNode[] destinations = new PathNode[DESTINATION_COUNT];
+        for (int i = 0; i < DESTINATION_COUNT; i++) {
+            destinations[i] = nodes[random.nextInt(this.nodeCount)];
+        }
+        this.lookupFrom = new PathNode[LOOKUP_COUNT];
+        this.lookupDestination = new PathNode[LOOKUP_COUNT];
+        for (int i = 0; i < LOOKUP_COUNT; i++) {
+            this.lookupFrom[i] = nodes[random.nextInt(this.nodeCount)];
+            this.lookupDestination[i] = destinations[i % DESTINATION_COUNT];
+            this.routingTable.findConnection(this.lookupFrom[i], this.lookupDestination[i]);
+        }
+        this.lookupIndex = 0;
+    }
+
+    @Benchmark
+    public PathConnection findConnection() {
+        int index = this.lookupIndex;
+        this.lookupIndex = (index + 1) % LOOKUP_COUNT;
+        return this.routingTable.findConnection(this.lookupFrom[index], this.lookupDestination[index]);
+    }
+
+    @Benchmark
+    public PathConnection findConnectionAfterChange() {
+        int index = this.lookupIndex;
+        this.lookupIndex = (index + 1) % LOOKUP_COUNT;
+        this.routingTable.invalidate(this.lookupDestination[index]);
+        return this.routingTable.findConnection(this.lookupFrom[index], this.lookupDestination[index]);
+    }
+
+    @Benchmark
+    public PathConnection[] findRoute() {
+        int index = this.lookupIndex;
+        this.lookupIndex = (index + 1) % LOOKUP_COUNT;
+        return this.routingTable.findRoute(this.lookupFrom[index], this.lookupDestination[index]);
+    }
+}
@@ -0,0 +1,69 @@
+package com.bergerkiller.bukkit.tc.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bergerkiller.bukkit.tc.controller.components.RailPath;
+
+/**
+ * Measures moving along and snapping onto rail paths, as done for every
+ * cart every tick. Paths are quarter circles made of a varying number of
+ * points, like curved rails of custom rail types.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RailPathBenchmark {
+    @Param({"2", "8", "32"})
+    public int pointCount;
+
+    private RailPath path;
+    private RailPath.Position start;
+    private RailPath.Position position;
+
+    @Setup
+    public void setup() {
+        RailPath.Point[] points = new RailPath.Point[this.pointCount];
+        for (int i = 0; i < this.pointCount; i++) {
+            double theta = 0.5 * Math.PI * i / (this.pointCount - 1);
+            points[i] = new RailPath.Point(Math.sin(theta), 0.0625, 1.0 - Math.cos(theta));
+        }
+        this.path = RailPath.create(points);
+
+        this.start = new RailPath.Position();
+        this.start.relative = true;
+        this.start.posX = 0.3;
+        this.start.posY = 0.2;
+        this.start.posZ = 0.1;
+        this.start.motX = 1.0;
+        this.start.motY = 0.0;
+        this.start.motZ = 0.0;
+        this.position = new RailPath.Position();
+    }
+
+    @Benchmark
+    public double move() {
+        this.start.copyTo(this.position);
+        return this.path.moveRelative(this.position, 0.4);
+    }
+
+    @Benchmark
+    public double snap() {
+        this.start.copyTo(this.position);
+        return this.path.moveRelative(this.position, 0.0);
+    }
+}
@@ -0,0 +1,67 @@
+package com.bergerkiller.bukkit.tc.benchmark;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bergerkiller.bukkit.tc.controller.MinecartMember;
+import com.bergerkiller.bukkit.tc.statements.Statement;
+
+/**
+ * Measures matching and evaluating the statements found on switcher and
+ * detector signs. Only statements that work without a train are used, as
+ * there is no live server. Statements are measured both with the compiled
+ * statement already cached, and when it has to be parsed again.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatementBenchmark {
+    @Param({"true", "!false", "rand@100%"})
+    public String statement;
+
+    private List<String> multipleStatements;
+
+    @Setup
+    public void setup() {
+        Statement.init();
+        this.multipleStatements = Arrays.asList("false", "|!true", "|" + this.statement, "&!false");
+    }
+
+    @TearDown
+    public void teardown() {
+        Statement.deinit();
+    }
+
+    @Benchmark
+    public boolean has() {
+        return Statement.has((MinecartMember<?>) null, null, this.statement, null);
+    }
+
+    @Benchmark
+    public boolean hasUncached() {
+        Statement.clearCompiled();
+        return Statement.has((MinecartMember<?>) null, null, this.statement, null);
+    }
+
+    @Benchmark
+    public boolean hasMultiple() {
+        return Statement.hasMultiple((MinecartMember<?>) null, null, this.multipleStatements, null);
+    }
+}
@@ -0,0 +1,52 @@
+package com.bergerkiller.bukkit.tc.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bergerkiller.bukkit.tc.commands.selector.SelectorCondition;
+import com.bergerkiller.bukkit.tc.utils.StationParser;
+
+/**
+ * Measures parsing of the text found on signs and in commands, which is
+ * done every time a train activates a sign or a selector is used.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextParsingBenchmark {
+
+    @Benchmark
+    public String parseStation(StationText text) {
+        return StationParser.parseStation(text.stationName);
+    }
+
+    @Benchmark
+    public List<SelectorCondition> parseSelectorConditions(SelectorText text) {
+        return SelectorCondition.parseAll(text.selectorConditions);
+    }
+
+    @State(Scope.Thread)
+    public static class StationText {
+        @Param({"Platform 1", "$C Central", "$CAI to $N $Rd via $A $S and $F $P"})
+        public String stationName;
+    }
+
+    @State(Scope.Thread)
+    public static class SelectorText {
+        @Param({"name=train1", "tag=!station*,speed=0.2..1.5,players=1..", "name=a*b*c,tag=x,tag=y,speed=..2,loc=1,world=w"})
+        public String selectorConditions;
+    }
+}
@@ -0,0 +1,161 @@
+package com.bergerkiller.bukkit.tc.offline.sign;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bergerkiller.bukkit.common.bases.IntVector3;
+import com.bergerkiller.bukkit.common.offline.OfflineWorld;
+
+/**
+ * Measures loading and saving sign metadata with the OfflineSignStore, as is done
+ * for every mutex, detector and spawner sign. The store saves to files in a temporary
+ * directory. Metadata similar to that of mutex signs is used, with a handler that
+ * keeps metadata of unloaded worlds decoded, as there is no live server.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OfflineSignStoreBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int signCount;
+
+    private final ZoneMetadataHandler handler = new ZoneMetadataHandler();
+    private File directory;
+    private OfflineSignStore store;
+    private OfflineSign[] signs;
+    private ZoneMetadata[][] metadata;
+    private int metadataIndex;
+
+    @Setup
+    public void setup() throws IOException {
+        this.directory = Files.createTempDirectory("tc-signstore").toFile();
+        this.store = new OfflineSignStore(null, Logger.getLogger("OfflineSignStoreBenchmark"),
+                new File(this.directory, "SignMetadata.dat"),
+                new File(this.directory, "SignMetadata.journal"));
+        this.store.load();
+        this.store.registerHandler(ZoneMetadata.class, this.handler);
+
+        // Two sets of metadata, so that every save stores changed metadata
+        OfflineWorld world = OfflineWorld.of(new UUID(0x5472616E, 0x436172747L));
+        this.signs = new OfflineSign[this.signCount];
+        this.metadata = new ZoneMetadata[2][this.signCount];
+        for (int i = 0; i < this.signCount; i++) {
+            OfflineSign sign = new OfflineSign(world.getBlockAt(3 * i, 64, -7 * i),
+                    new String[] { "[train]", "mutex 4/2/4", "zone" + (i % 64), "" });
+            IntVector3 position = sign.getPosition();
+            this.signs[i] = sign;
+            this.metadata[0][i] = new ZoneMetadata(sign.getLine(2), position.add(-4, -2, -4), position.add(4, 2, 4), "");
+            this.metadata[1][i] = new ZoneMetadata(sign.getLine(2), position.add(-4, -2, -4), position.add(4, 2, 4), "!cart");
+            this.store.put(sign, this.metadata[0][i]);
+        }
+        this.metadataIndex = 0;
+        this.store.saveNow();
+    }
+
+    @TearDown
+    public void teardown() {
+        File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    /**
+     * Changes the metadata of all signs and saves it. The changes are appended to the
+     * journal, which is compacted into the snapshot once it grows too large.
+     */
+    @Benchmark
+    public void save() {
+        this.metadataIndex ^= 1;
+        ZoneMetadata[] newMetadata = this.metadata[this.metadataIndex];
+        for (int i = 0; i < this.signs.length; i++) {
+            this.store.put(this.signs[i], newMetadata[i]);
+        }
+        this.store.saveNow();
+    }
+
+    /**
+     * Loads the snapshot and journal, and decodes the metadata of all signs when
+     * the handler is registered, the same as is done when the server starts.
+     *
+     * @return number of signs loaded
+     */
+    @Benchmark
+    public int load() {
+        this.store.unregisterHandler(this.handler);
+        this.store.load();
+        this.store.registerHandler(ZoneMetadata.class, this.handler);
+        return this.store.getAllEntries(ZoneMetadata.class).size();
+    }
+
+    private static final class ZoneMetadata {
+        public final String name;
+        public final IntVector3 start;
+        public final IntVector3 end;
+        public final String statement;
+
+        public ZoneMetadata(String name, IntVector3 start, IntVector3 end, String statement) {
+            this.name = name;
+            this.start = start;
+            this.end = end;
+            this.statement = statement;
+        }
+    }
+
+    private static final class ZoneMetadataHandler implements OfflineSignMetadataHandler<ZoneMetadata> {
+        @Override
+        public boolean isUnloadedWorldsIgnored() {
+            return false;
+        }
+
+        @Override
+        public void onUpdated(OfflineSignStore store, OfflineSign sign, ZoneMetadata oldValue, ZoneMetadata newValue) {
+        }
+
+        @Override
+        public void onAdded(OfflineSignStore store, OfflineSign sign, ZoneMetadata metadata) {
+        }
+
+        @Override
+        public void onRemoved(OfflineSignStore store, OfflineSign sign, ZoneMetadata metadata) {
+        }
+
+        @Override
+        public void onEncode(DataOutputStream stream, OfflineSign sign, ZoneMetadata value) throws IOException {
+            stream.writeUTF(value.name);
+            value.start.write(stream);
+            value.end.write(stream);
+            stream.writeUTF(value.statement);
+        }
+
+        @Override
+        public ZoneMetadata onDecode(DataInputStream stream, OfflineSign sign) throws IOException {
+            return new ZoneMetadata(stream.readUTF(), IntVector3.read(stream), IntVector3.read(stream), stream.readUTF());
+        }
+    }
+}
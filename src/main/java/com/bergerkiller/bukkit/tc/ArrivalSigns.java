@@ -16,12 +16,10 @@ import org.bukkit.block.Block;
 import org.bukkit.block.Sign;
 import org.bukkit.entity.Player;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
+import java.util.PriorityQueue;
 import java.util.logging.Level;
 
 public class ArrivalSigns {
@@ -90,9 +88,10 @@ public class ArrivalSigns {
     }
 
     public static void updateAll() {
-        for (TimeSign t : timerSigns.values()) {
-            if (!t.update()) {
-                return;
+        if (!TCConfig.SignLinkEnabled) return;
+        for (Iterator<TimeSign> iter = timerSigns.values().iterator(); iter.hasNext();) {
+            if (!iter.next().refresh()) {
+                iter.remove();
             }
         }
     }
@@ -279,8 +278,12 @@ public class ArrivalSigns {
     		}
     	}
     	
+    	public long getArrivalTime() {
+    		return startTime + duration;
+    	}
+    	
     	public long Remaining() {
-    		return duration - System.currentTimeMillis() + startTime;
+    		return getArrivalTime() - System.currentTimeMillis();
     	}
     	
     	public static void Log(TimePrediction t) {
@@ -293,37 +296,30 @@ public class ArrivalSigns {
     	
     }
     public static class TimeSign {
-    	public List<TimePrediction> predictions = new ArrayList<TimePrediction>();
-        /*public long startTime = -1;
-        public long FstartTime = -1;
-        public long duration;
-        public long Fduration;
-        public MinecartGroup group;
-        public MinecartGroup Fgroup;*/
+        /** Predictions ordered by arrival time, so that the next arrival is always at the head */
+        public PriorityQueue<TimePrediction> predictions = new PriorityQueue<TimePrediction>(Comparator.comparingLong(TimePrediction::getArrivalTime));
         private String name;
+        private String displayed = null;
         public long timeout = -1000L;
-        //public Boolean FgroupOverride = false;
-        //public Boolean inverted = false;
         public TimeSign(String name) {
             this.name = name;
         }
 
         public void trigger(MinecartGroup mm, Long d) {
-        	TimePrediction p = new TimePrediction(d, timeout, mm, false);
-        	if(!predictions.isEmpty()) {
-        		for(Iterator<TimePrediction> t = predictions.iterator(); t.hasNext(); ) {
-        			TimePrediction t2 = t.next();
-        				if(t2.Remaining() < timeout && t2.duration > 0) {
-        					t.remove();
-        				}
-        				if(Math.round(t2.Remaining()/5000) == Math.round(p.Remaining()/5000)) {
-        					return;
-        				};
-        		};
-        	}
-        	predictions.add(p);
-        	Collections.sort(predictions, Comparator.comparing(TimePrediction::Remaining));
-        	timerSigns.putIfAbsent(name, this);
+            TimePrediction p = new TimePrediction(d, timeout, mm, false);
+            long bucket = p.Remaining() / 5000;
+            for (Iterator<TimePrediction> t = predictions.iterator(); t.hasNext(); ) {
+                TimePrediction t2 = t.next();
+                long remaining = t2.Remaining();
+                if (remaining < timeout && t2.duration > 0) {
+                    t.remove();
+                }
+                if (remaining / 5000 == bucket) {
+                    return;
+                }
+            }
+            predictions.add(p);
+            timerSigns.putIfAbsent(name, this);
         }
 
         public String getName() {
@@ -331,81 +327,74 @@ public class ArrivalSigns {
         }
 
         public String getDuration() {
-        	if(predictions.size() < 1) return "No services";
-        	TimePrediction p = predictions.get(0);
+            // Arrivals that are long gone are at the head, unless a departure is still showing there
+            TimePrediction p;
+            while ((p = predictions.peek()) != null && p.duration > 0 && p.Remaining() < -10000L) {
+                predictions.poll();
+            }
+            if (p == null) return "No services";
+
             long remaining = p.Remaining();
-            for(Iterator<TimePrediction> t = predictions.iterator(); t.hasNext(); ) {
-    			TimePrediction t2 = t.next();
-    				if(t2.Remaining() < -10000L && t2.duration > 0) {
-    					t.remove();
-    				}
-    		};
-            if(remaining < 0L && p.duration < 0L) {
-            	if(p.inverted) {
-            		if(remaining < (p.duration*2) ) {
-            			predictions.remove(0);
-            			if(!predictions.isEmpty()) {
-                    		for(Iterator<TimePrediction> t = predictions.iterator(); t.hasNext(); ) {
-                    			TimePrediction t2 = t.next();
-                    				if(t2.Remaining() < -1000L) {
-                    					t.remove();
-                    				}
-                    		};
-                    	}
-            			if(predictions.size() < 1) return "No services";
-            			Collections.sort(predictions, Comparator.comparing(TimePrediction::Remaining));
-            			predictions.forEach(t -> TimePrediction.Log(t));
-            			remaining = predictions.get(0).Remaining();
-            			int time = (int) Math.ceil(0.001 * remaining); // msec -> sec
-                    	int seconds = (int) (time % 60);
-                    	int minutes = (int) (time % 3600) / 60;
-                    	StringBuilder rval = new StringBuilder(6);
-                    // 	Minutes
-                    	rval.append(minutes).append(':');
-                    // 	Seconds
-                    	if (seconds < 10) {
-                    		rval.append('0');
-                    	}
-                    	rval.append(seconds);
-                    	return rval.toString();
-            		}
-            		if(remaining < (p.duration*2+2500) ) {
-            			return "Departing";
-            		}
-            		return "Arrived";
-            	}
+            if (remaining < 0L && p.duration < 0L && p.inverted) {
+                if (remaining < (p.duration*2)) {
+                    // Departed, show the next arrival
+                    predictions.poll();
+                    while ((p = predictions.peek()) != null && p.Remaining() < -1000L) {
+                        predictions.poll();
+                    }
+                    if (p == null) return "No services";
+                    return formatRemaining(p.Remaining());
+                }
+                if (remaining < (p.duration*2+2500)) {
+                    return "Departing";
+                }
+                return "Arrived";
             }
-            if(remaining < 0) remaining = 0;
-            	int time = (int) Math.ceil(0.001 * remaining); // msec -> sec
-            	int seconds = (int) (time % 60);
-            	int minutes = (int) (time % 3600) / 60;
-            	StringBuilder rval = new StringBuilder(6);
-            // 	Minutes
-            	rval.append(minutes).append(':');
-            // 	Seconds
-            	if (seconds < 10) {
-            		rval.append('0');
-            	}
-            	rval.append(seconds);
-            	return rval.toString();
+            return formatRemaining(Math.max(0L, remaining));
         }
 
-        @SuppressWarnings("deprecation")
-		public boolean update() {
+        private static String formatRemaining(long remaining) {
+            int time = (int) Math.ceil(0.001 * remaining); // msec -> sec
+            int seconds = (int) (time % 60);
+            int minutes = (int) (time % 3600) / 60;
+            StringBuilder rval = new StringBuilder(6);
+            // Minutes
+            rval.append(minutes).append(':');
+            // Seconds
+            if (seconds < 10) {
+                rval.append('0');
+            }
+            rval.append(seconds);
+            return rval.toString();
+        }
+
+        public boolean update() {
             if (!TCConfig.SignLinkEnabled) return false;
+            if (!refresh()) {
+                timerSigns.remove(this.name);
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Updates the SignLink variable of this timer, if the text it displays changed
+         *
+         * @return False if no services are left and this timer can be removed
+         */
+        @SuppressWarnings("deprecation")
+        private boolean refresh() {
             String dur = getDuration();
-            if(dur.equals(Variables.get(this.name + 'S').get())) return true;
-            Variables.get(this.name + 'S').set(dur);
+            if (dur.equals(this.displayed)) {
+                return !dur.equals("No services");
+            }
+            this.displayed = dur;
             if (dur.equals("No services")) {
-            	timerSigns.remove(this.name);
+                Variables.get(this.name + 'S').set(dur);
                 return false;
             }
-            if (dur.equals("0:00")) {
-            	Variables.get(this.name + 'S').set("0:01");
-                return true;
-            } else {
-                return true;
-            }
+            Variables.get(this.name + 'S').set(dur.equals("0:00") ? "0:01" : dur);
+            return true;
         }
     }
 			
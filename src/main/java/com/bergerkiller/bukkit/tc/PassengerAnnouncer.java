@@ -0,0 +1,270 @@
+package com.bergerkiller.bukkit.tc;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.bergerkiller.bukkit.common.Task;
+import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
+import com.bergerkiller.bukkit.tc.controller.MinecartMember;
+import com.bergerkiller.bukkit.tc.utils.StationParser;
+
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.BaseComponent;
+import net.md_5.bungee.chat.ComponentSerializer;
+
+/**
+ * Shows station announcements in the action bar of the passengers of trains.
+ * Announcements are sent to all passengers of a train at once, using message
+ * components that are parsed once and then cached. Announcements that must be
+ * shown later, and the second note of the chime played with them, are stored
+ * in a timing wheel that is advanced by a single task every tick.<br>
+ * <br>
+ * All methods must be called from the main thread.
+ */
+public class PassengerAnnouncer {
+    private static final String CHIME_SOUND = "minecraft:block.note_block.chime";
+    private static final float CHIME_VOLUME = 10.0f;
+    private static final float CHIME_PITCH_FIRST = 1.0f;
+    private static final float CHIME_PITCH_SECOND = 0.85f;
+    private static final int CHIME_SECOND_DELAY = 6;
+    private static final int WHEEL_SIZE = 256;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    private static final int MESSAGE_CACHE_SIZE = 512;
+    @SuppressWarnings("unchecked")
+    private static final List<Scheduled>[] wheel = new List[WHEEL_SIZE];
+    private static final Map<String, BaseComponent[]> messages = new LinkedHashMap<String, BaseComponent[]>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, BaseComponent[]> eldest) {
+            return this.size() > MESSAGE_CACHE_SIZE;
+        }
+    };
+    private static int currentTick = 0;
+    private static int scheduledCount = 0;
+    private static Task wheelTask = null;
+
+    /**
+     * Shows a message in the action bar of all passengers of a train right away
+     *
+     * @param group Train to announce to
+     * @param message Message text, or the message JSON if raw is true. Nothing is announced if null.
+     * @param color Color of the message text, as accepted by {@link StationParser#convertColor(String)}
+     * @param chime Whether to play the chime sound
+     * @param raw Whether the message is JSON instead of plain text
+     */
+    public static void announce(MinecartGroup group, String message, String color, boolean chime, boolean raw) {
+        if (message == null) {
+            return;
+        }
+        BaseComponent[] components = getMessage(message, color, raw);
+        boolean hasPassengers = false;
+        for (MinecartMember<?> member : group) {
+            hasPassengers |= send(member, components, chime ? CHIME_PITCH_FIRST : -1.0f);
+        }
+        if (chime && hasPassengers) {
+            schedule(null, group, null, CHIME_SECOND_DELAY, null, null, false, false);
+        }
+    }
+
+    /**
+     * Shows a message in the action bar of the passengers of a single cart right away
+     *
+     * @param member Cart to announce to
+     * @param message Message text, or the message JSON if raw is true. Nothing is announced if null.
+     * @param color Color of the message text, as accepted by {@link StationParser#convertColor(String)}
+     * @param chime Whether to play the chime sound
+     * @param raw Whether the message is JSON instead of plain text
+     */
+    public static void announce(MinecartMember<?> member, String message, String color, boolean chime, boolean raw) {
+        if (message == null) {
+            return;
+        }
+        if (send(member, getMessage(message, color, raw), chime ? CHIME_PITCH_FIRST : -1.0f) && chime) {
+            schedule(null, member.getGroup(), member, CHIME_SECOND_DELAY, null, null, false, false);
+        }
+    }
+
+    /**
+     * Shows a message in the action bar of all passengers of a train after a delay.
+     * The message is only created once it is shown, so it can include information that
+     * changes in the meantime.
+     *
+     * @param plugin Plugin instance, used to run the task that shows the message
+     * @param group Train to announce to
+     * @param delay Delay in ticks
+     * @param message Supplier of the message text, or of the message JSON if raw is true.
+     *                Nothing is announced if it supplies null.
+     * @param color Color of the message text, as accepted by {@link StationParser#convertColor(String)}
+     * @param chime Whether to play the chime sound
+     * @param raw Whether the message is JSON instead of plain text
+     */
+    public static void announceLater(JavaPlugin plugin, MinecartGroup group, long delay, Supplier<String> message, String color, boolean chime, boolean raw) {
+        schedule(plugin, group, null, delay, message, color, chime, raw);
+    }
+
+    /**
+     * Gets the message components shown for a message, parsing the message if it
+     * was not shown before
+     *
+     * @param message Message text, or the message JSON if raw is true
+     * @param color Color of the message text, as accepted by {@link StationParser#convertColor(String)}
+     * @param raw Whether the message is JSON instead of plain text
+     * @return message components
+     */
+    public static BaseComponent[] getMessage(String message, String color, boolean raw) {
+        String json = raw ? message : ("{\"text\":\"" + message + "\", \"color\":\"" + StationParser.convertColor(color) + "\"}");
+        BaseComponent[] components = messages.get(json);
+        if (components == null) {
+            components = ComponentSerializer.parse(json);
+            messages.put(json, components);
+        }
+        return components;
+    }
+
+    /**
+     * Gets the number of announcements and chimes waiting to be shown
+     *
+     * @return scheduled count
+     */
+    public static int getScheduledCount() {
+        return scheduledCount;
+    }
+
+    /**
+     * Cancels all scheduled announcements and forgets all cached messages
+     */
+    public static void deinit() {
+        if (wheelTask != null) {
+            wheelTask.stop();
+            wheelTask = null;
+        }
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = null;
+        }
+        scheduledCount = 0;
+        messages.clear();
+    }
+
+    private static boolean send(MinecartMember<?> member, BaseComponent[] components, float chimePitch) {
+        boolean hasPassengers = false;
+        for (Player player : member.getEntity().getPlayerPassengers()) {
+            hasPassengers = true;
+            if (components != null) {
+                player.spigot().sendMessage(ChatMessageType.ACTION_BAR, components);
+            }
+            if (chimePitch >= 0.0f) {
+                player.playSound(player.getLocation(), CHIME_SOUND, CHIME_VOLUME, chimePitch);
+            }
+        }
+        return hasPassengers;
+    }
+
+    private static void schedule(JavaPlugin plugin, MinecartGroup group, MinecartMember<?> member, long delay, Supplier<String> message, String color, boolean chime, boolean raw) {
+        if (delay < 1) {
+            delay = 1;
+        }
+        if (wheelTask == null) {
+            if (plugin == null) {
+                plugin = group.getTrainCarts();
+            }
+            wheelTask = new WheelTask(plugin).start(1, 1);
+        }
+
+        // An entry is first visited within WHEEL_SIZE ticks, then once every full turn of the wheel
+        int slot = (int) ((currentTick + delay) & WHEEL_MASK);
+        List<Scheduled> entries = wheel[slot];
+        if (entries == null) {
+            wheel[slot] = entries = new ArrayList<Scheduled>();
+        }
+        entries.add(new Scheduled(group, member, message, color, chime, raw, (delay - 1) / WHEEL_SIZE));
+        scheduledCount++;
+    }
+
+    private static void deliver(Scheduled entry) {
+        if (entry.member != null) {
+            // Second note of a chime played for a single cart
+            if (!entry.member.isUnloaded()) {
+                send(entry.member, null, CHIME_PITCH_SECOND);
+            }
+            return;
+        }
+        if (entry.group.isUnloaded() || entry.group.isEmpty()) {
+            return;
+        }
+        if (entry.message == null) {
+            // Second note of a chime
+            for (MinecartMember<?> member : entry.group) {
+                send(member, null, CHIME_PITCH_SECOND);
+            }
+        } else {
+            announce(entry.group, entry.message.get(), entry.color, entry.chime, entry.raw);
+        }
+    }
+
+    private static final class WheelTask extends Task {
+
+        public WheelTask(JavaPlugin plugin) {
+            super(plugin);
+        }
+
+        @Override
+        public void run() {
+            int slot = (++currentTick) & WHEEL_MASK;
+            List<Scheduled> entries = wheel[slot];
+            if (entries != null) {
+                // Take the slot out first, announcements can schedule new entries in it
+                wheel[slot] = null;
+                List<Scheduled> remaining = null;
+                for (Scheduled entry : entries) {
+                    if (entry.rounds > 0) {
+                        entry.rounds--;
+                        if (remaining == null) {
+                            remaining = new ArrayList<Scheduled>();
+                        }
+                        remaining.add(entry);
+                    } else {
+                        scheduledCount--;
+                        deliver(entry);
+                    }
+                }
+                if (remaining != null) {
+                    if (wheel[slot] != null) {
+                        remaining.addAll(wheel[slot]);
+                    }
+                    wheel[slot] = remaining;
+                }
+            }
+            if (scheduledCount == 0 && wheelTask == this) {
+                wheelTask = null;
+                this.stop();
+            }
+        }
+    }
+
+    private static final class Scheduled {
+        public final MinecartGroup group;
+        public final MinecartMember<?> member;
+        public final Supplier<String> message;
+        public final String color;
+        public final boolean chime;
+        public final boolean raw;
+        public long rounds;
+
+        public Scheduled(MinecartGroup group, MinecartMember<?> member, Supplier<String> message, String color, boolean chime, boolean raw, long rounds) {
+            this.group = group;
+            this.member = member;
+            this.message = message;
+            this.color = color;
+            this.chime = chime;
+            this.raw = raw;
+            this.rounds = rounds;
+        }
+    }
+}
@@ -26,7 +26,9 @@ import com.bergerkiller.bukkit.common.utils.MathUtil;
 import com.bergerkiller.bukkit.common.utils.ParseUtil;
 import com.bergerkiller.bukkit.tc.attachments.animation.Animation;
 import com.bergerkiller.bukkit.tc.pathfinding.PathProvider;
+import com.bergerkiller.bukkit.tc.statements.Statement;
 import com.bergerkiller.bukkit.tc.utils.ConfiguredWorldSet;
+import com.bergerkiller.bukkit.tc.utils.StationParser;
 
 /**
  * Stores all the settings specified in the TrainCarts config.yml.
@@ -59,6 +61,8 @@ public class TCConfig {
     public static boolean useCoalFromStorageCart;
     public static boolean setOwnerOnPlacement;
     public static boolean keepChunksLoadedOnlyWhenMoving;
+    public static boolean simulateUnloadedTrains;
+    public static int simulateUnloadedTrainsStationDelay;
     public static int maxDetectorLength;
     public static int maxMutexSize;
     public static int maxMinecartStackSize;
@@ -82,9 +86,12 @@ public class TCConfig {
     public static boolean allowNetherTeleport;
     public static int cacheVerificationTicks;
     public static int cacheExpireTicks;
+    public static boolean cacheEventInvalidation;
+    public static int cacheEventVerificationTicks;
     public static boolean enableCeilingBlockCollision = true; // whether to allow blocks above the minecart to collide
     public static int collisionReEnterDelay = 100; // Delay before letting mobs/player enter again
     public static boolean optimizeBlockActivation;
+    public static boolean optimizeHighSpeedMovement;
     public static boolean SignLinkEnabled = false;
     public static boolean MinecartManiaEnabled = false;
     public static boolean activatorEjectEnabled = true;
@@ -110,6 +117,8 @@ public class TCConfig {
     public static double unloadRunawayTrainDistance = 160.0;
     public static int autoSaveInterval = 30 * 20; // autosave every 30 seconds
     public static int attachmentTransformParallelism = -1;
+    public static double attachmentReducedUpdateDistance = 0.0;
+    public static double attachmentMinimalUpdateDistance = 0.0;
     public static boolean allowExternalTicketImagePaths = false; // Whether images outside of the images subdirectory are allowed
     public static String currencyFormat;
     public static Set<Material> allowedBlockBreakTypes = new HashSet<>();
@@ -245,6 +254,16 @@ public class TCConfig {
         config.addHeader("keepChunksLoadedOnlyWhenMoving", "They also keep chunks loaded while the train is waiting on a station");
         keepChunksLoadedOnlyWhenMoving = config.get("keepChunksLoadedOnlyWhenMoving", false);
 
+        config.setHeader("simulateUnloadedTrains", "\nWhether trains driving to a destination keep moving along their route after they unload");
+        config.addHeader("simulateUnloadedTrains", "Their progress is estimated using the path finding distances and their speed when unloaded");
+        config.addHeader("simulateUnloadedTrains", "When they reach a path finding node in a loaded area, or their destination, they are restored there");
+        config.addHeader("simulateUnloadedTrains", "Mutex zones, other trains and destination changes by station signs are not simulated");
+        config.addHeader("simulateUnloadedTrains", "Trains are not moved onto occupied rails or into mutex zones, they are restored where they unloaded instead");
+        config.addHeader("simulateUnloadedTrains", "This is an alternative to keeping chunks loaded for trains that should keep running");
+        simulateUnloadedTrains = config.get("simulateUnloadedTrains", false);
+        config.setHeader("simulateUnloadedTrainsStationDelay", "\nHow many ticks unloaded trains that are simulated wait at every station they pass");
+        simulateUnloadedTrainsStationDelay = Math.max(0, config.get("simulateUnloadedTrainsStationDelay", 200));
+
         config.setHeader("enableCeilingBlockCollision", "\nWhether to enable or cancel collisions with blocks above minecarts");
         config.addHeader("enableCeilingBlockCollision", "Some constructions depend on these block collisions to block minecarts");
         config.addHeader("enableCeilingBlockCollision", "If these collisions are unwanted, they can be turned off here");
@@ -313,6 +332,13 @@ public class TCConfig {
         config.addHeader("optimizeBlockActivation", "This optimization helps improve performance of train movement physics, potentially improving tps");
         optimizeBlockActivation = config.get("optimizeBlockActivation", true);
 
+        config.setHeader("optimizeHighSpeedMovement", "\nWhether trains faster than 0.4 blocks/tick move the full distance in one physics update on straight track");
+        config.addHeader("optimizeHighSpeedMovement", "This is only done when there are no signs, detector regions, mutex zones or other trains up ahead");
+        config.addHeader("optimizeHighSpeedMovement", "Otherwise the movement is split into updates of 0.4 blocks, so that every rail block is handled");
+        config.addHeader("optimizeHighSpeedMovement", "This optimization greatly reduces the cost of fast trains, potentially improving tps");
+        config.addHeader("optimizeHighSpeedMovement", "This is experimental and disabled by default");
+        optimizeHighSpeedMovement = config.get("optimizeHighSpeedMovement", false);
+
         config.setHeader("instantCreativeDestroy", "\nWhen set to true, players will be able to break minecarts with a single slap\n" +
                 "\nNo item drops are spawned for minecarts destroyed this way. Minecart contents ARE dropped." +
                 "\nThey can still select minecarts by crouching and then slapping the minecart\n" +
@@ -369,6 +395,15 @@ public class TCConfig {
             cacheConfig.setHeader("expireTicks", "After this number of ticks beyond the verification ticks the cached information is deleted");
             cacheConfig.addHeader("expireTicks", "Higher values can reduce lookups but this comes at the cost of higher memory consumption");
             cacheExpireTicks = cacheConfig.get("expireTicks", 20);
+            cacheConfig.setHeader("eventInvalidation", "Whether block change events invalidate the cached information of rails and signs");
+            cacheConfig.addHeader("eventInvalidation", "When enabled, verified rails are trusted until a block near the rails or its signs changes");
+            cacheConfig.addHeader("eventInvalidation", "This avoids verifying track that never changes, but block changes that fire no event");
+            cacheConfig.addHeader("eventInvalidation", "are only noticed after eventVerificationTicks. Only used for the built-in rail types.");
+            cacheConfig.addHeader("eventInvalidation", "Plugins like WorldEdit change blocks without firing events, so this is disabled by default.");
+            cacheConfig.addHeader("eventInvalidation", "Only enable it when track is not changed by such plugins, or when some ghost rails are acceptable.");
+            cacheEventInvalidation = cacheConfig.get("eventInvalidation", false);
+            cacheConfig.setHeader("eventVerificationTicks", "When eventInvalidation is enabled, after how many ticks trusted information is verified anyway");
+            cacheEventVerificationTicks = Math.max(1, cacheConfig.get("eventVerificationTicks", 200));
         }
 
         config.setHeader("allowedBlockBreakTypes", "\nThe block materials that can be broken using minecarts");
@@ -442,6 +477,24 @@ public class TCConfig {
             config.set("statementShortcuts.diamond", "i@diamond");
         }
         statementShortcuts.clear().load(config.getNode("statementShortcuts"));
+        Statement.clearCompiled();
+
+        //station name abbreviations
+        config.setHeader("stationAbbreviations", "\nAbbreviations that can be used in station names on station signs");
+        config.addHeader("stationAbbreviations", "Writing $ followed by the abbreviation on a sign is replaced with the full name");
+        if (!config.contains("stationAbbreviations")) {
+            for (Map.Entry<String, String> entry : StationParser.getDefaultAbbreviations().entrySet()) {
+                config.set("stationAbbreviations." + entry.getKey(), entry.getValue());
+            }
+        }
+        {
+            ConfigurationNode abbreviationsNode = config.getNode("stationAbbreviations");
+            Map<String, String> abbreviations = new HashMap<String, String>();
+            for (String key : abbreviationsNode.getKeys()) {
+                abbreviations.put(key, abbreviationsNode.get(key, String.class, null));
+            }
+            StationParser.setAbbreviations(abbreviations);
+        }
 
         //parser shortcuts
         config.setHeader("itemShortcuts", "\nSeveral shortcuts you can use on signs to set the items");
@@ -489,9 +542,12 @@ public class TCConfig {
 
         config.setHeader("pathFindingMaxProcessingPerTick", "\nSets the maximum amount of time (in milliseconds) to spend, per tick,");
         config.addHeader("pathFindingMaxProcessingPerTick", "calculating train routing information. (/train reroute, reroute debug stick)");
+        config.addHeader("pathFindingMaxProcessingPerTick", "Routing is calculated on the main thread. Discovering new signs and walking the");
+        config.addHeader("pathFindingMaxProcessingPerTick", "routes between them share this time. Fractions such as 2.5 can be used");
         config.addHeader("pathFindingMaxProcessingPerTick", "Raising this can make computations go faster at the cost of server TPS");
+        config.addHeader("pathFindingMaxProcessingPerTick", "On large networks, lowering this keeps TPS stable while rerouting takes longer");
         traincarts.getPathProvider().setMaxProcessingPerTick(
-                config.get("pathFindingMaxProcessingPerTick", PathProvider.DEFAULT_MAX_PROCESSING_PER_TICK));
+                config.get("pathFindingMaxProcessingPerTick", (double) PathProvider.DEFAULT_MAX_PROCESSING_PER_TICK));
 
         config.setHeader("switcherResetCountersOnFirstCart", "\nFor [cart] signs that use counter statements, specifies whether");
         config.addHeader("switcherResetCountersOnFirstCart", "counters reset on the first cart of the train");
@@ -614,6 +670,17 @@ public class TCConfig {
             attachmentTransformParallelism = config.get("attachmentTransformParallelism", -1);
         }
 
+        // Level of detail of attachment movement updates sent to far-away players
+        config.setHeader("attachmentReducedUpdateDistance", "\nWhen all players that can see a cart are further away than this distance,");
+        config.addHeader("attachmentReducedUpdateDistance", "the position and rotation of the attachments of that cart is sent to them every 2 ticks.");
+        config.addHeader("attachmentReducedUpdateDistance", "Metadata changes are still sent every tick. For example, 48 can be used.");
+        config.addHeader("attachmentReducedUpdateDistance", "Set to 0 (default) to always send movement updates every tick");
+        attachmentReducedUpdateDistance = config.get("attachmentReducedUpdateDistance", 0.0);
+        config.setHeader("attachmentMinimalUpdateDistance", "\nWhen all players that can see a cart are further away than this distance,");
+        config.addHeader("attachmentMinimalUpdateDistance", "the position and rotation of the attachments of that cart is sent to them every 5 ticks.");
+        config.addHeader("attachmentMinimalUpdateDistance", "For example, 96 can be used. Set to 0 (default) to disable this level of detail");
+        attachmentMinimalUpdateDistance = config.get("attachmentMinimalUpdateDistance", 0.0);
+
         config.setHeader("unloadRunawayTrainDistance", "\nWhen trains that keep chunks loaded around them derail, they can end up");
         config.addHeader("unloadRunawayTrainDistance", "flying off into nowhere. This results in thousands of chunks being generated,");
         config.addHeader("unloadRunawayTrainDistance", "with no clear indication other than server performance tanking. To combat this,");
@@ -133,6 +133,9 @@ public class TCListener implements Listener {
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onChunkUnload(ChunkUnloadEvent event) {
+        // Blocks of the chunk might be different once it loads again
+        RailLookup.notifyChunkChanged(event.getWorld(), event.getChunk().getX(), event.getChunk().getZ());
+
         // This chunk is still referenced, ensure that it is really gone
         long chunkCoordLong = MathUtil.longHashToLong(event.getChunk().getX(), event.getChunk().getZ());
         OfflineGroupManager.lastUnloadChunk = Long.valueOf(chunkCoordLong);
@@ -636,6 +639,7 @@ public class TCListener implements Listener {
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockBreak(BlockBreakEvent event) {
+        RailLookup.notifyBlockChanged(event.getBlock());
         if (MaterialUtil.ISSIGN.get(event.getBlock())) {
             SignAction.handleDestroy(new SignActionEvent(event.getBlock()));
             // Also remove from the loaded sign controller
@@ -650,6 +654,7 @@ public class TCListener implements Listener {
      */
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
     public void onBlockPlace(BlockPlaceEvent event) {
+        RailLookup.notifyBlockChanged(event.getBlockPlaced());
         RailType railType = RailType.getType(event.getBlockPlaced());
         if (railType != RailType.NONE) {
             final Block placed = event.getBlockPlaced();
@@ -674,6 +679,7 @@ public class TCListener implements Listener {
         MinecartGroupStore.notifyPhysicsChange();
         Block block = event.getBlock();
         BlockData blockData = Util.getBlockDataOfPhysicsEvent(event);
+        RailLookup.notifyBlockChanged(block);
 
         // Check if a rail block is broken
         {
@@ -11,6 +11,7 @@ import com.bergerkiller.bukkit.common.protocol.PacketType;
 import com.bergerkiller.bukkit.common.utils.CommonUtil;
 import com.bergerkiller.bukkit.common.utils.WorldUtil;
 import com.bergerkiller.bukkit.common.wrappers.HumanHand;
+import com.bergerkiller.bukkit.tc.attachments.VirtualEntityIndex;
 import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
 import com.bergerkiller.bukkit.tc.controller.MinecartGroupStore;
 import com.bergerkiller.bukkit.tc.controller.MinecartMember;
@@ -120,8 +121,21 @@ class TCPacketListener implements PacketListener {
                 return;
             }
 
-            // Find all Minecart entities that are nearby the player
+            // Most attachment entities are virtual entities, which can be looked up right away
+            // Only when not found, look for other entity ids used by attachments, like fake seated players
             Location eyeLoc = event.getPlayer().getEyeLocation();
+            MinecartMember<?> indexedMember = VirtualEntityIndex.getMember(entityId);
+            if (indexedMember != null) {
+                if (!indexedMember.isUnloaded() &&
+                    indexedMember.getWorld() == eyeLoc.getWorld() &&
+                    indexedMember.getAttachments().isViewer(event.getPlayer())
+                ) {
+                    handleAttachmentInteraction(event, packet_use, indexedMember, eyeLoc);
+                }
+                return;
+            }
+
+            // Find all Minecart entities that are nearby the player
             try (ImplicitlySharedSet<MinecartGroup> groups = MinecartGroupStore.getGroups().clone()) {
                 for (MinecartGroup group : groups) {
                     if (group.getWorld() != eyeLoc.getWorld()) {
@@ -136,46 +150,7 @@ class TCPacketListener implements PacketListener {
                             continue; // Id is not used in the model
                         }
 
-                        // UseAction INTERACT_AT fires for all entities, including Armorstands
-                        // The INTERACT only fires for interactable entities, like Minecarts
-                        // Since INTERACT_AT also fires for Minecarts, it is easier to ignore INTERACT
-                        // and do all handling using INTERACT_AT.
-                        if (packet_use.isInteract()) {
-                            event.setCancelled(true);
-                            return;
-                        }
-
-                        // If nearby the player, allow standard interaction. Otherwise, do all of this ourselves.
-                        // Minecraft enforces a 3 block radius when not having line of sight, assume this limit.
-                        if (member.getEntity().loc.distanceSquared(eyeLoc) < (3.0 * 3.0)) {
-                            
-                            // For some reason this is needed, though.
-                            if (packet_use.isInteractAt()) {
-                                HumanHand hand = packet_use.getInteractHand(event.getPlayer());
-                                packet_use.setInteract(event.getPlayer(), hand);
-                            }
-
-                            // Must track this to cancel superfluous LEFT clicks that happen later
-                            if (packet_use.isInteract() || packet_use.isInteractAt()) {
-                                this.suppressAttacksFor(event.getPlayer(), ATTACK_SUPPRESS_DURATION);
-                            }
-
-                            // Rewrite the packet
-                            packet_use.setUsedEntityId(member.getEntity().getEntityId());
-                            return; // Allow
-                        }
-
-                        // Cancel the interaction and handle this ourselves.
-                        if (packet_use.isInteract() || packet_use.isInteractAt()) {
-                            // Get hand used for interaction
-                            HumanHand hand = packet_use.getInteractHand(event.getPlayer());
-                            fakeInteraction(member, event.getPlayer(), hand);
-                            event.setCancelled(true);
-                        } else if (packet_use.isAttack()) {
-                            // Attack
-                            fakeAttack(member, event.getPlayer());
-                            event.setCancelled(true);
-                        }
+                        handleAttachmentInteraction(event, packet_use, member, eyeLoc);
                         return;
                     }
                 }
@@ -183,6 +158,49 @@ class TCPacketListener implements PacketListener {
         }
     }
 
+    private void handleAttachmentInteraction(PacketReceiveEvent event, PacketPlayInUseEntityHandle packet_use, MinecartMember<?> member, Location eyeLoc) {
+        // UseAction INTERACT_AT fires for all entities, including Armorstands
+        // The INTERACT only fires for interactable entities, like Minecarts
+        // Since INTERACT_AT also fires for Minecarts, it is easier to ignore INTERACT
+        // and do all handling using INTERACT_AT.
+        if (packet_use.isInteract()) {
+            event.setCancelled(true);
+            return;
+        }
+
+        // If nearby the player, allow standard interaction. Otherwise, do all of this ourselves.
+        // Minecraft enforces a 3 block radius when not having line of sight, assume this limit.
+        if (member.getEntity().loc.distanceSquared(eyeLoc) < (3.0 * 3.0)) {
+            
+            // For some reason this is needed, though.
+            if (packet_use.isInteractAt()) {
+                HumanHand hand = packet_use.getInteractHand(event.getPlayer());
+                packet_use.setInteract(event.getPlayer(), hand);
+            }
+
+            // Must track this to cancel superfluous LEFT clicks that happen later
+            if (packet_use.isInteract() || packet_use.isInteractAt()) {
+                this.suppressAttacksFor(event.getPlayer(), ATTACK_SUPPRESS_DURATION);
+            }
+
+            // Rewrite the packet
+            packet_use.setUsedEntityId(member.getEntity().getEntityId());
+            return; // Allow
+        }
+
+        // Cancel the interaction and handle this ourselves.
+        if (packet_use.isInteract() || packet_use.isInteractAt()) {
+            // Get hand used for interaction
+            HumanHand hand = packet_use.getInteractHand(event.getPlayer());
+            fakeInteraction(member, event.getPlayer(), hand);
+            event.setCancelled(true);
+        } else if (packet_use.isAttack()) {
+            // Attack
+            fakeAttack(member, event.getPlayer());
+            event.setCancelled(true);
+        }
+    }
+
     public static void fakeAttack(final MinecartMember<?> member, final Player player) {
         // Fix cross-thread access
         if (!CommonUtil.isMainThread()) {
@@ -27,6 +27,7 @@ import com.bergerkiller.bukkit.tc.commands.selector.SelectorHandlerRegistry;
 import com.bergerkiller.bukkit.tc.commands.selector.TCSelectorHandlerRegistry;
 import com.bergerkiller.bukkit.tc.controller.*;
 import com.bergerkiller.bukkit.tc.controller.global.PacketQueueMap;
+import com.bergerkiller.bukkit.tc.controller.global.BlockChangeController;
 import com.bergerkiller.bukkit.tc.controller.global.SignController;
 import com.bergerkiller.bukkit.tc.controller.global.TrainUpdateController;
 import com.bergerkiller.bukkit.tc.detector.DetectorRegion;
@@ -38,6 +39,7 @@ import com.bergerkiller.bukkit.tc.pathfinding.RouteManager;
 import com.bergerkiller.bukkit.tc.portals.TCPortalManager;
 import com.bergerkiller.bukkit.tc.properties.SavedTrainPropertiesStore;
 import com.bergerkiller.bukkit.tc.properties.TrainProperties;
+import com.bergerkiller.bukkit.tc.properties.TrainPropertiesStore;
 import com.bergerkiller.bukkit.tc.properties.api.IPropertyRegistry;
 import com.bergerkiller.bukkit.tc.properties.registry.TCPropertyRegistry;
 import com.bergerkiller.bukkit.tc.properties.standard.StandardProperties;
@@ -50,8 +52,10 @@ import com.bergerkiller.bukkit.tc.signactions.SignActionSpawn;
 import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZoneCache;
 import com.bergerkiller.bukkit.tc.signactions.spawner.SpawnSignManager;
 import com.bergerkiller.bukkit.tc.statements.Statement;
+import com.bergerkiller.bukkit.tc.storage.BackgroundSaveWriter;
 import com.bergerkiller.bukkit.tc.storage.OfflineGroup;
 import com.bergerkiller.bukkit.tc.storage.OfflineGroupManager;
+import com.bergerkiller.bukkit.tc.storage.OfflineGroupSimulator;
 import com.bergerkiller.bukkit.tc.tickets.TicketStore;
 import com.bergerkiller.bukkit.tc.utils.BlockPhysicsEventDataAccessor;
 import com.bergerkiller.bukkit.tc.utils.tab.TabNameTagHider;
@@ -87,6 +91,7 @@ public class TrainCarts extends PluginBase {
     private Task autosaveTask;
     private Task cacheCleanupTask;
     private Task mutexZoneUpdateTask;
+    private OfflineGroupSimulator offlineGroupSimulator;
     private final List<ChunkPreloadTask> chunkPreloadTasks = new ArrayList<>();
     private TCPropertyRegistry propertyRegistry;
     private TCListener listener;
@@ -105,7 +110,9 @@ public class TrainCarts extends PluginBase {
     private final TCSelectorHandlerRegistry selectorHandlerRegistry = new TCSelectorHandlerRegistry(this);
     private final OfflineSignStore offlineSignStore = new OfflineSignStore(this);
     private final SignController signController = new SignController(this);
+    private final BlockChangeController blockChangeController = new BlockChangeController(this);
     private final PacketQueueMap packetQueueMap = new PacketQueueMap();
+    private final BackgroundSaveWriter saveWriter = new BackgroundSaveWriter(this);
     private Economy econ = null;
     private boolean isTabPluginEnabled = false;
     private SmoothCoastersAPI smoothCoastersAPI;
@@ -244,6 +251,16 @@ public class TrainCarts extends PluginBase {
         return this.signController;
     }
 
+    /**
+     * Gets the block change controller, which applies the block changes
+     * of signs that animate blocks, such as platform screen doors, in batches.
+     *
+     * @return block change controller
+     */
+    public BlockChangeController getBlockChangeController() {
+        return this.blockChangeController;
+    }
+
     /**
      * Gets the packet queue map, which stores special queues per player to send packets
      * asynchronously.
@@ -254,6 +271,16 @@ public class TrainCarts extends PluginBase {
         return this.packetQueueMap;
     }
 
+    /**
+     * Gets the save writer, which writes snapshots of the stored data of TrainCarts
+     * to disk on a background thread.
+     *
+     * @return save writer
+     */
+    public BackgroundSaveWriter getSaveWriter() {
+        return this.saveWriter;
+    }
+
     /**
      * Gets a TAB plugin custom nametag hider. This is used when the TAB plugin is installed
      * to hide the armorstand-supported custom name while players are in a seat marked no-nametag.
@@ -621,6 +648,7 @@ public class TrainCarts extends PluginBase {
 
         //Automatically tracks the signs that are loaded
         this.signController.enable();
+        this.blockChangeController.enable();
 
         //Automatically saves sign metadata to disk in the background
         //For worlds not already loaded, loads metadata where this is a condition
@@ -686,6 +714,9 @@ public class TrainCarts extends PluginBase {
         // Refreshes mutex signs with trains on it to release state again
         mutexZoneUpdateTask = new MutexZoneUpdateTask(this).start(1, 1);
 
+        // Keeps unloaded trains moving along their route, if enabled
+        offlineGroupSimulator = new OfflineGroupSimulator(this).startSimulating();
+
         // Starts a task to track the auto-spawn timers
         this.spawnSignManager.enable();
 
@@ -778,6 +809,10 @@ public class TrainCarts extends PluginBase {
         Task.stop(autosaveTask);
         Task.stop(cacheCleanupTask);
         Task.stop(mutexZoneUpdateTask);
+        if (offlineGroupSimulator != null) {
+            offlineGroupSimulator.stopSimulating();
+            offlineGroupSimulator = null;
+        }
 
         //Stop preloading chunks (happens when quickly disabling after enabling)
         for (ChunkPreloadTask preloadTask : this.chunkPreloadTasks) {
@@ -864,6 +899,7 @@ public class TrainCarts extends PluginBase {
 
         //save all data to disk (autosave=false)
         save(false);
+        saveWriter.stop();
 
         // Disable path provider before de-initializing path nodes / sign actions
         if (this.pathProvider != null) {
@@ -873,12 +909,14 @@ public class TrainCarts extends PluginBase {
 
         // Deinit classes
         ArrivalSigns.deinit();
+        PassengerAnnouncer.deinit();
         SignActionSpawn.deinit();
         Statement.deinit();
         SignAction.deinit();
         ItemAnimation.deinit();
         OfflineGroupManager.deinit();
         RailLookup.clear();
+        this.blockChangeController.disable();
         this.signController.disable();
 
         // Now plugin is mostly shut down, de-register all MinecartMember controllers from the server
@@ -920,16 +958,16 @@ public class TrainCarts extends PluginBase {
      */
     public void save(boolean autosave) {
         //Save properties
-        TrainProperties.save(autosave);
+        TrainPropertiesStore.save(saveWriter, autosave);
 
         //Save saved trains
-        this.savedTrainsStore.save(autosave);
+        this.savedTrainsStore.save(saveWriter, autosave);
 
         //Save Train tickets
-        TicketStore.save(this, autosave);
+        TicketStore.save(saveWriter, autosave);
 
         //Save destinations
-        pathProvider.save(autosave, getDataFolder() + File.separator + "destinations.dat");
+        pathProvider.save(saveWriter, autosave, getDataFolder() + File.separator + "destinations.dat");
 
         //Save arrival times
         if (!autosave) {
@@ -937,18 +975,24 @@ public class TrainCarts extends PluginBase {
         }
 
         //Save detector regions
-        DetectorRegion.save(this, autosave);
+        DetectorRegion.save(saveWriter, autosave);
 
         //Save attachment models
         attachmentModels.save(autosave);
 
         //Save routes
-        routeManager.save(autosave);
+        routeManager.save(saveWriter, autosave);
 
         // Save train information
         if (!autosave) {
             OfflineGroupManager.save(getDataFolder() + File.separator + "trains.groupdata");
         }
+
+        // Snapshots are written in the background. When saving manually or while
+        // shutting down, the files must be written by the time this method returns.
+        if (!autosave) {
+            saveWriter.sync();
+        }
     }
 
     private void enableOfflineSignHandlers() {
@@ -389,6 +389,9 @@ public class VirtualEntity {
 
     public void addViewerWithoutSpawning(AttachmentViewer viewer) {
         if (!this.viewers.contains(viewer)) {
+            if (this.viewers.isEmpty()) {
+                VirtualEntityIndex.add(this.entityId, this.manager);
+            }
             this.viewers.add(viewer);
         }
     }
@@ -416,6 +419,9 @@ public class VirtualEntity {
         if (this.viewers.contains(viewer)) {
             this.destroy(viewer);
         }
+        if (this.viewers.isEmpty()) {
+            VirtualEntityIndex.add(this.entityId, this.manager);
+        }
         this.viewers.add(viewer);
 
         this.sendSpawnPackets(viewer, motion);
@@ -526,6 +532,14 @@ public class VirtualEntity {
         double abs_delta = Math.max(Math.max(Math.abs(dx), Math.abs(dy)), Math.abs(dz));
         boolean largeChange = (abs_delta > EntityNetworkController.MAX_RELATIVE_DISTANCE);
 
+        // When all viewers are far away, relative movement is sent less often
+        // The movement skipped is sent as part of the next update
+        if (!absolute && !largeChange && this.manager instanceof AttachmentControllerMember &&
+            ((AttachmentControllerMember) this.manager).isMovementThrottled()
+        ) {
+            return;
+        }
+
         // Detect a glitched pitch rotation, and perform a respawn then
         if (this.respawnOnPitchFlip && this.syncPitch != this.livePitch && Util.isProtocolRotationGlitched(this.syncPitch, this.livePitch)) {
             this.viewers.forEach(this::sendDestroyPackets);
@@ -672,7 +686,10 @@ public class VirtualEntity {
             this.sendDestroyPackets(viewer);
             viewer.getVehicleMountController().remove(this.entityId);
         }
-        this.viewers.clear();
+        if (!this.viewers.isEmpty()) {
+            this.viewers.clear();
+            VirtualEntityIndex.remove(this.entityId, this.manager);
+        }
     }
 
     @Deprecated
@@ -681,7 +698,9 @@ public class VirtualEntity {
     }
 
     public void destroy(AttachmentViewer viewer) {
-        this.viewers.remove(viewer);
+        if (this.viewers.remove(viewer) && this.viewers.isEmpty()) {
+            VirtualEntityIndex.remove(this.entityId, this.manager);
+        }
         this.sendDestroyPackets(viewer);
         viewer.getVehicleMountController().remove(this.entityId);
     }
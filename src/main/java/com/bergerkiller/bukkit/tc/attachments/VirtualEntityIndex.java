@@ -0,0 +1,106 @@
+package com.bergerkiller.bukkit.tc.attachments;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.bergerkiller.bukkit.tc.attachments.api.AttachmentManager;
+import com.bergerkiller.bukkit.tc.controller.MinecartMember;
+import com.bergerkiller.bukkit.tc.controller.components.AttachmentControllerMember;
+
+/**
+ * Global index of the entity ids of all virtual entities that are currently
+ * spawned for at least one viewer, mapped to the attachment manager that owns them.
+ * This allows packet listeners to find out what cart a player interacted with
+ * without looking through the attachments of every train on the server.<br>
+ * <br>
+ * The index is updated on the main thread as virtual entities spawn and despawn,
+ * and can be read from any thread.
+ */
+public final class VirtualEntityIndex {
+    private static final ConcurrentHashMap<Integer, AttachmentManager> byEntityId = new ConcurrentHashMap<>();
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+
+    private VirtualEntityIndex() {
+    }
+
+    /**
+     * Adds a virtual entity to the index. Called when it is spawned for its first viewer.
+     *
+     * @param entityId Entity Id of the virtual entity
+     * @param manager Attachment manager owning the virtual entity
+     */
+    static void add(int entityId, AttachmentManager manager) {
+        if (manager != null) {
+            byEntityId.put(entityId, manager);
+        }
+    }
+
+    /**
+     * Removes a virtual entity from the index. Called when it is despawned for its last viewer.
+     *
+     * @param entityId Entity Id of the virtual entity
+     * @param manager Attachment manager owning the virtual entity
+     */
+    static void remove(int entityId, AttachmentManager manager) {
+        if (manager != null) {
+            byEntityId.remove(entityId, manager);
+        }
+    }
+
+    /**
+     * Looks up the attachment manager owning a spawned virtual entity
+     *
+     * @param entityId Entity Id of the virtual entity
+     * @return Attachment manager that owns the virtual entity, or null if no virtual
+     *         entity with this id is spawned
+     */
+    public static AttachmentManager getManager(int entityId) {
+        return byEntityId.get(entityId);
+    }
+
+    /**
+     * Looks up the Minecart Member whose attachments spawned a virtual entity
+     *
+     * @param entityId Entity Id of the virtual entity
+     * @return Minecart Member owning the virtual entity, or null if no virtual entity
+     *         with this id is spawned as part of the attachments of a Minecart Member
+     */
+    public static MinecartMember<?> getMember(int entityId) {
+        AttachmentManager manager = byEntityId.get(entityId);
+        if (manager instanceof AttachmentControllerMember) {
+            hits.incrementAndGet();
+            return ((AttachmentControllerMember) manager).getMember();
+        } else {
+            misses.incrementAndGet();
+            return null;
+        }
+    }
+
+    /**
+     * Gets the number of virtual entities currently stored in the index
+     *
+     * @return index size
+     */
+    public static int size() {
+        return byEntityId.size();
+    }
+
+    /**
+     * Gets the number of {@link #getMember(int)} lookups that found a Minecart Member
+     *
+     * @return hit count
+     */
+    public static long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the number of {@link #getMember(int)} lookups that did not find a Minecart Member
+     *
+     * @return miss count
+     */
+    public static long getMisses() {
+        return misses.get();
+    }
+}
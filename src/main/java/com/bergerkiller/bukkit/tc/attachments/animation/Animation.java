@@ -20,6 +20,15 @@ import com.bergerkiller.bukkit.common.utils.MathUtil;
  * controlled by external input.
  */
 public class Animation implements Cloneable {
+    private static final int SHARED_NODES_CACHE_SIZE = 256;
+    private static final Map<List<String>, AnimationNode[]> sharedNodes = new LinkedHashMap<List<String>, AnimationNode[]>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<String>, AnimationNode[]> eldest) {
+            return this.size() > SHARED_NODES_CACHE_SIZE;
+        }
+    };
     private AnimationOptions _options;
     private final AnimationNode[] _nodes;
     private final Map<String, Scene> _scenes;
@@ -472,11 +481,39 @@ public class Animation implements Cloneable {
     public static Animation loadFromConfig(ConfigurationNode config) {
         String name = config.getName();
         List<String> nodes_str = config.getList("nodes", String.class);
-        Animation animation = new Animation(name, nodes_str);
+        Animation animation = new Animation(name, parseNodesShared(nodes_str));
         animation.getOptions().loadFromConfig(config);
         return animation;
     }
 
+    /**
+     * Parses the animation nodes of an animation, re-using the nodes parsed before
+     * for the same configuration. Every cart of a train spawned with the same model
+     * loads the same animations, and this way they all share one immutable node array.
+     * The returned array must not be modified.
+     *
+     * @param nodes_config Animation node configurations
+     * @return parsed animation nodes
+     */
+    private static AnimationNode[] parseNodesShared(List<String> nodes_config) {
+        synchronized (sharedNodes) {
+            AnimationNode[] nodes = sharedNodes.get(nodes_config);
+            if (nodes == null) {
+                nodes = AnimationNode.parseAllFromStrings(nodes_config);
+
+                // Initialize the lazily computed rotations up front, as the nodes are
+                // shared between attachments that are updated on different threads
+                for (AnimationNode node : nodes) {
+                    node.getRotationVector();
+                    node.getRotationQuaternion();
+                }
+
+                sharedNodes.put(new ArrayList<String>(nodes_config), nodes);
+            }
+            return nodes;
+        }
+    }
+
     /**
      * A single range of an animation to play
      */
@@ -144,20 +144,18 @@ public class AttachmentInternalState {
         this.plugin = attachmentType.getPlugin();
         this.config = config;
 
+        // Position and animations are parsed once for all carts using the same model
+        AttachmentStateTemplate template = AttachmentStateTemplate.get(managerType, attachmentType, config);
+
         // Position
-        this.position.load(managerType, attachmentType, config.getNode("position"));
+        this.position.load(template.position);
 
         // Animation list
-        if (config.isNode("animations")) {
-            ConfigurationNode animations = config.getNode("animations");
-            for (ConfigurationNode animationConfig : animations.getNodes()) {
-                Animation anim = Animation.loadFromConfig(animationConfig);
-                if (anim != null) {
-                    this.animations.put(anim.getOptions().getName(), anim);
-                    if (anim.getOptions().isAutoPlay()) {
-                        this.currentAnimation = anim;
-                    }
-                }
+        for (Animation templateAnim : template.animations) {
+            Animation anim = templateAnim.clone();
+            this.animations.put(anim.getOptions().getName(), anim);
+            if (anim.getOptions().isAutoPlay()) {
+                this.currentAnimation = anim;
             }
         }
     }
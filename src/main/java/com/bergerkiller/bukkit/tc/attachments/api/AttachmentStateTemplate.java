@@ -0,0 +1,87 @@
+package com.bergerkiller.bukkit.tc.attachments.api;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.bergerkiller.bukkit.common.config.ConfigurationNode;
+import com.bergerkiller.bukkit.tc.attachments.animation.Animation;
+import com.bergerkiller.bukkit.tc.attachments.config.ObjectPosition;
+
+/**
+ * The parsed position and animations of an attachment configuration, which
+ * {@link AttachmentInternalState#onLoad(Class, AttachmentType, ConfigurationNode)}
+ * loads for every attachment. Every cart of a train spawned with the same model has
+ * a copy of the same configuration, so templates are shared by configuration contents.
+ * The attachments copy the position and clone the animations, which only share the
+ * immutable animation nodes. A template is never modified once created.<br>
+ * <br>
+ * Changing the model through onModelChanged or onModelNodeChanged produces different
+ * configuration contents, which finds or creates a different template. Templates that
+ * are no longer used are dropped from the cache by least recent use.
+ */
+final class AttachmentStateTemplate {
+    private static final int CACHE_SIZE = 256;
+    private static final Map<List<Object>, AttachmentStateTemplate> cache = new LinkedHashMap<List<Object>, AttachmentStateTemplate>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, AttachmentStateTemplate> eldest) {
+            return this.size() > CACHE_SIZE;
+        }
+    };
+    public final ObjectPosition position;
+    public final List<Animation> animations;
+
+    private AttachmentStateTemplate(Class<? extends AttachmentManager> managerType, AttachmentType attachmentType, ConfigurationNode config) {
+        this.position = new ObjectPosition();
+        this.position.load(managerType, attachmentType, config.getNode("position"));
+
+        if (config.isNode("animations")) {
+            List<Animation> animations = new ArrayList<Animation>();
+            for (ConfigurationNode animationConfig : config.getNode("animations").getNodes()) {
+                Animation anim = Animation.loadFromConfig(animationConfig);
+                if (anim != null) {
+                    animations.add(anim);
+                }
+            }
+            this.animations = Collections.unmodifiableList(animations);
+        } else {
+            this.animations = Collections.emptyList();
+        }
+    }
+
+    /**
+     * Gets the template for an attachment configuration, parsing it if no template
+     * exists yet for the same configuration contents.
+     *
+     * @param managerType The type of attachment manager that hosts the attachment
+     * @param attachmentType The type of attachment being loaded
+     * @param config Configuration of the attachment
+     * @return template
+     */
+    public static AttachmentStateTemplate get(Class<? extends AttachmentManager> managerType, AttachmentType attachmentType, ConfigurationNode config) {
+        // Child attachments are not part of the key, they have their own template
+        List<Object> key = new ArrayList<Object>();
+        key.add(managerType);
+        key.add(attachmentType);
+        key.add(config.getNode("position").getValues());
+        if (config.isNode("animations")) {
+            for (ConfigurationNode animationConfig : config.getNode("animations").getNodes()) {
+                key.add(Arrays.asList(animationConfig.getName(), animationConfig.getValues()));
+            }
+        }
+
+        synchronized (cache) {
+            AttachmentStateTemplate template = cache.get(key);
+            if (template == null) {
+                template = new AttachmentStateTemplate(managerType, attachmentType, config);
+                cache.put(key, template);
+            }
+            return template;
+        }
+    }
+}
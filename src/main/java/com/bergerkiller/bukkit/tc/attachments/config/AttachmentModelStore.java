@@ -22,6 +22,7 @@ public class AttachmentModelStore {
     }
 
     public void save(boolean autoSave) {
+        // Models are not loaded from file yet, so there is nothing to hand to the save writer
         //modelConfig.save();
 
     }
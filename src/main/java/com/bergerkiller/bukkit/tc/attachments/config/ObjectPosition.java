@@ -63,8 +63,8 @@ public class ObjectPosition {
      */
     public void load(ObjectPosition source) {
         this.anchor = source.anchor;
-        this.position = source.position;
-        this.rotation = source.rotation;
+        this.position = new Vector3(source.position.x, source.position.y, source.position.z);
+        this.rotation = new Vector3(source.rotation.x, source.rotation.y, source.rotation.z);
         this.transform.set(source.transform);
         this._isDefault = source._isDefault;
         this._isIdentity = source._isIdentity;
@@ -34,6 +34,7 @@ import com.bergerkiller.bukkit.tc.properties.CartProperties;
 import com.bergerkiller.bukkit.tc.properties.CartPropertiesStore;
 import com.bergerkiller.bukkit.tc.properties.TrainProperties;
 import com.bergerkiller.bukkit.tc.statements.Statement;
+import com.bergerkiller.bukkit.tc.storage.BackgroundSaveWriter;
 import com.bergerkiller.bukkit.tc.storage.OfflineGroupManager;
 
 import cloud.commandframework.annotations.Argument;
@@ -650,6 +651,30 @@ public class GlobalCommands {
         sender.sendMessage("Given editor map item (note: broken)");
     }
 
+    @Hidden
+    @CommandRequiresPermission(Permission.COMMAND_SAVEALL)
+    @CommandMethod("train debug savetimings")
+    @CommandDescription("Shows how long saving each of the data stores of TrainCarts takes")
+    private void commandDebugSaveTimings(
+            final CommandSender sender,
+            final TrainCarts plugin
+    ) {
+        Collection<BackgroundSaveWriter.StoreTimings> timings = plugin.getSaveWriter().getTimings();
+        if (timings.isEmpty()) {
+            sender.sendMessage(ChatColor.YELLOW + "Nothing has been saved yet");
+            return;
+        }
+        for (BackgroundSaveWriter.StoreTimings t : timings) {
+            sender.sendMessage(ChatColor.YELLOW + t.getStoreName() + ": " + ChatColor.WHITE +
+                    t.getSaveCount() + " saves, snapshot " + formatMillis(t.getLastSnapshotTime()) +
+                    " (main thread), write " + formatMillis(t.getLastWriteTime()) + " (background)");
+        }
+    }
+
+    private static String formatMillis(long nanos) {
+        return MathUtil.round((double) nanos / 1000000.0, 2) + "ms";
+    }
+
     @CommandRequiresPermission(Permission.COMMAND_GIVE_EDITOR)
     @CommandMethod("train attachments")
     @CommandDescription("Gives an attachment editor map item to the player")
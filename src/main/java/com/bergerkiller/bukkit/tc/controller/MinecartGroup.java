@@ -10,6 +10,7 @@ import com.bergerkiller.bukkit.common.inventory.ItemParser;
 import com.bergerkiller.bukkit.common.inventory.MergedInventory;
 import com.bergerkiller.bukkit.common.math.Quaternion;
 import com.bergerkiller.bukkit.common.utils.CommonUtil;
+import com.bergerkiller.bukkit.common.utils.FaceUtil;
 import com.bergerkiller.bukkit.common.utils.LogicUtil;
 import com.bergerkiller.bukkit.common.utils.MathUtil;
 import com.bergerkiller.bukkit.common.utils.WorldUtil;
@@ -47,6 +48,9 @@ import com.bergerkiller.bukkit.tc.properties.standard.StandardProperties;
 import com.bergerkiller.bukkit.tc.properties.standard.type.CartLockOrientation;
 import com.bergerkiller.bukkit.tc.properties.standard.type.SlowdownMode;
 import com.bergerkiller.bukkit.tc.rails.RailLookup;
+import com.bergerkiller.bukkit.tc.rails.logic.RailLogic;
+import com.bergerkiller.bukkit.tc.rails.logic.RailLogicHorizontal;
+import com.bergerkiller.bukkit.tc.rails.type.RailType;
 import com.bergerkiller.bukkit.tc.storage.OfflineGroupManager;
 import com.bergerkiller.bukkit.tc.utils.ChunkArea;
 import com.bergerkiller.bukkit.tc.utils.TrackWalkingPoint;
@@ -91,6 +95,7 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
     private int teleportImmunityTick = 0;
     private double updateSpeedFactor = 1.0;
     private int updateStepCount = 1;
+    private double updateStepMaxDistance = 0.4;
     private int updateStepNr = 1;
     private boolean unloaded = false;
 
@@ -1423,7 +1428,9 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
      * specifies the multiplier to apply to speeds for the current update.<br>
      * <br>
      * When moving 0.4 b/t and under, this value will always be 1.0 (one update). Above it, it will be
-     * set to an increasingly small number 1/stepcount. Outside of the physics function, the factor will always be 1.0.<br>
+     * set to an increasingly small number 1/stepcount. Outside of the physics function, the factor will always be 1.0.
+     * Trains moving over straight track with nothing along it that needs block-by-block handling are
+     * not split up, and perform a single update for the full distance.<br>
      * <br>
      * <b>When to use</b><br>
      * This factor should only be used when applying an absolute velocity. For example, when
@@ -1804,17 +1811,28 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
             double realtimeFactor = this.getProperties().hasRealtimePhysics()
                     ? plugin.getTrainUpdateController().getRealtimeFactor() : 1.0;
 
+            boolean singleStep = false;
             if ((realtimeFactor*totalforce) > 0.4 && (realtimeFactor*speedlimit) > 0.4) {
-                this.updateStepCount = (int) Math.ceil((realtimeFactor*speedlimit) / 0.4);
-                this.updateSpeedFactor = realtimeFactor / (double) this.updateStepCount;
+                if (TCConfig.optimizeHighSpeedMovement && this.canMoveInSingleStep(realtimeFactor*speedlimit, plugin)) {
+                    // Nothing along the way needs block-by-block handling, move the full distance at once
+                    singleStep = true;
+                    this.updateStepCount = 1;
+                    this.updateSpeedFactor = realtimeFactor;
+                    this.updateStepMaxDistance = realtimeFactor*speedlimit;
+                } else {
+                    this.updateStepCount = (int) Math.ceil((realtimeFactor*speedlimit) / 0.4);
+                    this.updateSpeedFactor = realtimeFactor / (double) this.updateStepCount;
+                    this.updateStepMaxDistance = 0.4;
+                }
             } else {
                 this.updateStepCount = 1;
                 this.updateSpeedFactor = realtimeFactor;
+                this.updateStepMaxDistance = 0.4;
             }
 
             try (Timings t = TCTimings.GROUP_DOPHYSICS.start()) {
                 // Perform the physics changes
-                if (this.updateStepCount > 1) {
+                if (this.updateStepCount > 1 || singleStep) {
                     for (MinecartMember<?> mm : this) {
                         mm.getEntity().vel.multiply(this.updateSpeedFactor);
                     }
@@ -1860,6 +1878,108 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
         }
     }
 
+    /**
+     * Checks whether this train can move the distance specified in a single physics update step,
+     * instead of splitting the movement into steps of 0.4 blocks. This is only possible when all
+     * the rails occupied by the train, and the rails ahead up to this distance, are straight regular
+     * rails without signs, detector regions, mutex zones or other trains on them. Everything else
+     * needs the block-by-block handling that the smaller update steps provide.<br>
+     * <br>
+     * Other trains move during the same tick, so they must also be further away than the distance
+     * both trains can close in this tick combined.
+     *
+     * @param distance Distance the train can move this tick
+     * @param plugin TrainCarts plugin instance
+     * @return True if the train can move this distance in a single update step
+     */
+    private boolean canMoveInSingleStep(double distance, TrainCarts plugin) {
+        if (this.getActions().hasAction()) {
+            return false; // Actions like launches control velocity every update step
+        }
+        for (MinecartMember<?> member : this) {
+            if (member.isUnloaded() || member.isDerailed() || member.isMovementControlled() ||
+                member instanceof MinecartMemberFurnace
+            ) {
+                return false;
+            }
+        }
+        for (TrackedRail rail : this.getRailTracker().getRailInformation()) {
+            if (!isStraightPlainRail(rail.state, rail.state.loadRailLogic())) {
+                return false;
+            }
+        }
+
+        MinecartMember<?> head = this.head();
+        if (head.railLookup().getMutexZones().track(head.getEntity().loc.block()).isNear()) {
+            return false;
+        }
+        if (isNearOtherTrain(distance, plugin)) {
+            return false;
+        }
+
+        RailState startState = head.discoverRail();
+        startState.setMember(null); // Make sure this is NOT used for prediction
+        TrackWalkingPoint iter = new TrackWalkingPoint(startState);
+        iter.setUseSegmentCache(true);
+        double checkDistance = distance + 0.5 * head.getEntity().getWidth() + 1.0;
+        while (iter.movedTotal <= checkDistance) {
+            if (!iter.moveFull()) {
+                return false; // End of the track, the train might derail
+            }
+            if (!isStraightPlainRail(iter.state, iter.currentRailLogic)) {
+                return false;
+            }
+            for (MinecartMember<?> member : iter.state.railPiece().members()) {
+                if (member.getGroup() != this) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether another train is close enough to collide with this train during this tick.
+     * The distance this train moves plus the distance the other train can move at most is used,
+     * so that trains coming towards this train, or catching up from behind, are detected too.
+     *
+     * @param distance Distance this train can move this tick
+     * @param plugin TrainCarts plugin instance
+     * @return True if another train is within the combined closing distance
+     */
+    private boolean isNearOtherTrain(double distance, TrainCarts plugin) {
+        World world = this.getWorld();
+        for (MinecartGroup other : getGroups().cloneAsIterable()) {
+            if (other == this || other.isEmpty() || other.isUnloaded() || other.getWorld() != world) {
+                continue;
+            }
+
+            double otherDistance = other.getProperties().getSpeedLimit();
+            if (other.getProperties().hasRealtimePhysics()) {
+                otherDistance *= plugin.getTrainUpdateController().getRealtimeFactor();
+            }
+            double closingDistance = distance + otherDistance + 1.0;
+            for (MinecartMember<?> member : this) {
+                for (MinecartMember<?> otherMember : other) {
+                    double limit = closingDistance + 0.5 * (member.getEntity().getWidth() + otherMember.getEntity().getWidth());
+                    if (member.getEntity().loc.distanceSquared(otherMember.getEntity()) <= (limit * limit)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean isStraightPlainRail(RailState state, RailLogic logic) {
+        return state.railType() == RailType.REGULAR &&
+               logic instanceof RailLogicHorizontal &&
+               !logic.isSloped() &&
+               !FaceUtil.isSubCardinal(logic.getDirection()) &&
+               state.railPiece().signs().length == 0 &&
+               state.railPiece().detectorRegions().length == 0;
+    }
+
     private boolean doPhysics_step() throws GroupUnloadedException {
         this.breakPhysics = false;
         try {
@@ -1872,8 +1992,9 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
             // Validate members and set max speed
             // We must limit it to 0.4, otherwise derailment can occur when the
             // minecart speeds up inside the physics update function
+            // Only on straight track verified by canMoveInSingleStep() a larger distance is allowed
             {
-                double speedLimitClamped = Math.min(this.getProperties().getSpeedLimit() * this.updateSpeedFactor, 0.4);
+                double speedLimitClamped = Math.min(this.getProperties().getSpeedLimit() * this.updateSpeedFactor, this.updateStepMaxDistance);
                 for (MinecartMember<?> mm : this) {
                     mm.checkMissing();
                     mm.getEntity().setMaxSpeed(speedLimitClamped);
@@ -2002,7 +2123,8 @@ public class MinecartGroup extends MinecartGroupStore implements IPropertiesHold
                 }
 
                 // Apply to the carts. Take speed factor into account, limit to at most 0.4 block movement
-                limitedSpeed = Math.min(0.4, this.updateSpeedFactor * limitedSpeed);
+                // (or the full distance when moving in a single step)
+                limitedSpeed = Math.min(this.updateStepMaxDistance, this.updateSpeedFactor * limitedSpeed);
                 for (MinecartMember<?> mm : this) {
                     mm.getEntity().setMaxSpeed(limitedSpeed);
                 }
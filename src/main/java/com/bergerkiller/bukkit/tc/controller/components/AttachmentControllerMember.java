@@ -26,6 +26,7 @@ import com.bergerkiller.bukkit.common.utils.CommonUtil;
 import com.bergerkiller.bukkit.common.utils.StreamUtil;
 import com.bergerkiller.bukkit.tc.TCConfig;
 import com.bergerkiller.bukkit.tc.TCSeatChangeListener;
+import com.bergerkiller.bukkit.tc.attachments.VirtualEntityIndex;
 import com.bergerkiller.bukkit.tc.attachments.api.Attachment;
 import com.bergerkiller.bukkit.tc.attachments.api.AttachmentManager;
 import com.bergerkiller.bukkit.tc.attachments.api.AttachmentType;
@@ -54,6 +55,11 @@ import com.bergerkiller.generated.net.minecraft.world.entity.EntityHandle;
  * controllers when this configuration changes.
  */
 public class AttachmentControllerMember implements AttachmentModelOwner, AttachmentManager {
+    /**
+     * Ticks between relative movement updates for each level of detail.
+     * Level 0 is used when a viewer is close by, level 2 when all viewers are far away.
+     */
+    private static final int[] LOD_MOVEMENT_INTERVALS = { 1, 2, 5 };
     private final MinecartMember<?> member;
     private Attachment rootAttachment;
     private List<CartAttachmentSeat> seatAttachments = Collections.emptyList();
@@ -63,6 +69,10 @@ public class AttachmentControllerMember implements AttachmentModelOwner, Attachm
     protected final ToggledState networkInvalid = new ToggledState();
     private boolean attached = false;
     private boolean hidden = false;
+    private int lodLevel = 0;
+    private int lodTicksSinceMovement = 0;
+    private boolean movementThrottled = false;
+    private final Location lodViewerLocation = new Location(null, 0.0, 0.0, 0.0);
 
     private long animationCurrentTime = 0;
     private double animationDeltaTime = 0.0;
@@ -580,6 +590,11 @@ public class AttachmentControllerMember implements AttachmentModelOwner, Attachm
      * @return True if an attachment uses this Entity Id
      */
     public synchronized boolean isAttachment(int entityId) {
+        // Spawned virtual entities are indexed, only look through the attachments for other ids
+        AttachmentManager manager = VirtualEntityIndex.getManager(entityId);
+        if (manager != null) {
+            return manager == this;
+        }
         for (Attachment attachment : this.flattenedAttachments) {
             if (attachment.containsEntityId(entityId)) {
                 return true;
@@ -708,13 +723,85 @@ public class AttachmentControllerMember implements AttachmentModelOwner, Attachm
             this.networkInvalid.set();
         }
 
+        // Far-away viewers receive relative position and rotation updates less often.
+        // Movement skipped is sent as part of the next update. When a viewer comes closer
+        // an absolute update is sent right away to refresh the positions.
+        int newLodLevel = this.computeLevelOfDetail();
+        final boolean absoluteUpdate = absolute || newLodLevel < this.lodLevel;
+        this.lodLevel = newLodLevel;
+        if (absoluteUpdate || ++this.lodTicksSinceMovement >= LOD_MOVEMENT_INTERVALS[newLodLevel]) {
+            this.lodTicksSinceMovement = 0;
+            this.movementThrottled = false;
+        } else {
+            this.movementThrottled = true;
+        }
+
         // Reset
         this.member.getEntity().setPositionChanged(false);
         this.member.getEntity().setVelocityChanged(false);
 
         // Perform actual movement, which sends movement update packets
-        if (this.rootAttachment != null) {
-            this.flattenedAttachments.forEach(a -> a.onMove(absolute));
+        try {
+            if (this.rootAttachment != null) {
+                this.flattenedAttachments.forEach(a -> a.onMove(absoluteUpdate));
+            }
+        } finally {
+            this.movementThrottled = false;
+        }
+    }
+
+    /**
+     * Gets whether relative position and rotation updates of the attachments are skipped
+     * during the current {@link #syncMovement(boolean)}, because all viewers are far away.
+     * Metadata and other updates are still sent.
+     *
+     * @return True if position and rotation updates are skipped right now
+     */
+    public boolean isMovementThrottled() {
+        return this.movementThrottled;
+    }
+
+    /**
+     * Gets the level of detail used to send movement updates of attachments to the
+     * viewers of this cart. Level 0 is full detail, higher levels send movement
+     * updates less often.
+     *
+     * @return level of detail, 0 being the highest
+     */
+    public int getLevelOfDetail() {
+        return this.lodLevel;
+    }
+
+    private int computeLevelOfDetail() {
+        double reducedDistance = TCConfig.attachmentReducedUpdateDistance;
+        double minimalDistance = TCConfig.attachmentMinimalUpdateDistance;
+        if (reducedDistance <= 0.0 && minimalDistance <= 0.0) {
+            return 0;
+        }
+
+        // Find the viewer closest to this cart
+        double minDistSq = Double.MAX_VALUE;
+        World world = this.member.getWorld();
+        double x = this.member.getEntity().loc.getX();
+        double y = this.member.getEntity().loc.getY();
+        double z = this.member.getEntity().loc.getZ();
+        for (Player viewer : this.viewers.keySet()) {
+            Location loc = viewer.getLocation(this.lodViewerLocation);
+            if (loc.getWorld() != world) {
+                continue;
+            }
+            double dx = loc.getX() - x;
+            double dy = loc.getY() - y;
+            double dz = loc.getZ() - z;
+            minDistSq = Math.min(minDistSq, dx * dx + dy * dy + dz * dz);
+        }
+
+        if (minimalDistance > 0.0 && minDistSq > (minimalDistance * minimalDistance)) {
+            return 2;
+        } else if (reducedDistance > 0.0 && minDistSq > (reducedDistance * reducedDistance)) {
+            return 1;
+        } else {
+            return 0;
         }
     }
 
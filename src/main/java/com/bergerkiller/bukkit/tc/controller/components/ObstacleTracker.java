@@ -410,6 +410,8 @@ public class ObstacleTracker implements TrainStatusProvider {
             TrackWalkingPoint iter = new TrackWalkingPoint(startState);
             if (group.getProperties().isWaitPredicted()) {
                 iter.setFollowPredictedPath(group.head());
+            } else {
+                iter.setUseSegmentCache(true);
             }
 
             while (iter.movedTotal <= checkDistance && iter.moveFull()) {
@@ -249,58 +249,55 @@ public class SignTrackerGroup extends SignTracker {
                     return owner.isUnloaded() ? ModificationTrackedEmptyList.emptyList() : liveActiveSigns;
                 });
 
-                // Update existing detector regions that are in use.
-                // Here we add members to regions other members were on, and
-                // remove members when they are no longer on a region. When all
-                // members of the group left a region, remove the region from the
-                // group region list entirely. When no detector regions are below
-                // the train, this piece of code causes zero performance hit.
+                // Update the detector regions the members are on. The regions at every rail
+                // are cached in the rail lookup, so this only looks at the rails below the train
+                // and never at the blocks of the regions themselves. Members first leave the
+                // regions they are no longer on, after which they enter the regions they are
+                // newly on. When no detector regions are below the train, and the train was
+                // not on any before, this piece of code causes zero performance hit.
                 List<TrackedRail> rails = this.getOwner().getRailTracker().getRailInformation();
-                if (!this.detectorRegions.isEmpty()) {
-                    // Secure copy
-                    MinecartMember<?>[] members = this.getOwner().toArray();
-
-                    // Clear detector regions set for members
-                    for (MinecartMember<?> member : members) {
-                        member.getSignTracker().detectorRegions.clear();
-                    }
-
-                    // Remove detector regions on the wrong world
-                    String currentWorldName = this.getOwner().getWorld().getName();
-                    for (int i = this.detectorRegions.size() - 1; i >= 0; i--) {
-                        DetectorRegion region = this.detectorRegions.get(i);
-                        if (!region.getWorldName().equals(currentWorldName)) {
-                            for (MinecartMember<?> member : members) {
-                                region.remove(member);
+                IdentityHashMap<MinecartMember<?>, List<DetectorRegion>> regionsOnRails = null;
+                for (TrackedRail rail : rails) {
+                    DetectorRegion[] railRegions = rail.state.railPiece().detectorRegions();
+                    if (railRegions.length > 0) {
+                        if (regionsOnRails == null) {
+                            regionsOnRails = new IdentityHashMap<>();
+                        }
+                        List<DetectorRegion> memberRegions = regionsOnRails.computeIfAbsent(rail.member, m -> new ArrayList<>(2));
+                        for (DetectorRegion region : railRegions) {
+                            if (!memberRegions.contains(region)) {
+                                memberRegions.add(region);
                             }
-                            this.detectorRegions.remove(i);
                         }
                     }
+                }
 
-                    // For all detector regions we already know, re-add those for members on them
-                    for (TrackedRail rail : rails) {
-                        for (DetectorRegion region : this.detectorRegions.cloneAsIterable()) {
-                            if (region.getCoordinates().contains(rail.state.railPiece().blockPosition())) {
-                                List<DetectorRegion> memberRegions = rail.member.getSignTracker().detectorRegions;
-                                if (!memberRegions.contains(region)) {
-                                    memberRegions.add(region);
-                                    region.add(rail.member);
-                                }
+                if (!this.detectorRegions.isEmpty()) {
+                    // Remove member from region when no longer on it
+                    // This includes regions on a world the train is no longer on
+                    for (MinecartMember<?> member : this.getOwner().toArray()) {
+                        List<DetectorRegion> memberRegions = member.getSignTracker().detectorRegions;
+                        if (memberRegions.isEmpty()) {
+                            continue;
+                        }
+                        List<DetectorRegion> onRails = (regionsOnRails == null) ? null : regionsOnRails.get(member);
+                        for (DetectorRegion region : member.getSignTracker().detectorRegions.cloneAsIterable()) {
+                            if (onRails == null || !onRails.contains(region)) {
+                                memberRegions.remove(region);
+                                region.remove(member);
                             }
                         }
                     }
 
-                    // Remove member from region when no longer on it
                     // When all members are removed from a region, remove from the master list of regions
                     Iterator<DetectorRegion> iter = this.detectorRegions.iterator();
                     while (iter.hasNext()) {
                         DetectorRegion region = iter.next();
                         boolean foundMember = false;
-                        for (MinecartMember<?> member : members) {
+                        for (MinecartMember<?> member : this.getOwner()) {
                             if (member.getSignTracker().detectorRegions.contains(region)) {
                                 foundMember = true;
-                            } else {
-                                region.remove(member);
+                                break;
                             }
                         }
                         if (!foundMember) {
@@ -309,10 +306,12 @@ public class SignTrackerGroup extends SignTracker {
                     }
                 }
 
-                // Detect new detector regions on the rails, add to member detector regions, and own detector regions list
-                for (TrackedRail rail : rails) {
-                    for (DetectorRegion region : rail.state.railPiece().detectorRegions()) {
-                        rail.member.getSignTracker().addToDetectorRegion(region);
+                // Add members to the regions they are newly on, and to own detector regions list
+                if (regionsOnRails != null) {
+                    for (TrackedRail rail : rails) {
+                        for (DetectorRegion region : rail.state.railPiece().detectorRegions()) {
+                            rail.member.getSignTracker().addToDetectorRegion(region);
+                        }
                     }
                 }
             }
@@ -0,0 +1,210 @@
+package com.bergerkiller.bukkit.tc.controller.global;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.plugin.java.JavaPlugin;
+
+import com.bergerkiller.bukkit.common.Task;
+import com.bergerkiller.bukkit.common.component.LibraryComponent;
+import com.bergerkiller.bukkit.common.utils.CommonUtil;
+import com.bergerkiller.bukkit.common.utils.WorldUtil;
+import com.bergerkiller.bukkit.tc.TrainCarts;
+import com.bergerkiller.bukkit.tc.utils.LongObjectOpenHashMap;
+
+/**
+ * Changes blocks on behalf of signs that animate blocks, such as platform screen doors.
+ * Instead of changing blocks right away, the desired block types are collected and
+ * applied together once per tick, grouped by chunk section. When a block is changed
+ * more than once in the same tick, only the last change is applied, and blocks that
+ * are already of the desired type are not changed at all.<br>
+ * <br>
+ * Block changes that swap one solid, opaque block for another are done without
+ * physics, because neighbouring blocks can not notice the difference. All other
+ * changes, such as placing or removing redstone torches, do apply physics.<br>
+ * <br>
+ * Sequences of changes can be scheduled to run at later ticks, which are all run by
+ * the same task that applies the changes.
+ */
+public class BlockChangeController implements LibraryComponent {
+    private final TrainCarts plugin;
+    private final IdentityHashMap<World, LongObjectOpenHashMap<Change>> pending = new IdentityHashMap<>();
+    private final PriorityQueue<Scheduled> scheduled = new PriorityQueue<>(
+            Comparator.comparingInt((Scheduled s) -> s.tick).thenComparingLong(s -> s.order));
+    private final UpdateTask updateTask;
+    private long scheduledOrder = 0;
+    private int pendingCount = 0;
+
+    public BlockChangeController(TrainCarts plugin) {
+        this.plugin = plugin;
+        this.updateTask = new UpdateTask(plugin);
+    }
+
+    public TrainCarts getPlugin() {
+        return plugin;
+    }
+
+    @Override
+    public void enable() {
+    }
+
+    @Override
+    public void disable() {
+        // Apply what was requested so that no half-opened doors are left behind
+        updateTask.stop();
+        scheduled.clear();
+        applyPending();
+    }
+
+    /**
+     * Requests a block to be changed to a new type. The change is applied
+     * together with all other changes requested this tick.
+     *
+     * @param block Block to change
+     * @param type Type to change the block to
+     */
+    public void setType(Block block, Material type) {
+        LongObjectOpenHashMap<Change> changes = pending.get(block.getWorld());
+        if (changes == null) {
+            changes = new LongObjectOpenHashMap<Change>();
+            pending.put(block.getWorld(), changes);
+        }
+        long key = blockKey(block.getX(), block.getY(), block.getZ());
+        Change change = changes.get(key);
+        if (change == null) {
+            changes.put(key, new Change(key, block, type));
+            pendingCount++;
+        } else {
+            change.type = type;
+        }
+        updateTask.startIfNeeded();
+    }
+
+    /**
+     * Schedules a task to run after a delay. Block changes requested by the task are
+     * applied in the same tick the task runs.
+     *
+     * @param delay Delay in ticks
+     * @param task Task to run
+     */
+    public void schedule(long delay, Runnable task) {
+        int tick = CommonUtil.getServerTicks() + (int) Math.max(1L, delay);
+        scheduled.add(new Scheduled(tick, scheduledOrder++, task));
+        updateTask.startIfNeeded();
+    }
+
+    /**
+     * Gets the number of block changes that have been requested, but not yet applied
+     *
+     * @return pending block change count
+     */
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    private void runScheduled() {
+        int tick = CommonUtil.getServerTicks();
+        Scheduled next;
+        while ((next = scheduled.peek()) != null && next.tick <= tick) {
+            scheduled.poll();
+            try {
+                next.task.run();
+            } catch (Throwable t) {
+                plugin.handle(t);
+            }
+        }
+    }
+
+    private void applyPending() {
+        if (pendingCount == 0) {
+            return;
+        }
+
+        // Apply the changes one chunk section at a time
+        List<Change> changes = new ArrayList<Change>(pendingCount);
+        for (LongObjectOpenHashMap<Change> worldChanges : pending.values()) {
+            changes.addAll(worldChanges.values());
+            worldChanges.clear();
+        }
+        pending.clear();
+        pendingCount = 0;
+        changes.sort(Comparator.comparingLong((Change c) -> sectionKey(c.key)).thenComparingLong(c -> c.key));
+
+        for (Change change : changes) {
+            Block block = change.block;
+            if (!WorldUtil.isLoaded(block.getWorld(), block.getX(), block.getY(), block.getZ())) {
+                continue;
+            }
+            Material oldType = block.getType();
+            if (oldType != change.type) {
+                boolean applyPhysics = !(isSolidOpaque(oldType) && isSolidOpaque(change.type));
+                block.setType(change.type, applyPhysics);
+            }
+        }
+    }
+
+    private static boolean isSolidOpaque(Material type) {
+        return type.isSolid() && type.isOccluding();
+    }
+
+    private static long blockKey(int x, int y, int z) {
+        return (((long) x & 0x3FFFFFFL) << 38) | (((long) z & 0x3FFFFFFL) << 12) | ((long) y & 0xFFFL);
+    }
+
+    private static long sectionKey(long blockKey) {
+        // Keeps the world order of the block key, with the lower 4 bits of every axis cleared
+        return blockKey & ~((0xFL << 38) | (0xFL << 12) | 0xFL);
+    }
+
+    private final class UpdateTask extends Task {
+
+        public UpdateTask(JavaPlugin plugin) {
+            super(plugin);
+        }
+
+        public void startIfNeeded() {
+            if (!this.isRunning()) {
+                this.start(1, 1);
+            }
+        }
+
+        @Override
+        public void run() {
+            runScheduled();
+            applyPending();
+            if (scheduled.isEmpty() && pendingCount == 0) {
+                this.stop();
+            }
+        }
+    }
+
+    private static final class Change {
+        public final long key;
+        public final Block block;
+        public Material type;
+
+        public Change(long key, Block block, Material type) {
+            this.key = key;
+            this.block = block;
+            this.type = type;
+        }
+    }
+
+    private static final class Scheduled {
+        public final int tick;
+        public final long order;
+        public final Runnable task;
+
+        public Scheduled(int tick, long order, Runnable task) {
+            this.tick = tick;
+            this.order = order;
+            this.task = task;
+        }
+    }
+}
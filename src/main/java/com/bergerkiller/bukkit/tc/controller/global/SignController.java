@@ -1,5 +1,6 @@
 package com.bergerkiller.bukkit.tc.controller.global;
 
+import java.util.Arrays;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.function.Consumer;
@@ -50,6 +51,7 @@ import com.bergerkiller.bukkit.tc.Util;
 import com.bergerkiller.bukkit.tc.controller.components.RailPiece;
 import com.bergerkiller.bukkit.tc.controller.global.SignControllerWorld.RefreshResult;
 import com.bergerkiller.bukkit.tc.events.SignActionEvent;
+import com.bergerkiller.bukkit.tc.rails.RailLookup;
 import com.bergerkiller.bukkit.tc.rails.RailLookup.TrackedSign;
 import com.bergerkiller.bukkit.tc.signactions.SignAction;
 import com.bergerkiller.bukkit.tc.signactions.SignActionType;
@@ -313,6 +315,7 @@ public class SignController implements LibraryComponent, Listener {
             return;
         }
 
+        RailLookup.notifyBlockChanged(event.getBlock());
         handleSignChange(event);
 
         if (event.isCancelled()) {
@@ -443,6 +446,7 @@ public class SignController implements LibraryComponent, Listener {
     private void onMultiBlockChange(MultiBlockChangeEvent event) {
         SignControllerWorld worldController = forWorld(event.getWorld());
         for (IntVector2 chunkCoord : event.getChunkCoordinates()) {
+            RailLookup.notifyChunkChanged(event.getWorld(), chunkCoord.x, chunkCoord.z);
             Chunk chunk = WorldUtil.getChunk(event.getWorld(), chunkCoord.x, chunkCoord.z);
             if (chunk != null) {
                 worldController.refreshInChunk(chunk);
@@ -586,6 +590,9 @@ public class SignController implements LibraryComponent, Listener {
         public boolean activated;
         private SignActionHeader header;
         private String headerLine;
+        private String[] actionLines = null;
+        private SignAction action = null;
+        private int actionRegistryVersion;
         private final FastTrackedUpdateSet.Tracker<Entry> redstoneUpdateTracker;
         private final FastTrackedUpdateSet.Tracker<Entry> ignoreRedstoneUpdateTracker;
         final long blockKey;
@@ -711,6 +718,19 @@ public class SignController implements LibraryComponent, Listener {
         private SignActionEvent createSignActionEvent(SignActionHeader header) {
             TrackedSign trackedSign = TrackedSign.forRealSign(this.sign, (RailPiece) null);
             trackedSign.setCachedHeader(header);
+
+            // Re-use the SignAction matched before, until the sign text changes
+            String[] lines = this.sign.getSign().getLines();
+            if (this.actionLines != null && this.actionRegistryVersion == SignAction.getRegistryVersion()
+                    && Arrays.equals(this.actionLines, lines)
+            ) {
+                trackedSign.setCachedAction(this.action);
+            } else {
+                this.action = trackedSign.getAction();
+                this.actionLines = lines.clone();
+                this.actionRegistryVersion = SignAction.getRegistryVersion();
+            }
+
             return new SignActionEvent(trackedSign);
         }
     }
@@ -1,6 +1,9 @@
 package com.bergerkiller.bukkit.tc.debug;
 
 import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
@@ -17,11 +20,14 @@ import com.bergerkiller.bukkit.common.Task;
 import com.bergerkiller.bukkit.common.bases.IntVector2;
 import com.bergerkiller.bukkit.common.bases.IntVector3;
 import com.bergerkiller.bukkit.common.math.Quaternion;
+import com.bergerkiller.bukkit.common.offline.OfflineWorld;
+import com.bergerkiller.bukkit.common.utils.MathUtil;
 import com.bergerkiller.bukkit.common.utils.WorldUtil;
 import com.bergerkiller.bukkit.tc.Localization;
 import com.bergerkiller.bukkit.tc.Permission;
 import com.bergerkiller.bukkit.tc.TCConfig;
 import com.bergerkiller.bukkit.tc.TrainCarts;
+import com.bergerkiller.bukkit.tc.attachments.VirtualEntityIndex;
 import com.bergerkiller.bukkit.tc.commands.annotations.CommandRequiresPermission;
 import com.bergerkiller.bukkit.tc.controller.MinecartMemberStore;
 import com.bergerkiller.bukkit.tc.controller.global.SignControllerWorld;
@@ -29,6 +35,9 @@ import com.bergerkiller.bukkit.tc.debug.types.DebugToolTypeListDestinations;
 import com.bergerkiller.bukkit.tc.debug.types.DebugToolTypeRails;
 import com.bergerkiller.bukkit.tc.debug.types.DebugToolTypeTrackDistance;
 import com.bergerkiller.bukkit.tc.rails.RailLookup;
+import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZone;
+import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZoneCache;
+import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZoneSlot;
 import com.bergerkiller.bukkit.tc.storage.OfflineGroupManager;
 import com.bergerkiller.bukkit.tc.utils.EventListenerHook;
 import com.bergerkiller.bukkit.tc.utils.PlayerVelocityController;
@@ -153,6 +162,39 @@ public class DebugCommands {
         player.sendMessage(ChatColor.GREEN + "Displaying mutex zones near your position");
     }
 
+    @CommandRequiresPermission(Permission.DEBUG_COMMAND_DEBUG)
+    @CommandMethod("train debug mutex stats")
+    @CommandDescription("Displays how often trains waited for, and entered, all nearby mutex zones")
+    private void commandDebugMutexStats(
+            final Player player
+    ) {
+        Location loc = player.getEyeLocation();
+        List<MutexZone> zones = MutexZoneCache.findNearbyZones(
+                OfflineWorld.of(loc.getWorld()),
+                new IntVector3(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()),
+                32);
+        if (zones.isEmpty()) {
+            player.sendMessage(ChatColor.RED + "There are no mutex zones near your position");
+            return;
+        }
+
+        Set<MutexZoneSlot> slots = new LinkedHashSet<>();
+        for (MutexZone zone : zones) {
+            slots.add(zone.slot);
+        }
+        for (MutexZoneSlot slot : slots) {
+            MutexZoneSlot.Statistics stats = slot.getStatistics();
+            String name = slot.isAnonymous() ? "<anonymous>" : slot.getNameWithoutWorldUUID();
+            player.sendMessage(ChatColor.YELLOW + name + ChatColor.WHITE +
+                    ": entered " + stats.enterCount +
+                    ", waited " + stats.contentionCount +
+                    ", conflicts " + stats.conflictCount);
+            player.sendMessage(ChatColor.WHITE + "  wait " + MathUtil.round(stats.averageWaitTicks, 1) +
+                    " ticks (max " + stats.maxWaitTicks + "), hold " + MathUtil.round(stats.averageHoldTicks, 1) +
+                    " ticks (max " + stats.maxHoldTicks + ")");
+        }
+    }
+
     @CommandRequiresPermission(Permission.DEBUG_COMMAND_DEBUG)
     @CommandMethod("train debug railtracker <enabled>")
     @CommandDescription("Sets whether the rail tracker debugging is currently enabled")
@@ -260,6 +302,34 @@ public class DebugCommands {
         });
     }
 
+    @CommandRequiresPermission(Permission.DEBUG_COMMAND_DEBUG)
+    @CommandMethod("train debug railcache stats")
+    @CommandDescription("Shows how well the rail cache performs")
+    private void commandDebugRailCacheStats(
+            final CommandSender sender
+    ) {
+        RailLookup.CacheStatistics stats = RailLookup.getCacheStatistics();
+        long lookups = stats.getHits() + stats.getMisses();
+        double hitRate = (lookups == 0) ? 0.0 : (100.0 * stats.getHits() / lookups);
+        sender.sendMessage(ChatColor.YELLOW + "Cached block positions: " + ChatColor.WHITE + stats.getCachedPositions());
+        sender.sendMessage(ChatColor.YELLOW + "Hits: " + ChatColor.WHITE + stats.getHits() +
+                ChatColor.YELLOW + " Misses: " + ChatColor.WHITE + stats.getMisses() +
+                ChatColor.YELLOW + " (" + ChatColor.WHITE + MathUtil.round(hitRate, 2) + "%" + ChatColor.YELLOW + " hit rate)");
+        sender.sendMessage(ChatColor.YELLOW + "Evictions: " + ChatColor.WHITE + stats.getEvictions() +
+                ChatColor.YELLOW + " Expiry checks: " + ChatColor.WHITE + stats.getExpiryChecks());
+    }
+
+    @CommandRequiresPermission(Permission.DEBUG_COMMAND_DEBUG)
+    @CommandMethod("train debug entityindex stats")
+    @CommandDescription("Shows how many virtual attachment entities are indexed for player interaction")
+    private void commandDebugEntityIndexStats(
+            final CommandSender sender
+    ) {
+        sender.sendMessage(ChatColor.YELLOW + "Indexed virtual entities: " + ChatColor.WHITE + VirtualEntityIndex.size());
+        sender.sendMessage(ChatColor.YELLOW + "Member lookups found: " + ChatColor.WHITE + VirtualEntityIndex.getHits() +
+                ChatColor.YELLOW + " Not found: " + ChatColor.WHITE + VirtualEntityIndex.getMisses());
+    }
+
     // There's no possibly way people still need this in 2022
     /*
     @Hidden
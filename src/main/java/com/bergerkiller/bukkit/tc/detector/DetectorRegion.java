@@ -1,8 +1,6 @@
 package com.bergerkiller.bukkit.tc.detector;
 
-import com.bergerkiller.bukkit.common.BlockLocation;
 import com.bergerkiller.bukkit.common.bases.IntVector3;
-import com.bergerkiller.bukkit.common.collections.BlockMap;
 import com.bergerkiller.bukkit.common.collections.ImplicitlySharedList;
 import com.bergerkiller.bukkit.common.config.DataReader;
 import com.bergerkiller.bukkit.common.config.DataWriter;
@@ -13,6 +11,7 @@ import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
 import com.bergerkiller.bukkit.tc.controller.MinecartMember;
 import com.bergerkiller.bukkit.tc.rails.RailLookup;
 import com.bergerkiller.bukkit.tc.rails.WorldRailLookup;
+import com.bergerkiller.bukkit.tc.storage.BackgroundSaveWriter;
 
 import org.bukkit.Bukkit;
 import org.bukkit.World;
@@ -30,40 +29,54 @@ import java.util.logging.Level;
  * automatically perform logic when this happens.<br>
  * <br>
  * Detector regions are used by detector signs, but do not require
- * actual signs to exist.
+ * actual signs to exist.<br>
+ * <br>
+ * The regions at a rail block are stored in the rail lookup cache of the world,
+ * which is filled with the regions of that world when it is initialized. Trains
+ * find the regions they enter using the rails they are on.
  */
 public final class DetectorRegion {
+    private static final int FORMAT_SECTIONS = -1; // Marks files storing coordinates as chunk section bitsets
     private static boolean hasChanges = false;
     private static HashMap<UUID, DetectorRegion> regionsById = new HashMap<>();
-    private static BlockMap<DetectorRegion[]> regions = new BlockMap<>();
+    private static HashMap<String, List<DetectorRegion>> regionsByWorld = new HashMap<>();
     private final UUID id;
     private final String world;
-    private final Set<IntVector3> coordinates;
+    private final DetectorRegionBlocks coordinates;
     private final Set<MinecartMember<?>> members = new HashSet<>();
     private final ImplicitlySharedList<DetectorListener> listeners = new ImplicitlySharedList<>();
 
-    private DetectorRegion(final UUID uniqueId, final String world, final Set<IntVector3> coordinates) {
+    private DetectorRegion(final UUID uniqueId, final String world, final DetectorRegionBlocks coordinates) {
+        this(uniqueId, world, coordinates, true);
+    }
+
+    private DetectorRegion(final UUID uniqueId, final String world, final DetectorRegionBlocks coordinates, boolean register) {
         this.world = world;
         this.id = uniqueId;
         this.coordinates = coordinates;
+        if (!register) {
+            return; // Copy used for saving
+        }
         regionsById.put(this.id, this);
+        regionsByWorld.computeIfAbsent(world, w -> new ArrayList<>()).add(this);
         hasChanges = true;
 
         WorldRailLookup lookup = RailLookup.forWorldIfInitialized(Bukkit.getWorld(world));
+        if (lookup.isValid()) {
+            this.storeInRailLookup(lookup);
+        }
+    }
+
+    private void storeInRailLookup(WorldRailLookup lookup) {
         final DetectorRegion[] singleRegion = new DetectorRegion[] { this };
         for (IntVector3 coord : this.coordinates) {
-            BlockLocation block_coord = new BlockLocation(world, coord);
-            DetectorRegion[] regionsAtBlock = regions.compute(block_coord, (key, array) -> {
-                if (array == null) {
-                    return singleRegion;
-                } else {
-                    int len = array.length;
-                    array = Arrays.copyOf(array, len + 1);
-                    array[len] = DetectorRegion.this;
-                    return array;
-                }
-            });
-            if (lookup.isValid()) {
+            DetectorRegion[] regionsAtBlock = lookup.getDetectorRegions(coord);
+            if (regionsAtBlock.length == 0) {
+                lookup.storeDetectorRegions(coord, singleRegion);
+            } else if (!LogicUtil.contains(this, regionsAtBlock)) {
+                int len = regionsAtBlock.length;
+                regionsAtBlock = Arrays.copyOf(regionsAtBlock, len + 1);
+                regionsAtBlock[len] = this;
                 lookup.storeDetectorRegions(coord, regionsAtBlock);
             }
         }
@@ -95,11 +108,10 @@ public final class DetectorRegion {
      * @param railLookup
      */
     public static void fillRailLookup(WorldRailLookup railLookup) {
-        String worldName = railLookup.getWorld().getName();
-        for (Map.Entry<BlockLocation, DetectorRegion[]> entry : regions.entrySet()) {
-            BlockLocation block = entry.getKey();
-            if (worldName.equals(block.world)) {
-                railLookup.storeDetectorRegions(block.getCoordinates(), entry.getValue());
+        List<DetectorRegion> worldRegions = regionsByWorld.get(railLookup.getWorld().getName());
+        if (worldRegions != null) {
+            for (DetectorRegion region : worldRegions) {
+                region.storeInRailLookup(railLookup);
             }
         }
     }
@@ -107,12 +119,16 @@ public final class DetectorRegion {
     /**
      * Gets all the regions occuping a particular rails block
      * 
-     * @param railsBlock
+     * @param at Block
      * @return list of detector regions, empty list if no regions exist
      */
     public static List<DetectorRegion> getRegions(Block at) {
-        DetectorRegion[] regionsAtBlock = regions.get(at);
-        return regionsAtBlock == null ? Collections.emptyList() : Arrays.asList(regionsAtBlock);
+        // The rail lookup of a world is filled with all its regions when created
+        DetectorRegion[] regions = RailLookup.forWorld(at.getWorld()).getDetectorRegions(new IntVector3(at));
+        if (regions.length == 0) {
+            return Collections.emptyList();
+        }
+        return new ArrayList<>(Arrays.asList(regions));
     }
 
     public static void detectAllMinecarts() {
@@ -142,18 +158,15 @@ public final class DetectorRegion {
 
     public static DetectorRegion create(final String world, final Set<IntVector3> coordinates) {
         //first check if this region is not already defined
-        for (IntVector3 coord : coordinates) {
-            DetectorRegion[] list = regions.get(world, coord);
-            if (list != null) {
-                for (DetectorRegion region : list) {
-                    if (!region.coordinates.containsAll(coordinates)) continue;
-                    if (!coordinates.containsAll(region.coordinates)) continue;
-                    return region;
-                }
+        List<DetectorRegion> worldRegions = regionsByWorld.get(world);
+        if (worldRegions != null) {
+            for (DetectorRegion region : worldRegions) {
+                if (region.coordinates.size() != coordinates.size()) continue;
+                if (!region.coordinates.containsAll(coordinates)) continue;
+                return region;
             }
-            break;
         }
-        return new DetectorRegion(UUID.randomUUID(), world, coordinates);
+        return new DetectorRegion(UUID.randomUUID(), world, new DetectorRegionBlocks(coordinates));
     }
 
     public static DetectorRegion getRegion(UUID uniqueId) {
@@ -162,51 +175,81 @@ public final class DetectorRegion {
 
     public static void init(TrainCarts plugin) {
         regionsById.clear();
-        regions.clear();
+        regionsByWorld.clear();
         new DataReader(plugin, "detectorregions.dat") {
             public void read(DataInputStream stream) throws IOException {
                 int count = stream.readInt();
+                boolean sectionFormat = (count == FORMAT_SECTIONS);
+                if (sectionFormat) {
+                    count = stream.readInt();
+                }
                 int coordcount;
+                int totalcount = 0;
                 for (; count > 0; --count) {
                     //get required info
                     UUID id = StreamUtil.readUUID(stream);
                     String world = stream.readUTF();
-                    coordcount = stream.readInt();
-                    Set<IntVector3> coords = new HashSet<>(coordcount);
-                    for (; coordcount > 0; --coordcount) {
-                        coords.add(IntVector3.read(stream));
+                    DetectorRegionBlocks coords;
+                    if (sectionFormat) {
+                        coords = DetectorRegionBlocks.read(stream);
+                    } else {
+                        // Legacy format storing every coordinate
+                        coords = new DetectorRegionBlocks();
+                        coordcount = stream.readInt();
+                        for (; coordcount > 0; --coordcount) {
+                            coords.add(IntVector3.read(stream));
+                        }
                     }
+                    totalcount += coords.size();
                     //create
                     new DetectorRegion(id, world, coords);
                 }
                 if (regionsById.size() == 1) {
-                    plugin.log(Level.INFO, regionsById.size() + " detector rail region loaded covering " + regions.size() + " blocks");
+                    plugin.log(Level.INFO, regionsById.size() + " detector rail region loaded covering " + totalcount + " blocks");
                 } else {
-                    plugin.log(Level.INFO, regionsById.size() + " detector rail regions loaded covering " + regions.size() + " blocks");
+                    plugin.log(Level.INFO, regionsById.size() + " detector rail regions loaded covering " + totalcount + " blocks");
                 }
             }
         }.read();
         hasChanges = false;
     }
 
-    public static void save(TrainCarts plugin, boolean autosave) {
-        if (autosave && !hasChanges) {
-            return;
-        }
-        new DataWriter(plugin, "detectorregions.dat") {
-            public void write(DataOutputStream stream) throws IOException {
-                stream.writeInt(regionsById.size());
-                for (DetectorRegion region : regionsById.values()) {
-                    StreamUtil.writeUUID(stream, region.id);
-                    stream.writeUTF(region.world);
-                    stream.writeInt(region.coordinates.size());
-                    for (IntVector3 coord : region.coordinates) {
-                        coord.write(stream);
-                    }
-                }
+    /**
+     * Takes a snapshot of all detector regions, and has it written to file on the
+     * background thread of the save writer.
+     *
+     * @param writer Save writer
+     * @param autosave Whether this is an autosave, which skips saving if nothing changed
+     */
+    public static void save(BackgroundSaveWriter writer, boolean autosave) {
+        writer.submit("detectorregions", () -> {
+            if (autosave && !hasChanges) {
+                return null;
             }
-        }.write();
-        hasChanges = false;
+
+            // Copy the regions, so they can be encoded on the writer thread
+            final List<DetectorRegion> regions = new ArrayList<>(regionsById.size());
+            for (DetectorRegion region : regionsById.values()) {
+                regions.add(new DetectorRegion(region.id, region.world, region.coordinates.copy(), false));
+            }
+            hasChanges = false;
+            return BackgroundSaveWriter.snapshotData(stream -> writeRegions(stream, regions),
+                    data -> new DataWriter(writer.getPlugin(), "detectorregions.dat") {
+                        public void write(DataOutputStream stream) throws IOException {
+                            stream.write(data);
+                        }
+                    }.write());
+        });
+    }
+
+    private static void writeRegions(DataOutputStream stream, List<DetectorRegion> regions) throws IOException {
+        stream.writeInt(FORMAT_SECTIONS);
+        stream.writeInt(regions.size());
+        for (DetectorRegion region : regions) {
+            StreamUtil.writeUUID(stream, region.id);
+            stream.writeUTF(region.world);
+            region.coordinates.write(stream);
+        }
     }
 
     public String getWorldName() {
@@ -373,20 +416,19 @@ public final class DetectorRegion {
             iter.remove();
         }
         regionsById.remove(this.id);
+        List<DetectorRegion> worldRegions = regionsByWorld.get(this.world);
+        if (worldRegions != null && worldRegions.remove(this) && worldRegions.isEmpty()) {
+            regionsByWorld.remove(this.world);
+        }
         hasChanges = true;
 
         WorldRailLookup lookup = RailLookup.forWorldIfInitialized(Bukkit.getWorld(world));
-        for (IntVector3 coord : this.coordinates) {
-            BlockLocation block_coord = new BlockLocation(this.world, coord);
-            DetectorRegion[] regionsAtBlock = regions.computeIfPresent(block_coord, (key, list) -> {
-                if (list.length == 1 && list[0] == DetectorRegion.this) {
-                    return null;
-                } else {
-                    return LogicUtil.removeArrayElement(list, DetectorRegion.this);
+        if (lookup.isValid()) {
+            for (IntVector3 coord : this.coordinates) {
+                DetectorRegion[] regionsAtBlock = lookup.getDetectorRegions(coord);
+                if (LogicUtil.contains(this, regionsAtBlock)) {
+                    lookup.storeDetectorRegions(coord, LogicUtil.removeArrayElement(regionsAtBlock, this));
                 }
-            });
-            if (lookup.isValid()) {
-                lookup.storeDetectorRegions(coord, regionsAtBlock);
             }
         }
     }
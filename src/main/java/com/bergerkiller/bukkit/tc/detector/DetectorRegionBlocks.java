@@ -0,0 +1,267 @@
+package com.bergerkiller.bukkit.tc.detector;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.bergerkiller.bukkit.common.bases.IntVector3;
+import com.bergerkiller.bukkit.tc.utils.LongObjectOpenHashMap;
+
+/**
+ * Set of block coordinates of a detector region. Coordinates are stored as
+ * a bitset of 4096 bits for every 16x16x16 chunk section that contains blocks
+ * of the region, instead of as individual coordinates. Regions that span long
+ * lines of rails only use a few bytes for every block.<br>
+ * <br>
+ * Sections are written to file as the section coordinates, followed by a mask
+ * of the 64-bit words of the bitset that are used, followed by those words.
+ */
+final class DetectorRegionBlocks extends AbstractSet<IntVector3> {
+    private static final int WORDS = 64; // 4096 bits
+    private final LongObjectOpenHashMap<Section> sections = new LongObjectOpenHashMap<>();
+    private int size = 0;
+
+    public DetectorRegionBlocks() {
+    }
+
+    public DetectorRegionBlocks(Iterable<IntVector3> coordinates) {
+        for (IntVector3 coord : coordinates) {
+            add(coord);
+        }
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof IntVector3)) {
+            return false;
+        }
+        IntVector3 coord = (IntVector3) o;
+        return contains(coord.x, coord.y, coord.z);
+    }
+
+    /**
+     * Checks whether a block is part of this set
+     *
+     * @param x Block X-coordinate
+     * @param y Block Y-coordinate
+     * @param z Block Z-coordinate
+     * @return True if the block is contained
+     */
+    public boolean contains(int x, int y, int z) {
+        Section section = this.sections.get(sectionKey(x >> 4, y >> 4, z >> 4));
+        if (section == null) {
+            return false;
+        }
+        int index = bitIndex(x, y, z);
+        return (section.words[index >> 6] & (1L << index)) != 0L;
+    }
+
+    @Override
+    public boolean add(IntVector3 coord) {
+        int sx = coord.x >> 4, sy = coord.y >> 4, sz = coord.z >> 4;
+        long key = sectionKey(sx, sy, sz);
+        Section section = this.sections.get(key);
+        if (section == null) {
+            section = new Section(sx, sy, sz);
+            this.sections.put(key, section);
+        }
+        int index = bitIndex(coord.x, coord.y, coord.z);
+        long bit = 1L << index;
+        if ((section.words[index >> 6] & bit) != 0L) {
+            return false;
+        }
+        section.words[index >> 6] |= bit;
+        section.count++;
+        this.size++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (!(o instanceof IntVector3)) {
+            return false;
+        }
+        IntVector3 coord = (IntVector3) o;
+        long key = sectionKey(coord.x >> 4, coord.y >> 4, coord.z >> 4);
+        Section section = this.sections.get(key);
+        if (section == null) {
+            return false;
+        }
+        int index = bitIndex(coord.x, coord.y, coord.z);
+        long bit = 1L << index;
+        if ((section.words[index >> 6] & bit) == 0L) {
+            return false;
+        }
+        section.words[index >> 6] &= ~bit;
+        if (--section.count == 0) {
+            this.sections.remove(key);
+        }
+        this.size--;
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        this.sections.clear();
+        this.size = 0;
+    }
+
+    @Override
+    public Iterator<IntVector3> iterator() {
+        final List<Section> sections = this.sections.values();
+        return new Iterator<IntVector3>() {
+            private int sectionIndex = -1;
+            private Section section = null;
+            private int wordIndex = WORDS;
+            private long word = 0L;
+            private Section lastSection = null;
+            private int lastIndex = 0;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0L) {
+                    if (++wordIndex >= WORDS) {
+                        if (++sectionIndex >= sections.size()) {
+                            return false;
+                        }
+                        section = sections.get(sectionIndex);
+                        wordIndex = 0;
+                    }
+                    word = section.words[wordIndex];
+                }
+                return true;
+            }
+
+            @Override
+            public IntVector3 next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                int index = (wordIndex << 6) | Long.numberOfTrailingZeros(word);
+                word &= word - 1L; // clear lowest bit
+                lastSection = section;
+                lastIndex = index;
+                return new IntVector3((section.x << 4) | (index & 0xF),
+                                      (section.y << 4) | (index >> 8),
+                                      (section.z << 4) | ((index >> 4) & 0xF));
+            }
+
+            @Override
+            public void remove() {
+                if (lastSection == null) {
+                    throw new IllegalStateException();
+                }
+
+                // The sections list is a copy and the bit was already cleared from word,
+                // so iteration continues unaffected
+                lastSection.words[lastIndex >> 6] &= ~(1L << lastIndex);
+                if (--lastSection.count == 0) {
+                    DetectorRegionBlocks.this.sections.remove(sectionKey(lastSection.x, lastSection.y, lastSection.z));
+                }
+                DetectorRegionBlocks.this.size--;
+                lastSection = null;
+            }
+        };
+    }
+
+    /**
+     * Creates a copy of this set, which is not changed when this set changes
+     *
+     * @return copy of this set
+     */
+    public DetectorRegionBlocks copy() {
+        DetectorRegionBlocks copy = new DetectorRegionBlocks();
+        for (Section section : this.sections.values()) {
+            Section sectionCopy = new Section(section.x, section.y, section.z);
+            System.arraycopy(section.words, 0, sectionCopy.words, 0, WORDS);
+            sectionCopy.count = section.count;
+            copy.sections.put(sectionKey(section.x, section.y, section.z), sectionCopy);
+        }
+        copy.size = this.size;
+        return copy;
+    }
+
+    /**
+     * Writes all the blocks of this set to a stream
+     *
+     * @param stream Stream to write to
+     * @throws IOException
+     */
+    public void write(DataOutputStream stream) throws IOException {
+        List<Section> sections = this.sections.values();
+        stream.writeInt(sections.size());
+        for (Section section : sections) {
+            stream.writeInt(section.x);
+            stream.writeInt(section.y);
+            stream.writeInt(section.z);
+            long usedWords = 0L;
+            for (int i = 0; i < WORDS; i++) {
+                if (section.words[i] != 0L) {
+                    usedWords |= (1L << i);
+                }
+            }
+            stream.writeLong(usedWords);
+            for (int i = 0; i < WORDS; i++) {
+                if (section.words[i] != 0L) {
+                    stream.writeLong(section.words[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads blocks written using {@link #write(DataOutputStream)}
+     *
+     * @param stream Stream to read from
+     * @return set of blocks read
+     * @throws IOException
+     */
+    public static DetectorRegionBlocks read(DataInputStream stream) throws IOException {
+        DetectorRegionBlocks blocks = new DetectorRegionBlocks();
+        for (int count = stream.readInt(); count > 0; --count) {
+            Section section = new Section(stream.readInt(), stream.readInt(), stream.readInt());
+            long usedWords = stream.readLong();
+            for (int i = 0; i < WORDS; i++) {
+                if ((usedWords & (1L << i)) != 0L) {
+                    long word = stream.readLong();
+                    section.words[i] = word;
+                    section.count += Long.bitCount(word);
+                }
+            }
+            if (section.count > 0) {
+                blocks.sections.put(sectionKey(section.x, section.y, section.z), section);
+                blocks.size += section.count;
+            }
+        }
+        return blocks;
+    }
+
+    private static int bitIndex(int x, int y, int z) {
+        return ((y & 0xF) << 8) | ((z & 0xF) << 4) | (x & 0xF);
+    }
+
+    private static long sectionKey(int sx, int sy, int sz) {
+        return (((long) sx & 0x3FFFFFL) << 42) | (((long) sz & 0x3FFFFFL) << 20) | ((long) sy & 0xFFFFFL);
+    }
+
+    private static final class Section {
+        public final int x, y, z;
+        public final long[] words = new long[WORDS];
+        public int count = 0;
+
+        public Section(int x, int y, int z) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+    }
+}
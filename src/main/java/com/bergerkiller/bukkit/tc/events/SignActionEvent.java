@@ -1130,6 +1130,16 @@ public class SignActionEvent extends Event implements Cancellable, TrainCarts.Pr
         return false;
     }
 
+    /**
+     * Gets the second line of this sign, with color codes removed and in lower-case.
+     * This is the text the sign types are checked against in {@link #isType(String...)}.
+     *
+     * @return cleaned lower-case second line
+     */
+    public String getLowerCaseSecondCleanedLine() {
+        return this.lowerSecondCleanedLine;
+    }
+
     /**
      * Checks the second line of this sign to see if it starts with one of the sign types specified.
      * Case is ignored, so sign types should be specified in lower-case.
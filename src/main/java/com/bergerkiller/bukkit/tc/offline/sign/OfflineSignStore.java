@@ -1,5 +1,7 @@
 package com.bergerkiller.bukkit.tc.offline.sign;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.DataInputStream;
@@ -19,13 +21,16 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import java.util.zip.DeflaterOutputStream;
 import java.util.zip.InflaterInputStream;
@@ -62,7 +67,7 @@ import com.google.common.collect.ListMultimap;
  */
 public class OfflineSignStore {
     private final TrainCarts plugin;
-    private final ModuleLogger logger;
+    private final Logger logger;
     private final OfflineWorldMap<OfflineSignWorldStore> byWorld = new OfflineWorldMap<>();
     private final Map<String, MetadataHandlerEntry<?>> handlers = new HashMap<>();
     private final Map<Class<?>, MetadataHandlerEntry<?>> handlersByMetadataType = new HashMap<>();
@@ -73,10 +78,26 @@ public class OfflineSignStore {
     private final OfflineSignStoreListener listener;
 
     public OfflineSignStore(TrainCarts plugin) {
+        this(plugin, new ModuleLogger(plugin, "OfflineSignStore"),
+             plugin.getDataFile("SignMetadata.dat"),
+             plugin.getDataFile("SignMetadata.journal"));
+    }
+
+    /**
+     * Creates a store that saves to the files specified. Without a plugin, legacy
+     * sign data can not be imported and the store can not be enabled. Loading and
+     * saving still works, which is used to benchmark it without a server.
+     *
+     * @param plugin TrainCarts plugin, null if not available
+     * @param logger Logger to log errors to
+     * @param saveFile Snapshot save file
+     * @param journalFile Journal save file
+     */
+    OfflineSignStore(TrainCarts plugin, Logger logger, File saveFile, File journalFile) {
         this.plugin = plugin;
-        this.logger = new ModuleLogger(plugin, "OfflineSignStore");
-        this.legacyImporter = new OfflineSignLegacyImporter(this, plugin);
-        this.writer = new BackgroundWriter(plugin.getDataFile("SignMetadata.dat"));
+        this.logger = logger;
+        this.legacyImporter = (plugin == null) ? null : new OfflineSignLegacyImporter(this, plugin);
+        this.writer = new BackgroundWriter(saveFile, journalFile);
         this.listener = new OfflineSignStoreListener(this);
     }
 
@@ -97,6 +118,14 @@ public class OfflineSignStore {
         writer.load();
     }
 
+    /**
+     * Writes the changes made since the last save to disk right away, on the
+     * calling thread. Normally the background writer does this.
+     */
+    void saveNow() {
+        writer.save();
+    }
+
     /**
      * Enables the store for first-time use. Loads the save file and starts the background
      * writer.
@@ -368,7 +397,7 @@ public class OfflineSignStore {
     public <T> T put(Sign sign, T metadata) {
         return putImpl(OfflineWorld.of(sign.getWorld()),
                        new IntVector3(sign.getX(), sign.getY(), sign.getZ()),
-                       () -> sign,
+                       sign::getLines,
                        metadata);
     }
 
@@ -381,14 +410,28 @@ public class OfflineSignStore {
      * @return Previous metadata that was stored, or null if none was stored
      */
     public <T> T put(Block signBlock, T metadata) {
+        final Supplier<Sign> signGetter = signFromBlockSupplier(signBlock);
         return putImpl(OfflineWorld.of(signBlock.getWorld()),
                        new IntVector3(signBlock),
-                       signFromBlockSupplier(signBlock),
+                       () -> signGetter.get().getLines(),
                        metadata);
     }
 
+    /**
+     * Stores new or updated metadata for an offline sign, without reading the
+     * sign from the world
+     *
+     * @param <T> Type of metadata
+     * @param sign Offline sign to store the metadata for
+     * @param metadata Metadata to store
+     * @return Previous metadata that was stored, or null if none was stored
+     */
+    <T> T put(OfflineSign sign, T metadata) {
+        return putImpl(sign.getWorld(), sign.getPosition(), sign::getLines, metadata);
+    }
+
     @SuppressWarnings("unchecked")
-    private <T> T putImpl(OfflineWorld world, IntVector3 position, Supplier<Sign> signGetter, T metadata) {
+    private <T> T putImpl(OfflineWorld world, IntVector3 position, Supplier<String[]> signLinesGetter, T metadata) {
         OfflineSignWorldStore atWorld = forWorld(world);
         MetadataHandlerEntry<T> handlerEntry = findHandler(metadata);
 
@@ -406,7 +449,7 @@ public class OfflineSignStore {
 
         // Instantiate a new sign - error if this is not actually a sign!
         if (offlineSign == null) {
-            offlineSign = new OfflineSign(world.getBlockAt(position), signGetter.get().getLines());
+            offlineSign = new OfflineSign(world.getBlockAt(position), signLinesGetter.get());
         }
 
         // Create new
@@ -806,13 +849,13 @@ public class OfflineSignStore {
     private void onEntryAdded(OfflineMetadataEntry<?> entry) {
         allEntries.add(CommonUtil.unsafeCast(entry));
         entry.handlerEntry.entries.add(CommonUtil.unsafeCast(entry));
-        writer.changed();
+        writer.changed(entry);
         entry.callOnAdded();
     }
 
     private void onEntryRemoved(OfflineMetadataEntry<?> entry) {
         if (allEntries.remove(entry)) {
-            writer.changed();
+            writer.removed(entry);
         }
         entry.removed = true;
         entry.callOnRemoved();
@@ -927,6 +970,7 @@ public class OfflineSignStore {
 
     private final class OfflineMetadataEntry<T> implements Entry<T> {
         public OfflineSign sign;
+        public final String metadataTypeName;
         private MetadataHandlerEntry<T> handlerEntry;
         private byte[] encodedData;
         private T metadata;
@@ -935,6 +979,7 @@ public class OfflineSignStore {
 
         public OfflineMetadataEntry(OfflineSign sign, MetadataHandlerEntry<T> handlerEntry, T metadata) {
             this.sign = sign;
+            this.metadataTypeName = handlerEntry.metadataTypeName;
             this.handlerEntry = handlerEntry;
             this.encodedData = null;
             this.metadata = metadata;
@@ -942,8 +987,9 @@ public class OfflineSignStore {
             this.addedToHandler = false;
         }
 
-        public OfflineMetadataEntry(OfflineSign sign, byte[] encodedData) {
+        public OfflineMetadataEntry(OfflineSign sign, String metadataTypeName, byte[] encodedData) {
             this.sign = sign;
+            this.metadataTypeName = metadataTypeName;
             this.handlerEntry = null;
             this.encodedData = encodedData;
             this.metadata = null;
@@ -1221,7 +1267,7 @@ public class OfflineSignStore {
                 }
             }
 
-            OfflineSignStore.this.writer.changed();
+            OfflineSignStore.this.writer.changed(this);
         }
 
         @Override
@@ -1230,19 +1276,52 @@ public class OfflineSignStore {
         }
     }
 
+    /**
+     * Writes changes to the metadata to disk on a background thread. Changes are
+     * appended to a journal file, so that the cost of saving scales with the number
+     * of changes and not the number of entries stored. Once the journal grows larger
+     * than the number of entries stored, all entries are written to the snapshot save
+     * file and the journal is started over.<br>
+     * <br>
+     * The snapshot and journal both store a generation number. Journal records are only
+     * applied to a snapshot of the same generation, so that a journal left behind by
+     * an interrupted compaction does not revert newer data.
+     */
     private class BackgroundWriter {
+        private static final int SNAPSHOT_VERSION = 2;
+        private static final int JOURNAL_VERSION = 1;
+        private static final int JOURNAL_OP_PUT = 1;
+        private static final int JOURNAL_OP_REMOVE = 2;
+        private static final int MIN_COMPACT_RECORDS = 1000;
         private Thread thread;
         private final Object lock = new Object();
         private final File saveFile;
+        private final File journalFile;
+        private Set<OfflineMetadataEntry<?>> changedEntries = new LinkedHashSet<>();
+        private List<JournalKey> removedEntries = new ArrayList<>();
+        private long generation = 0;
+        private int journalRecordCount = 0;
+        private boolean journalNeedsReset = false;
         private volatile boolean savingNeeded = false;
         private volatile boolean shuttingDown = false;
 
-        public BackgroundWriter(File saveFile) {
+        public BackgroundWriter(File saveFile, File journalFile) {
             this.saveFile = saveFile;
+            this.journalFile = journalFile;
+        }
+
+        public void changed(OfflineMetadataEntry<?> entry) {
+            synchronized (lock) {
+                changedEntries.add(entry);
+                savingNeeded = true;
+                lock.notifyAll();
+            }
         }
 
-        public void changed() {
+        public void removed(OfflineMetadataEntry<?> entry) {
             synchronized (lock) {
+                changedEntries.remove(entry);
+                removedEntries.add(new JournalKey(entry.sign, entry.metadataTypeName));
                 savingNeeded = true;
                 lock.notifyAll();
             }
@@ -1310,32 +1389,30 @@ public class OfflineSignStore {
         }
 
         public void load() {
+            synchronized (lock) {
+                changedEntries.clear();
+                removedEntries.clear();
+            }
+
+            // Read the snapshot, then apply the journal on top of it
+            Map<JournalKey, LoadedRecord> records = new LinkedHashMap<>();
+            generation = 0;
+            journalRecordCount = 0;
+            journalNeedsReset = false;
             if (this.saveFile.exists()) {
                 try {
                     try (FileInputStream f_stream = new FileInputStream(this.saveFile);
-                         DataInputStream stream = new DataInputStream(f_stream))
+                         BufferedInputStream b_stream = new BufferedInputStream(f_stream);
+                         DataInputStream stream = new DataInputStream(b_stream))
                     {
                         int versionCode = readVariableLengthInt(stream);
-                        if (versionCode == 1) {
+                        if (versionCode == 1 || versionCode == SNAPSHOT_VERSION) {
+                            if (versionCode == SNAPSHOT_VERSION) {
+                                generation = stream.readLong();
+                            }
                             while (stream.available() > 0) {
-                                // Read metadata bytes
-                                byte[] encodedData = new byte[readVariableLengthInt(stream)];
-                                stream.readFully(encodedData);
-
-                                // Decode just the sign metadata bit
-                                OfflineSign sign;
-                                String metadataTypeName;
-                                try (ByteArrayInputStream m_b_stream = new ByteArrayInputStream(encodedData);
-                                     InflaterInputStream m_d_stream = new InflaterInputStream(m_b_stream);
-                                     DataInputStream m_stream = new DataInputStream(m_d_stream))
-                                {
-                                    sign = OfflineSign.readFrom(m_stream);
-                                    metadataTypeName = m_stream.readUTF();
-                                }
-
-                                // Import it into the store
-                                OfflineMetadataEntry<Object> newEntry = new OfflineMetadataEntry<Object>(sign, encodedData);
-                                loadEntry(metadataTypeName, newEntry);
+                                LoadedRecord record = readRecord(stream);
+                                records.put(record.key, record);
                             }
                         } else {
                             logger.log(Level.SEVERE, "Failed to read sign metadata: unsupported version");
@@ -1347,10 +1424,157 @@ public class OfflineSignStore {
                     logger.log(Level.SEVERE, "Failed to read sign metadata", ex);
                 }
             }
+            if (this.journalFile.exists()) {
+                try {
+                    try (FileInputStream f_stream = new FileInputStream(this.journalFile);
+                         BufferedInputStream b_stream = new BufferedInputStream(f_stream);
+                         DataInputStream stream = new DataInputStream(b_stream))
+                    {
+                        int versionCode = readVariableLengthInt(stream);
+                        if (versionCode != JOURNAL_VERSION) {
+                            logger.log(Level.SEVERE, "Failed to read sign metadata journal: unsupported version");
+                            journalNeedsReset = true;
+                        } else if (stream.readLong() != generation) {
+                            // Left behind by an interrupted compaction, snapshot already has these changes
+                            journalNeedsReset = true;
+                        } else {
+                            while (stream.available() > 0) {
+                                int op = stream.readUnsignedByte();
+                                if (op == JOURNAL_OP_PUT) {
+                                    LoadedRecord record = readRecord(stream);
+                                    records.remove(record.key); // Preserve order of change
+                                    records.put(record.key, record);
+                                } else if (op == JOURNAL_OP_REMOVE) {
+                                    records.remove(JournalKey.readFrom(stream));
+                                } else {
+                                    throw new IOException("Corrupted journal record (op=" + op + ")");
+                                }
+                                journalRecordCount++;
+                            }
+                        }
+                    }
+                } catch (IOException ex) {
+                    // Likely the server stopped while a record was being written. Records
+                    // read so far are kept, the partial record is dropped by compacting.
+                    logger.log(Level.WARNING, "Sign metadata journal ends with an incomplete record, " +
+                            "the last change made before shutdown may be lost");
+                    journalNeedsReset = true;
+                }
+            }
+
+            // Import all of it into the store
+            for (LoadedRecord record : records.values()) {
+                OfflineMetadataEntry<Object> newEntry = new OfflineMetadataEntry<Object>(
+                        record.sign, record.key.metadataTypeName, record.encodedData);
+                loadEntry(record.key.metadataTypeName, newEntry);
+            }
+
+            // If the journal could not be used, compact it right away at the next save
+            if (journalNeedsReset) {
+                synchronized (lock) {
+                    savingNeeded = true;
+                }
+            }
+        }
+
+        private LoadedRecord readRecord(DataInputStream stream) throws IOException {
+            // Read metadata bytes
+            byte[] encodedData = new byte[readVariableLengthInt(stream)];
+            stream.readFully(encodedData);
+
+            // Decode just the sign metadata bit
+            try (ByteArrayInputStream m_b_stream = new ByteArrayInputStream(encodedData);
+                 InflaterInputStream m_d_stream = new InflaterInputStream(m_b_stream);
+                 DataInputStream m_stream = new DataInputStream(m_d_stream))
+            {
+                OfflineSign sign = OfflineSign.readFrom(m_stream);
+                String metadataTypeName = m_stream.readUTF();
+                return new LoadedRecord(new JournalKey(sign, metadataTypeName), sign, encodedData);
+            }
         }
 
         public void save() {
+            // Take the changes made since the last save
+            final Set<OfflineMetadataEntry<?>> changed;
+            final List<JournalKey> removed;
+            synchronized (lock) {
+                changed = this.changedEntries;
+                removed = this.removedEntries;
+                this.changedEntries = new LinkedHashSet<>();
+                this.removedEntries = new ArrayList<>();
+            }
+
+            // When the journal has grown too large, write all entries to a new snapshot instead
+            int numRecords = this.journalRecordCount + changed.size() + removed.size();
+            if (this.journalNeedsReset || numRecords > Math.max(MIN_COMPACT_RECORDS, allEntries.size())) {
+                if (compact()) {
+                    return;
+                } else if (this.journalNeedsReset) {
+                    // Journal can not be appended to, try again later
+                    synchronized (lock) {
+                        changed.addAll(this.changedEntries);
+                        removed.addAll(this.removedEntries);
+                        this.changedEntries = changed;
+                        this.removedEntries = removed;
+                        savingNeeded = true;
+                    }
+                    return;
+                }
+            }
+
             final List<OfflineMetadataEntry<?>> encodeFailures = new ArrayList<>();
+            try {
+                boolean isNewJournal = !this.journalFile.exists() || this.journalFile.length() == 0;
+                try (FileOutputStream f_stream = new FileOutputStream(this.journalFile, true);
+                     BufferedOutputStream b_stream = new BufferedOutputStream(f_stream);
+                     DataOutputStream stream = new DataOutputStream(b_stream))
+                {
+                    if (isNewJournal) {
+                        writeVariableLengthInt(stream, JOURNAL_VERSION);
+                        stream.writeLong(this.generation);
+                    }
+
+                    // Removals first, so that entries re-added at the same sign are kept
+                    for (JournalKey key : removed) {
+                        stream.writeByte(JOURNAL_OP_REMOVE);
+                        key.writeTo(stream);
+                    }
+                    for (OfflineMetadataEntry<?> entry : changed) {
+                        if (entry.isRemoved()) {
+                            continue;
+                        }
+                        byte[] encodedData = entry.encodeMetadata();
+                        if (encodedData != null) {
+                            stream.writeByte(JOURNAL_OP_PUT);
+                            writeVariableLengthInt(stream, encodedData.length);
+                            stream.write(encodedData);
+                        } else {
+                            encodeFailures.add(entry);
+                        }
+                    }
+                }
+                this.journalRecordCount = numRecords;
+            } catch (IOException ex) {
+                logger.log(Level.SEVERE, "Failed to write sign metadata journal", ex);
+
+                // Journal may now end with a partial record. Write a full snapshot next time.
+                this.journalNeedsReset = true;
+                synchronized (lock) {
+                    savingNeeded = true;
+                }
+            }
+
+            cleanupEncodeFailures(encodeFailures);
+        }
+
+        /**
+         * Writes all entries to a new snapshot save file, and starts a new journal
+         *
+         * @return True if successful
+         */
+        private boolean compact() {
+            final List<OfflineMetadataEntry<?>> encodeFailures = new ArrayList<>();
+            final long newGeneration = this.generation + 1;
             File tmpFile = new File(this.saveFile.getParentFile(), this.saveFile.getName() +
                     "." + System.currentTimeMillis() + ".tmp");
 
@@ -1358,9 +1582,11 @@ public class OfflineSignStore {
             boolean saveSuccessful = false;
             try {
                 try (FileOutputStream f_stream = new FileOutputStream(tmpFile);
-                     DataOutputStream stream = new DataOutputStream(f_stream))
+                     BufferedOutputStream b_stream = new BufferedOutputStream(f_stream);
+                     DataOutputStream stream = new DataOutputStream(b_stream))
                 {
-                    writeVariableLengthInt(stream, 1);
+                    writeVariableLengthInt(stream, SNAPSHOT_VERSION);
+                    stream.writeLong(newGeneration);
                     for (OfflineMetadataEntry<?> entry : allEntries.cloneAsIterable()) {
                         byte[] encodedData = entry.encodeMetadata();
                         if (encodedData != null) {
@@ -1382,9 +1608,34 @@ public class OfflineSignStore {
                     atomicMove(tmpFile, saveFile);
                 } catch (Throwable t) {
                     logger.log(Level.SEVERE, "Failed to finalize writing sign metadata", t);
+                    saveSuccessful = false;
                 }
             }
 
+            // Start a new journal. If this fails, the old journal is of a different
+            // generation and is ignored when loading.
+            if (saveSuccessful) {
+                this.generation = newGeneration;
+                this.journalRecordCount = 0;
+                this.journalNeedsReset = false;
+                try {
+                    try (FileOutputStream f_stream = new FileOutputStream(this.journalFile, false);
+                         DataOutputStream stream = new DataOutputStream(f_stream))
+                    {
+                        writeVariableLengthInt(stream, JOURNAL_VERSION);
+                        stream.writeLong(newGeneration);
+                    }
+                } catch (IOException ex) {
+                    logger.log(Level.SEVERE, "Failed to reset sign metadata journal", ex);
+                    this.journalNeedsReset = true;
+                }
+            }
+
+            cleanupEncodeFailures(encodeFailures);
+            return saveSuccessful;
+        }
+
+        private void cleanupEncodeFailures(final List<OfflineMetadataEntry<?>> encodeFailures) {
             // If there were entries that couldn't be encoded, clean those up on the main thread later
             if (!encodeFailures.isEmpty()) {
                 CommonUtil.getPluginExecutor(plugin).execute(() -> {
@@ -1394,6 +1645,72 @@ public class OfflineSignStore {
         }
     }
 
+    /**
+     * Identifies a metadata entry in the journal. There is at most one entry
+     * of a metadata type for each sign block.
+     */
+    private static final class JournalKey {
+        public final UUID worldUUID;
+        public final IntVector3 position;
+        public final String metadataTypeName;
+
+        public JournalKey(OfflineSign sign, String metadataTypeName) {
+            this(sign.getWorldUUID(), sign.getPosition(), metadataTypeName);
+        }
+
+        public JournalKey(UUID worldUUID, IntVector3 position, String metadataTypeName) {
+            this.worldUUID = worldUUID;
+            this.position = position;
+            this.metadataTypeName = metadataTypeName;
+        }
+
+        public void writeTo(DataOutputStream stream) throws IOException {
+            stream.writeLong(worldUUID.getMostSignificantBits());
+            stream.writeLong(worldUUID.getLeastSignificantBits());
+            stream.writeInt(position.x);
+            stream.writeInt(position.y);
+            stream.writeInt(position.z);
+            stream.writeUTF(metadataTypeName);
+        }
+
+        public static JournalKey readFrom(DataInputStream stream) throws IOException {
+            UUID worldUUID = new UUID(stream.readLong(), stream.readLong());
+            IntVector3 position = new IntVector3(stream.readInt(), stream.readInt(), stream.readInt());
+            return new JournalKey(worldUUID, position, stream.readUTF());
+        }
+
+        @Override
+        public int hashCode() {
+            return position.hashCode() ^ metadataTypeName.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            } else if (o instanceof JournalKey) {
+                JournalKey other = (JournalKey) o;
+                return position.equals(other.position) &&
+                       worldUUID.equals(other.worldUUID) &&
+                       metadataTypeName.equals(other.metadataTypeName);
+            } else {
+                return false;
+            }
+        }
+    }
+
+    private static final class LoadedRecord {
+        public final JournalKey key;
+        public final OfflineSign sign;
+        public final byte[] encodedData;
+
+        public LoadedRecord(JournalKey key, OfflineSign sign, byte[] encodedData) {
+            this.key = key;
+            this.sign = sign;
+            this.encodedData = encodedData;
+        }
+    }
+
     private static class MetadataHandlerEntry<T> {
         public final Class<T> metadataType;
         public final String metadataTypeName;
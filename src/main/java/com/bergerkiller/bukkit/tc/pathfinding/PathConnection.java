@@ -60,7 +60,19 @@ public class PathConnection {
     }
 
     public void writeTo(DataOutputStream stream) throws IOException {
-        stream.writeInt(this.destination.index);
+        writeTo(stream, this.destination.index);
+    }
+
+    /**
+     * Writes this connection, using a destination node index that was
+     * stored before
+     *
+     * @param stream Stream to write to
+     * @param destinationIndex Index of the destination node
+     * @throws IOException
+     */
+    public void writeTo(DataOutputStream stream, int destinationIndex) throws IOException {
+        stream.writeInt(destinationIndex);
         stream.writeInt(Integer.MAX_VALUE); // Deprecated
         stream.writeDouble(this.distance);
         stream.writeByte(0xFF);
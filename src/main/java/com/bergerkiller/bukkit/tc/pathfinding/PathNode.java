@@ -16,8 +16,6 @@ public class PathNode {
     private final Set<String> names = new HashSet<>();
     private final List<PathConnection> neighbors = new ArrayList<>(3);
     public int index;
-    private double lastDistance;
-    private PathConnection lastTaken;
     private boolean isRailSwitchable;
     private boolean station;
     private SignAction sign;
@@ -96,31 +94,6 @@ public class PathNode {
         return TrainCarts.plugin.getPathProvider().getWorld(location.world).getOrCreateAtRail(location);
     }
     
-    private static double getDistanceTo(PathConnection from, PathConnection conn, double currentDistance, double maxDistance, PathNode destination) {
-        final PathNode node = conn.destination;
-        currentDistance += conn.distance;
-        // Consider taking turns as one distance longer
-        // This avoids the excessive use of turns in 2-way 'X' intersections
-        if (destination == node) {
-            return currentDistance;
-        }
-        // Initial distance check before continuing
-        if (node.lastDistance < currentDistance || currentDistance > maxDistance) {
-            return Double.MAX_VALUE;
-        }
-        node.lastDistance = currentDistance;
-        // Check all neighbors and obtain the lowest distance recursively
-        double distance;
-        for (PathConnection connection : node.neighbors) {
-            distance = getDistanceTo(conn, connection, currentDistance, maxDistance, destination);
-            if (distance < maxDistance) {
-                maxDistance = distance;
-                node.lastTaken = connection;
-            }
-        }
-        return maxDistance;
-    }
-
     /**
      * Gets the world which this node is part of
      * 
@@ -164,25 +137,7 @@ public class PathNode {
      * @return A connection, or null if none could be found
      */
     public PathConnection findConnection(PathNode destination) {
-        for (PathNode node : world.getNodes()) {
-            node.lastDistance = Double.MAX_VALUE;
-            node.lastTaken = null;
-        }
-        double minDistance = Double.MAX_VALUE;
-        double distance;
-        final PathConnection from = new PathConnection(this, 0, "");
-        for (PathConnection connection : this.neighbors) {
-            distance = getDistanceTo(from, connection, 0.0, minDistance, destination);
-            if (distance < minDistance) {
-                minDistance = distance;
-                this.lastTaken = connection;
-            }
-        }
-        if (this.lastTaken == null) {
-            return null;
-        } else {
-            return new PathConnection(destination, minDistance, this.lastTaken.junctionName);
-        }
+        return world.getRoutingTable().findConnection(this, destination);
     }
 
     /**
@@ -192,18 +147,7 @@ public class PathNode {
      * @return the route taken, or an empty array if none could be found
      */
     public PathConnection[] findRoute(PathNode destination) {
-        if (findConnection(destination) == null) {
-            return new PathConnection[0];
-        }
-        List<PathConnection> route = new ArrayList<>();
-        PathConnection conn = this.lastTaken;
-        while (conn != null) {
-            route.add(conn);
-            PathNode connDest = conn.destination;
-            conn = connDest.lastTaken;
-            connDest.lastTaken = null; // Avoid infinite loops
-        }
-        return route.toArray(new PathConnection[0]);
+        return world.getRoutingTable().findRoute(this, destination);
     }
 
     /**
@@ -233,6 +177,7 @@ public class PathNode {
         // Add a new one
         conn = new PathConnection(to, distance, junctionName);
         addNeighbourFast(conn);
+        world.getRoutingTable().invalidate(to);
         world.getProvider().scheduleNodeIfNotRecentlyRouted(to);
         world.getProvider().markChanged();
         return conn;
@@ -240,6 +185,7 @@ public class PathNode {
 
     protected void addNeighbourFast(PathConnection connection) {
         this.neighbors.add(connection);
+        world.getRoutingTable().invalidate(this);
     }
 
     /**
@@ -247,6 +193,7 @@ public class PathNode {
      * connection from those other nodes to this node are forgotten too.
      */
     public void clear() {
+        world.getRoutingTable().invalidate(this);
         this.neighbors.clear();
         for (PathNode node : world.getNodes()) {
             Iterator<PathConnection> iter = node.neighbors.iterator();
@@ -414,6 +361,7 @@ public class PathNode {
         // Remove all the reachable nodes we have collected, deleting the entire network
         // Schedule all these nodes for path finding
         for (PathNode node : reachable) {
+            world.getRoutingTable().invalidate(node);
             node.neighbors.clear();
             world.removeFromMapping(node);
             world.getProvider().discoverFromRail(node.location);
@@ -16,6 +16,7 @@ import com.bergerkiller.bukkit.tc.rails.RailLookup;
 import com.bergerkiller.bukkit.tc.rails.type.RailType;
 import com.bergerkiller.bukkit.tc.signactions.SignAction;
 import com.bergerkiller.bukkit.tc.signactions.SignActionType;
+import com.bergerkiller.bukkit.tc.storage.BackgroundSaveWriter;
 import com.bergerkiller.bukkit.tc.utils.TrackWalkingPoint;
 
 import org.bukkit.ChatColor;
@@ -45,6 +46,7 @@ import java.util.logging.Level;
 public class PathProvider extends Task implements TrainCarts.Provider {
     private static final String SWITCHER_NAME_FALLBACK = "::traincarts::switchable::";
     public static final int DEFAULT_MAX_PROCESSING_PER_TICK = 50; // Maximum processing time in Ms per tick
+    private static final int CACHE_FLUSH_INTERVAL = 20; // Ticks of walking rails between refreshes of the rail caches
     public static boolean DEBUG_MODE = false;
     private final Map<String, PathWorld> worlds = new HashMap<String, PathWorld>();
     private final List<PathRoutingHandler> handlers = new ArrayList<PathRoutingHandler>();
@@ -79,8 +81,21 @@ public class PathProvider extends Task implements TrainCarts.Provider {
      * People to notify when the routes have finished calculating
      */
     private Set<CommandSender> sendersToNotifyOfCompletion = new HashSet<>();
+    /**
+     * Connections between nodes found by the path finding operations of the current tick.
+     * They are added to the nodes as one batch once the tick's processing ends, so the
+     * routing tables are not repeatedly invalidated while operations are still running.
+     */
+    private List<FoundConnection> foundConnections = new ArrayList<>();
+    /**
+     * Number of ticks path finding operations have walked rails since the rail caches were
+     * last refreshed. Rail information cached during the walk is refreshed once routing
+     * completes, and every {@link #CACHE_FLUSH_INTERVAL} ticks while it is still running,
+     * so a long rebuild does not keep temporary rail information in the cache.
+     */
+    private int ticksWalkedSinceFlush = 0;
     private boolean hasChanges = false;
-    private int maxProcessingPerTick = DEFAULT_MAX_PROCESSING_PER_TICK;
+    private long maxProcessingNanosPerTick = DEFAULT_MAX_PROCESSING_PER_TICK * 1000000L;
 
     public PathProvider(TrainCarts plugin) {
         super(plugin);
@@ -203,7 +218,28 @@ public class PathProvider extends Task implements TrainCarts.Provider {
      * @param durationMillis
      */
     public void setMaxProcessingPerTick(int durationMillis) {
-        this.maxProcessingPerTick = durationMillis;
+        setMaxProcessingPerTick((double) durationMillis);
+    }
+
+    /**
+     * Sets the maximum amount of time in milliseconds the path finding algorithm will spend
+     * every tick doing routing calculations. Discovering new nodes and walking the routes
+     * between nodes share this time. Fractions of a millisecond can be specified.
+     *
+     * @param durationMillis
+     */
+    public void setMaxProcessingPerTick(double durationMillis) {
+        this.maxProcessingNanosPerTick = (long) (Math.max(0.0, durationMillis) * 1000000.0);
+    }
+
+    /**
+     * Gets the maximum amount of time in milliseconds the path finding algorithm will spend
+     * every tick doing routing calculations.
+     *
+     * @return maximum processing time per tick in milliseconds
+     */
+    public double getMaxProcessingPerTick() {
+        return (double) this.maxProcessingNanosPerTick / 1000000.0;
     }
 
     public int getNumPendingNodes() {
@@ -277,59 +313,90 @@ public class PathProvider extends Task implements TrainCarts.Provider {
         }
     }
 
-    public void save(boolean autosave, String filename) {
-        if (autosave && !hasChanges) {
-            return;
-        }
-        new CompressedDataWriter(filename) {
-            public void write(DataOutputStream stream) throws IOException {
-                // Compute and write total amount of nodes
-                int totalNodeCount = 0;
-                for (PathWorld world : getWorlds()) {
-                    totalNodeCount += world.getNodes().size();
-                }
-                stream.writeInt(totalNodeCount);
-
-                // Generate indices
-                int i = 0;
-                for (PathWorld world : getWorlds()) {
-                    for (PathNode node : world.getNodes()) {
-                        node.index = i;
-                        if (node.containsSwitcher()) {
-                            if (node.getNames().isEmpty()) {
-                                // Only switcher sign, write an empty String
-                                stream.writeUTF("");
-                            } else {
-                                // Switcher and destination sign are both at the same block
-                                // To indicate that, write the switcher name fallback in addition to the names
-                                stream.writeUTF(SWITCHER_NAME_FALLBACK + "\n" + StringUtil.join("\n", node.getNames()));
-                            }
-                        } else {
-                            // Only destination sign(s), write names
-                            stream.writeUTF(StringUtil.join("\n", node.getNames()));
+    /**
+     * Takes a snapshot of all path finding nodes and connections, and has it written
+     * to file on the background thread of the save writer.
+     *
+     * @param writer Save writer
+     * @param autosave Whether this is an autosave, which skips saving if nothing changed
+     * @param filename File to write to
+     */
+    public void save(BackgroundSaveWriter writer, boolean autosave, String filename) {
+        writer.submit("destinations", () -> {
+            if (autosave && !hasChanges) {
+                return null;
+            }
+            final NodeSnapshot[] nodes = snapshotNodes();
+            hasChanges = false;
+            return BackgroundSaveWriter.snapshotData(stream -> writeNodes(stream, nodes),
+                    data -> new CompressedDataWriter(filename) {
+                        public void write(DataOutputStream stream) throws IOException {
+                            stream.write(data);
                         }
-                        stream.writeUTF(node.location.world);
-                        stream.writeInt(node.location.x);
-                        stream.writeInt(node.location.y);
-                        stream.writeInt(node.location.z);
-                        i++;
+                    }.write());
+        });
+    }
+
+    // Copies the names, locations and connections of all nodes, so they can be written on another thread
+    private NodeSnapshot[] snapshotNodes() {
+        // Generate indices
+        int totalNodeCount = 0;
+        for (PathWorld world : getWorlds()) {
+            for (PathNode node : world.getNodes()) {
+                node.index = totalNodeCount++;
+            }
+        }
+
+        NodeSnapshot[] nodes = new NodeSnapshot[totalNodeCount];
+        int i = 0;
+        for (PathWorld world : getWorlds()) {
+            for (PathNode node : world.getNodes()) {
+                String name;
+                if (node.containsSwitcher()) {
+                    if (node.getNames().isEmpty()) {
+                        // Only switcher sign, write an empty String
+                        name = "";
+                    } else {
+                        // Switcher and destination sign are both at the same block
+                        // To indicate that, write the switcher name fallback in addition to the names
+                        name = SWITCHER_NAME_FALLBACK + "\n" + StringUtil.join("\n", node.getNames());
                     }
+                } else {
+                    // Only destination sign(s), write names
+                    name = StringUtil.join("\n", node.getNames());
                 }
 
-                // Write out connections
-                for (PathWorld world : getWorlds()) {
-                    for (PathNode node : world.getNodes()) {
-                        stream.writeInt(node.getNeighbours().size());
-                        for (PathConnection conn : node.getNeighbours()) {
-                            conn.writeTo(stream);
-                        }
-                    }
+                PathConnection[] connections = node.getNeighbours().toArray(new PathConnection[0]);
+                int[] destinations = new int[connections.length];
+                for (int n = 0; n < connections.length; n++) {
+                    destinations[n] = connections[n].destination.index;
                 }
+                nodes[i++] = new NodeSnapshot(name, node.location, connections, destinations);
             }
-        }.write();
-        hasChanges = false;
+        }
+        return nodes;
+    }
+
+    private static void writeNodes(DataOutputStream stream, NodeSnapshot[] nodes) throws IOException {
+        // Write total amount of nodes, followed by the nodes
+        stream.writeInt(nodes.length);
+        for (NodeSnapshot node : nodes) {
+            stream.writeUTF(node.name);
+            stream.writeUTF(node.location.world);
+            stream.writeInt(node.location.x);
+            stream.writeInt(node.location.y);
+            stream.writeInt(node.location.z);
+        }
+
+        // Write out connections
+        for (NodeSnapshot node : nodes) {
+            stream.writeInt(node.connections.length);
+            for (int n = 0; n < node.connections.length; n++) {
+                node.connections[n].writeTo(stream, node.destinations[n]);
+            }
+        }
     }
-    
+
     /**
      * Gets a collection of worlds on which path data is stored
      * 
@@ -468,22 +535,33 @@ public class PathProvider extends Task implements TrainCarts.Provider {
             getTrainCarts().log(Level.INFO, "Performing " + this.pendingOperations.size() + " pending path finding operations (can take a while)...");
             while (!this.pendingOperations.isEmpty()) {
                 PathFindOperation operation = this.pendingOperations.poll();
-                while (operation.next()) ;
+                while (!operation.next()) ;
             }
+            mergeFoundConnections();
         }
         return super.stop();
     }
 
     @Override
     public void run() {
+        // Discovery and walking the routes share the processing time of this tick
+        final long deadline = System.nanoTime() + this.maxProcessingNanosPerTick;
         if (this.pendingOperations.isEmpty() && !this.pendingDiscovery.isEmpty()) {
-            addNewlyDiscovered();
+            addNewlyDiscovered(deadline);
         }
         if (this.pendingOperations.isEmpty()) {
             addPendingNodes();
         }
         if (this.pendingOperations.isEmpty()) {
             this.scheduledNodesSinceIdle.clear();
+
+            // Wipe any rail and sign caches we have polluted with temporary block data
+            // Doing this once when done avoids churning the cache used by trains every tick
+            if (this.ticksWalkedSinceFlush > 0) {
+                this.ticksWalkedSinceFlush = 0;
+                RailLookup.forceRecalculation();
+            }
+
             {
                 List<CommandSender> senders = new ArrayList<>(this.sendersToNotifyOfCompletion);
                 this.sendersToNotifyOfCompletion.clear();
@@ -500,7 +578,10 @@ public class PathProvider extends Task implements TrainCarts.Provider {
             return;
         }
         boolean done;
-        final long startTime = System.currentTimeMillis();
+        if (++this.ticksWalkedSinceFlush > CACHE_FLUSH_INTERVAL) {
+            this.ticksWalkedSinceFlush = 1;
+            RailLookup.forceRecalculation();
+        }
         while (!this.pendingOperations.isEmpty()) {
             PathFindOperation operation = this.pendingOperations.peek();
             done = false;
@@ -509,10 +590,9 @@ public class PathProvider extends Task implements TrainCarts.Provider {
                         " INTO " + operation.getJunctionName());
             }
             // Perform the operations in steps
-            // Not per step, because System.currentTimeMillis is not entirely cheap!
             do {
                 done = operation.next();
-            } while (!done && (System.currentTimeMillis() - startTime) <= this.maxProcessingPerTick);
+            } while (!done && System.nanoTime() <= deadline);
             if (done) {
                 this.pendingOperations.poll();
             } else {
@@ -520,14 +600,41 @@ public class PathProvider extends Task implements TrainCarts.Provider {
             }
         }
 
-        // Important: wipe any rail and sign caches we have polluted with temporary block data
-        // This will momentarily cause the plugin to run slower, but we must do this or risk out of memory!
-        RailLookup.forceRecalculation();
+        mergeFoundConnections();
+    }
+
+    /**
+     * Remembers a connection found by a path finding operation. It is added to the
+     * start node once the processing of the current tick ends.
+     *
+     * @param startNode Node the connection starts at
+     * @param foundNode Node found at the end of the connection
+     * @param distance Distance between the nodes
+     * @param junctionName Name of the junction taken at the start node
+     */
+    void addFoundConnection(PathNode startNode, PathNode foundNode, double distance, String junctionName) {
+        this.foundConnections.add(new FoundConnection(startNode, foundNode, distance, junctionName));
+    }
+
+    // Adds all the connections found this tick to the nodes they start at
+    void mergeFoundConnections() {
+        if (this.foundConnections.isEmpty()) {
+            return;
+        }
+
+        List<FoundConnection> connections = this.foundConnections;
+        this.foundConnections = new ArrayList<>();
+        for (FoundConnection connection : connections) {
+            connection.startNode.addNeighbour(connection.foundNode, connection.distance, connection.junctionName);
+            if (DEBUG_MODE) {
+                getTrainCarts().log(Level.INFO, "MADE CONNECTION FROM " +
+                        connection.startNode.getDisplayName() + " TO " + connection.foundNode.getDisplayName());
+            }
+        }
     }
 
     // Discovers new switchers and destination signs. Stops upon the first new node found.
-    private void addNewlyDiscovered() {
-        final long startTime = System.currentTimeMillis();
+    private void addNewlyDiscovered(long deadline) {
         do {
             BlockLocation railLocation = this.pendingDiscovery.poll();
             if (railLocation == null) {
@@ -557,7 +664,7 @@ public class PathProvider extends Task implements TrainCarts.Provider {
             for (PathRoutingHandler handler : this.handlers) {
                 handler.process(routeEvent);
             }
-        } while ((System.currentTimeMillis() - startTime) <= this.maxProcessingPerTick);
+        } while (System.nanoTime() <= deadline);
     }
 
     private void addPendingNodes() {
@@ -692,12 +799,8 @@ public class PathProvider extends Task implements TrainCarts.Provider {
                     totalDistance += spawnPos.distanceSquared(p.state.positionLocation());
                 }
 
-                // Add neighbour
-                this.startNode.addNeighbour(foundNode, totalDistance, this.getJunctionName());
-                if (DEBUG_MODE) {
-                    routeEvent.provider().getTrainCarts().log(Level.INFO, "MADE CONNECTION FROM " +
-                            startNode.getDisplayName() + " TO " + foundNode.getDisplayName());
-                }
+                // Add neighbour once all operations of this tick are done
+                routeEvent.provider().addFoundConnection(this.startNode, foundNode, totalDistance, this.getJunctionName());
                 return true; // Finished
             }
 
@@ -710,6 +813,34 @@ public class PathProvider extends Task implements TrainCarts.Provider {
         }
     }
 
+    private static final class NodeSnapshot {
+        public final String name;
+        public final BlockLocation location;
+        public final PathConnection[] connections;
+        public final int[] destinations;
+
+        public NodeSnapshot(String name, BlockLocation location, PathConnection[] connections, int[] destinations) {
+            this.name = name;
+            this.location = location;
+            this.connections = connections;
+            this.destinations = destinations;
+        }
+    }
+
+    private static final class FoundConnection {
+        public final PathNode startNode;
+        public final PathNode foundNode;
+        public final double distance;
+        public final String junctionName;
+
+        public FoundConnection(PathNode startNode, PathNode foundNode, double distance, String junctionName) {
+            this.startNode = startNode;
+            this.foundNode = foundNode;
+            this.distance = distance;
+            this.junctionName = junctionName;
+        }
+    }
+
     /**
      * Finds out rail information at a particular rail position.
      * If new nodes are discovered, they are scheduled.
@@ -0,0 +1,227 @@
+package com.bergerkiller.bukkit.tc.pathfinding;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Stores the next-hop routing tables of all the nodes of a single {@link PathWorld}.
+ * For every destination node that is queried a table is computed once using Dijkstra's
+ * algorithm over the reversed connection graph. After that, every node that can reach
+ * that destination knows what connection to take and how far the destination is,
+ * turning a routing decision into a single map lookup.<br>
+ * <br>
+ * When connections change only the tables that include the changed nodes are
+ * discarded. They are computed again the next time they are needed.
+ */
+public class PathRoutingTable {
+    private final PathWorld world;
+    private final Map<PathNode, DestinationTable> tables = new IdentityHashMap<>();
+    private Map<PathNode, List<IncomingConnection>> incoming = null;
+
+    protected PathRoutingTable(PathWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * Gets the world whose nodes are routed by this routing table
+     *
+     * @return path world
+     */
+    public PathWorld getWorld() {
+        return this.world;
+    }
+
+    /**
+     * Gets the number of destinations for which a routing table is currently computed
+     *
+     * @return number of computed destination tables
+     */
+    public int getTableCount() {
+        return this.tables.size();
+    }
+
+    /**
+     * Finds the connection to take from a node to reach a destination. The returned
+     * connection has the destination node, the total distance to that node and the
+     * junction name of the first connection to take from the node.
+     *
+     * @param from Node to start at
+     * @param destination Node to find
+     * @return connection to the destination, or null if the destination cannot be reached
+     */
+    public PathConnection findConnection(PathNode from, PathNode destination) {
+        Hop hop = findHop(from, destination);
+        return (hop == null) ? null : new PathConnection(destination, hop.distance, hop.connection.junctionName);
+    }
+
+    /**
+     * Finds all the connections to take, in order, to travel from a node to a destination
+     *
+     * @param from Node to start at
+     * @param destination Node to find
+     * @return the route taken, or an empty array if none could be found
+     */
+    public PathConnection[] findRoute(PathNode from, PathNode destination) {
+        Hop hop = findHop(from, destination);
+        if (hop == null) {
+            return new PathConnection[0];
+        }
+
+        DestinationTable table = getTable(destination);
+        List<PathConnection> route = new ArrayList<>();
+        route.add(hop.connection);
+        PathNode node = hop.connection.destination;
+        while (node != destination) {
+            Hop next = table.hops.get(node);
+            if (next == null || route.size() > table.hops.size()) {
+                return new PathConnection[0]; // Corrupted table, should never happen
+            }
+            route.add(next.connection);
+            node = next.connection.destination;
+        }
+        return route.toArray(new PathConnection[0]);
+    }
+
+    private Hop findHop(PathNode from, PathNode destination) {
+        DestinationTable table = getTable(destination);
+        if (from != destination) {
+            return table.hops.get(from);
+        }
+
+        // Route that loops back to the node itself. These are not stored in
+        // the table, so compute it from the distances of all neighbours.
+        Hop best = null;
+        for (PathConnection connection : from.getNeighbours()) {
+            Hop neighbourHop = table.hops.get(connection.destination);
+            if (neighbourHop != null) {
+                double distance = neighbourHop.distance + connection.distance;
+                if (best == null || distance < best.distance) {
+                    best = new Hop(connection, distance);
+                }
+            }
+        }
+        return best;
+    }
+
+    private DestinationTable getTable(PathNode destination) {
+        DestinationTable table = this.tables.get(destination);
+        if (table == null) {
+            table = computeTable(destination);
+            this.tables.put(destination, table);
+        }
+        return table;
+    }
+
+    private DestinationTable computeTable(PathNode destination) {
+        Map<PathNode, List<IncomingConnection>> incoming = getIncoming();
+        DestinationTable table = new DestinationTable();
+        table.hops.put(destination, new Hop(null, 0.0));
+
+        PriorityQueue<QueuedNode> queue = new PriorityQueue<>();
+        queue.add(new QueuedNode(destination, 0.0));
+        while (!queue.isEmpty()) {
+            QueuedNode queued = queue.poll();
+            if (table.hops.get(queued.node).distance < queued.distance) {
+                continue; // A shorter route was found since this node was queued
+            }
+
+            for (IncomingConnection in : incoming.getOrDefault(queued.node, Collections.emptyList())) {
+                if (in.from == destination) {
+                    continue;
+                }
+                double distance = queued.distance + in.connection.distance;
+                Hop previous = table.hops.get(in.from);
+                if (previous == null || distance < previous.distance) {
+                    table.hops.put(in.from, new Hop(in.connection, distance));
+                    queue.add(new QueuedNode(in.from, distance));
+                }
+            }
+        }
+        return table;
+    }
+
+    private Map<PathNode, List<IncomingConnection>> getIncoming() {
+        Map<PathNode, List<IncomingConnection>> incoming = this.incoming;
+        if (incoming == null) {
+            incoming = new IdentityHashMap<>();
+            for (PathNode node : this.world.getNodes()) {
+                for (PathConnection connection : node.getNeighbours()) {
+                    incoming.computeIfAbsent(connection.destination, n -> new ArrayList<>(3))
+                            .add(new IncomingConnection(node, connection));
+                }
+            }
+            this.incoming = incoming;
+        }
+        return incoming;
+    }
+
+    /**
+     * Discards all routing tables that route through a node. Must be called when
+     * connections from or to this node are added, changed or removed.
+     *
+     * @param node Node whose connections changed
+     */
+    public void invalidate(PathNode node) {
+        this.incoming = null;
+        Iterator<Map.Entry<PathNode, DestinationTable>> iter = this.tables.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<PathNode, DestinationTable> entry = iter.next();
+            if (entry.getKey() == node || entry.getValue().hops.containsKey(node)) {
+                iter.remove();
+            }
+        }
+    }
+
+    /**
+     * Discards all routing tables
+     */
+    public void invalidateAll() {
+        this.incoming = null;
+        this.tables.clear();
+    }
+
+    private static final class DestinationTable {
+        public final Map<PathNode, Hop> hops = new HashMap<>();
+    }
+
+    private static final class Hop {
+        public final PathConnection connection;
+        public final double distance;
+
+        public Hop(PathConnection connection, double distance) {
+            this.connection = connection;
+            this.distance = distance;
+        }
+    }
+
+    private static final class IncomingConnection {
+        public final PathNode from;
+        public final PathConnection connection;
+
+        public IncomingConnection(PathNode from, PathConnection connection) {
+            this.from = from;
+            this.connection = connection;
+        }
+    }
+
+    private static final class QueuedNode implements Comparable<QueuedNode> {
+        public final PathNode node;
+        public final double distance;
+
+        public QueuedNode(PathNode node, double distance) {
+            this.node = node;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(QueuedNode o) {
+            return Double.compare(this.distance, o.distance);
+        }
+    }
+}
@@ -19,12 +19,14 @@ public class PathWorld implements TrainCarts.Provider {
     private final String _name;
     private final BlockMap<PathNode> _blockNodes;
     private final Map<String, PathNode> _nodes;
+    private final PathRoutingTable _routingTable;
 
     public PathWorld(PathProvider provider, String worldName) {
         _provider = provider;
         _name = worldName;
         _blockNodes = new BlockMap<>();
         _nodes = new HashMap<>();
+        _routingTable = new PathRoutingTable(this);
     }
 
     @Override
@@ -50,6 +52,16 @@ public class PathWorld implements TrainCarts.Provider {
         return _name;
     }
 
+    /**
+     * Gets the routing table used to find the shortest routes between
+     * the nodes of this world
+     *
+     * @return routing table
+     */
+    public PathRoutingTable getRoutingTable() {
+        return _routingTable;
+    }
+
     public PathNode getNodeAtRail(BlockLocation railLocation) {
         return _blockNodes.get(railLocation);
     }
@@ -102,6 +114,7 @@ public class PathWorld implements TrainCarts.Provider {
     public void clearAll() {
         _nodes.clear();
         _blockNodes.clear();
+        _routingTable.invalidateAll();
         _provider.markChanged();
     }
 
@@ -5,16 +5,20 @@ import java.util.Collections;
 import java.util.List;
 
 import com.bergerkiller.bukkit.common.config.FileConfiguration;
+import com.bergerkiller.bukkit.tc.storage.BackgroundSaveWriter;
 
 /**
  * Saved destination route manager. Is used to save sequences of destinations
  * to file so they can be quickly applied to trains or minecarts.
  */
 public class RouteManager {
+    private static final String HEADER = "This file stores lists of destinations that can be set as a route on trains or carts";
+    private final String configFileName;
     private final FileConfiguration config;
     private boolean changed;
 
     public RouteManager(String configFileName) {
+        this.configFileName = configFileName;
         this.config = new FileConfiguration(configFileName);
         this.changed = false;
     }
@@ -24,7 +28,7 @@ public class RouteManager {
      */
     public void load() {
         this.config.load();
-        this.config.setHeader("This file stores lists of destinations that can be set as a route on trains or carts");
+        this.config.setHeader(HEADER);
         if (!this.config.exists()) {
             this.config.save();
         }
@@ -32,15 +36,22 @@ public class RouteManager {
     }
 
     /**
-     * Saves (or autosaves) the file to disk
-     * 
-     * @param autosave Whether this is an autosave, or forced save
+     * Takes a snapshot of the routes, and has it written to file on the background
+     * thread of the save writer.
+     *
+     * @param writer Save writer
+     * @param autosave Whether this is an autosave, which skips saving if nothing changed
      */
-    public void save(boolean autosave) {
-        if (this.changed || !autosave) {
+    public void save(BackgroundSaveWriter writer, boolean autosave) {
+        writer.submit("routes", () -> {
+            if (!this.changed && autosave) {
+                return null;
+            }
             this.changed = false;
-            this.config.save();
-        }
+            FileConfiguration snapshot = new FileConfiguration(this.configFileName);
+            snapshot.setHeader(HEADER);
+            return BackgroundSaveWriter.snapshotYaml(this.config, snapshot);
+        });
     }
 
     /**
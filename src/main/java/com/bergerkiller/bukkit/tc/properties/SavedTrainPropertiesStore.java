@@ -30,6 +30,7 @@ import com.bergerkiller.bukkit.tc.attachments.control.CartAttachmentItem;
 import com.bergerkiller.bukkit.tc.attachments.control.CartAttachmentSeat;
 import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
 import com.bergerkiller.bukkit.tc.exception.IllegalNameException;
+import com.bergerkiller.bukkit.tc.storage.BackgroundSaveWriter;
 
 /**
  * Stores the train and cart properties for trains that have been saved using /train save.
@@ -40,6 +41,7 @@ public class SavedTrainPropertiesStore implements TrainCarts.Provider {
 
     private final TrainCarts traincarts;
     private final FileConfiguration savedTrainsConfig;
+    private final String filename;
     private String name;
     private String modulesDirectory = "";
     private final List<String> names = new ArrayList<String>();
@@ -53,6 +55,7 @@ public class SavedTrainPropertiesStore implements TrainCarts.Provider {
 
     public SavedTrainPropertiesStore(TrainCarts traincarts, String name, String filename, boolean allowModules) {
         this.traincarts = traincarts;
+        this.filename = filename;
         this.savedTrainsConfig = new FileConfiguration(filename);
         this.savedTrainsConfig.load();
         this.name = name;
@@ -298,16 +301,27 @@ public class SavedTrainPropertiesStore implements TrainCarts.Provider {
         return false;
     }
 
-    public void save(boolean autosave) {
+    /**
+     * Takes a snapshot of the saved trains of this store and all its modules that
+     * changed, and has them written to disk on the background thread of the save writer.
+     *
+     * @param writer Save writer
+     * @param autosave Whether this is an autosave, which skips stores that did not change
+     */
+    public void save(BackgroundSaveWriter writer, boolean autosave) {
         for (SavedTrainPropertiesStore module : this.modules.values()) {
-            module.save(autosave);
+            module.save(writer, autosave);
         }
 
-        if (autosave && !this.changed) {
-            return;
-        }
-        this.savedTrainsConfig.save();
-        this.changed = false;
+        String storeName = (this.name == null) ? "SavedTrainProperties" : ("SavedTrainProperties:" + this.name);
+        writer.submit(storeName, () -> {
+            if (autosave && !this.changed) {
+                return null;
+            }
+            this.changed = false;
+            return BackgroundSaveWriter.snapshotYaml(this.savedTrainsConfig,
+                    new FileConfiguration(this.filename));
+        });
     }
 
     /**
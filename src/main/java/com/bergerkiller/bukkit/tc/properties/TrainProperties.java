@@ -44,6 +44,7 @@ import com.bergerkiller.bukkit.tc.properties.standard.type.CollisionOptions;
 import com.bergerkiller.bukkit.tc.properties.standard.type.BankingOptions;
 import com.bergerkiller.bukkit.tc.properties.standard.type.CollisionMobCategory;
 import com.bergerkiller.bukkit.tc.properties.standard.type.SignSkipOptions;
+import com.bergerkiller.bukkit.tc.properties.standard.type.ServicePlan;
 import com.bergerkiller.bukkit.tc.properties.standard.type.SlowdownMode;
 import com.bergerkiller.bukkit.tc.properties.standard.type.TrainNameFormat;
 import com.bergerkiller.bukkit.tc.properties.standard.type.WaitOptions;
@@ -60,6 +61,8 @@ public class TrainProperties extends TrainPropertiesStore implements IProperties
     private final FieldBackedStandardTrainProperty.TrainInternalDataHolder standardProperties = new FieldBackedStandardTrainProperty.TrainInternalDataHolder();
     private final ConfigurationNode config;
     protected String trainname;
+    private ServicePlan servicePlan = null;
+    private ServicePlan followingServicePlan = null;
 
     /**
      * Creates new TrainProperties<br>
@@ -157,266 +160,110 @@ public class TrainProperties extends TrainPropertiesStore implements IProperties
     
 
     public boolean addStation(String station, Boolean stop) {
-    	return addStation(station, stop, null);
+        return addStation(station, stop, null);
     }
-    
-    @SuppressWarnings("unchecked")    
-	public boolean addStation(String station, Boolean stop, String var) {
-    	List<String> stations;
-    	List<String> stops;
-    	List<String> vars;
-    	if(this.getConfig().get("Stations") == null || this.getConfig().get("Stations").equals("")) {
-    		stations = new ArrayList<String>();
-    	} else {
-    		stations = (List<String>) this.getConfig().get("Stations");
-    	}
-		if(stations == null ) {
-    		stations = new ArrayList<String>();
-    	}
-		if(this.getConfig().get("StationsV") == null || this.getConfig().get("StationsV").equals("") || this.getConfig().get("StationsV").toString() == this.getConfig().get("StationsV")) {
-    		vars = new ArrayList<String>();
-    	} else {
-    		vars = (List<String>) this.getConfig().get("StationsV");
-    	}
-		if(vars == null ) {
-    		vars = new ArrayList<String>();
-    	}
-		if(this.getConfig().get("Stops") == null || this.getConfig().get("Stops").equals("")) {
-    		stops = new ArrayList<String>();
-    	} else {
-    		stops = (List<String>) this.getConfig().get("Stops");
-    	}
-		if(stops == null ) {
-			stops = new ArrayList<String>();
-    	}
-    	if(station.equalsIgnoreCase("")) {
-    		station = null;
-    		this.getConfig().remove("Stations");
-    		this.getConfig().remove("Stops");
-    		this.getConfig().remove("StationsV");
-        	return true;
-    	}
-    	stations.add(station);
-    	if(stop) {
-    		stops.add(station);
-    	}
-    	if(var != null) {
-    		vars.add(var);
-    	}
-    	this.getConfig().set("Stations", stations);
-    	this.getConfig().set("Stops", stops);
-    	this.getConfig().set("StationsV", vars);
-    	return true;
+
+    /**
+     * Gets the plan of the service the train currently runs. The plan is read from
+     * configuration once, and is then kept until the configuration is reloaded.
+     *
+     * @return current service plan
+     */
+    public ServicePlan getServicePlan() {
+        ServicePlan plan = this.servicePlan;
+        if (plan == null) {
+            this.servicePlan = plan = ServicePlan.readFromConfig(this.getConfig(), "");
+        }
+        return plan;
     }
-    
-    @SuppressWarnings("unchecked")
-	public boolean addFStation(String station, Boolean stop, String var) {
-    	List<String> stations;
-    	List<String> stops;
-    	List<String> vars;
-    	if(this.getConfig().get("FStationsV") == null || this.getConfig().get("FStationsV").equals("")) {
-    		vars = new ArrayList<String>();
-    	} else {
-    		vars = (List<String>) this.getConfig().get("FStationsV");
-    	}
-		if(vars == null ) {
-    		vars = new ArrayList<String>();
-    	}
-    	if(this.getConfig().get("FStations") == null || this.getConfig().get("FStations").equals("")) {
-    		stations = new ArrayList<String>();
-    	} else {
-    		stations = (List<String>) this.getConfig().get("FStations");
-    	}
-		if(stations == null ) {
-    		stations = new ArrayList<String>();
-    	}
-		if(this.getConfig().get("FStops") == null || this.getConfig().get("FStops").equals("")) {
-    		stops = new ArrayList<String>();
-    	} else {
-    		stops = (List<String>) this.getConfig().get("FStops");
-    	}
-		if(stops == null ) {
-			stops = new ArrayList<String>();
-    	}
-    	if(station.equalsIgnoreCase("")) {
-    		station = null;
-    		this.getConfig().remove("FStations");
-    		this.getConfig().remove("FStops");
-    		this.getConfig().remove("FStationsV");
-        	return true;
-    	}
-    	stations.add(station);
-    	if(stop) {
-    		stops.add(station);
-    	}
-    	if(var != null) {
-    		vars.add(var);
-    	}
-    	this.getConfig().set("FStations", stations);
-    	this.getConfig().set("FStops", stops);
-    	this.getConfig().set("FStationsV", vars);
-    	return true;
+
+    /**
+     * Gets the plan of the service the train runs after reaching its current destination
+     *
+     * @return following service plan
+     * @see #getFDestination()
+     */
+    public ServicePlan getFollowingServicePlan() {
+        ServicePlan plan = this.followingServicePlan;
+        if (plan == null) {
+            this.followingServicePlan = plan = ServicePlan.readFromConfig(this.getConfig(), "F");
+        }
+        return plan;
     }
-    
+
+    private void setServicePlan(ServicePlan plan) {
+        this.servicePlan = plan;
+        if (plan == ServicePlan.NONE) {
+            ServicePlan.removeFromConfig(this.getConfig(), "");
+        } else {
+            plan.writeToConfig(this.getConfig(), "");
+        }
+    }
+
+    private void setFollowingServicePlan(ServicePlan plan) {
+        this.followingServicePlan = plan;
+        if (plan == ServicePlan.NONE) {
+            ServicePlan.removeFromConfig(this.getConfig(), "F");
+        } else {
+            plan.writeToConfig(this.getConfig(), "F");
+        }
+    }
+
+    public boolean addStation(String station, Boolean stop, String var) {
+        if (station.isEmpty()) {
+            setServicePlan(ServicePlan.NONE);
+        } else {
+            setServicePlan(getServicePlan().withStation(station, stop, var));
+        }
+        return true;
+    }
+
+    public boolean addFStation(String station, Boolean stop, String var) {
+        if (station.isEmpty()) {
+            setFollowingServicePlan(ServicePlan.NONE);
+        } else {
+            setFollowingServicePlan(getFollowingServicePlan().withStation(station, stop, var));
+        }
+        return true;
+    }
+
     public void loadNext() {
-    	if(this.getFDestination() != null) {
-    		this.setDestination(this.getFDestination());
-    		this.getConfig().set("Stops", this.getConfig().get("FStops"));
-    		this.getConfig().set("Stations", this.getConfig().get("FStations"));
-    		this.getConfig().set("RouteIndex", 0);
-    		this.getConfig().set("StationsV", this.getConfig().get("FStationsV"));
-    		this.getConfig().remove("FStops");
-    		this.getConfig().remove("FStations");
-    		this.getConfig().remove("FDest");
-    		this.getConfig().remove("FRouteIndex");
-    		this.getConfig().remove("FStationsV");
-    	}
+        if (this.getFDestination() != null) {
+            this.setDestination(this.getFDestination());
+            this.setServicePlan(this.getFollowingServicePlan());
+            this.getConfig().set("RouteIndex", 0);
+            this.setFollowingServicePlan(ServicePlan.NONE);
+            this.getConfig().remove("FDest");
+            this.getConfig().remove("FRouteIndex");
+        }
     }
-    
-    @SuppressWarnings("unchecked")
+
     public String getNextStation(Boolean stop) {
-    	List<String> stations;
-    	List<String> stops;
-    	if(this.getConfig().get("Stations") == null || this.getConfig().get("Stations").equals("") ) {
-    		stations = new ArrayList<String>();
-    	} else {
-    		stations = (List<String>) this.getConfig().get("Stations");
-    	}
-		if(stations == null ) {
-    		stations = new ArrayList<String>();
-    	}
-		if(this.getConfig().get("Stops") == null || this.getConfig().get("Stops").equals("")) {
-    		stops = new ArrayList<String>();
-    	} else {
-    		stops = (List<String>) this.getConfig().get("Stops");
-    	}
-		if(stops == null ) {
-			stops = new ArrayList<String>();
-    	}
-		if(stations.toArray().length < 1) return null;
-		if(stops.toArray().length < 1) return null;
-    	return stop == true ? (String) stops.toArray()[0] : (String) stations.toArray()[0];
+        return getServicePlan().getNext(stop);
     }
-    
-    @SuppressWarnings("unchecked")
+
     public String getNextStationVar(Boolean stop) {
-    	List<String> stations;
-    	List<String> stops;
-    	List<String> vars;
-    	if(this.getConfig().get("StationsV") == null || this.getConfig().get("StationsV").equals("")) {
-    		vars = new ArrayList<String>();
-    	} else {
-    		vars = (List<String>) this.getConfig().get("StationsV");
-    	}
-    	if(this.getConfig().get("Stations") == null || this.getConfig().get("Stations").equals("") ) {
-    		stations = new ArrayList<String>();
-    	} else {
-    		stations = (List<String>) this.getConfig().get("Stations");
-    	}
-		if(stations == null ) {
-    		stations = new ArrayList<String>();
-    	}
-		if(this.getConfig().get("Stops") == null || this.getConfig().get("Stops").equals("")) {
-    		stops = new ArrayList<String>();
-    	} else {
-    		stops = (List<String>) this.getConfig().get("Stops");
-    	}
-		if(stops == null ) {
-			stops = new ArrayList<String>();
-    	}
-		if(stations.toArray().length < 1) return null;
-		if(stops.toArray().length < 1) return null;
-    	return vars.get(0);
+        return getServicePlan().getNextVar();
     }
-    
-    @SuppressWarnings("unchecked")
-	public Boolean checkNextStation() {
-    	List<String> stations;
-    	List<String> stops;
-    	if(this.getConfig().get("Stations") == null || this.getConfig().get("Stations").equals("")) {
-    		stations = new ArrayList<String>();
-    	} else {
-    		stations = (List<String>) this.getConfig().get("Stations");
-    	}
-		if(stations == null ) {
-    		stations = new ArrayList<String>();
-    	}
-		if(this.getConfig().get("Stops") == null || this.getConfig().get("Stops").equals("")) {
-    		stops = new ArrayList<String>();
-    	} else {
-    		stops = (List<String>) this.getConfig().get("Stops");
-    	}
-		if(stops == null ) {
-			stops = new ArrayList<String>();
-    	}
-		if(stops.toArray().length < 1) return null;
-		return stops.contains(stations.toArray()[0]);
+
+    public Boolean checkNextStation() {
+        Boolean skipped = getServicePlan().isNextStationSkipped();
+        return (skipped == null) ? null : !skipped;
     }
-    
-    
-    @SuppressWarnings("unchecked")
+
     public String getTerminus() {
-    	List<String> stations;
-    	if(this.getConfig().get("Stations") == null || this.getConfig().get("Stations").equals("")) {
-    		stations = new ArrayList<String>();
-    	} else {
-    		stations = (List<String>) this.getConfig().get("Stations");
-    	}
-		if(stations == null ) {
-    		stations = new ArrayList<String>();
-    	}
-    	return (String) stations.toArray()[stations.toArray().length-1];
+        return getServicePlan().getTerminus();
     }
-    
-    @SuppressWarnings("unchecked")
+
     public boolean stop(String station) {
-    	List<String> stations;
-    	List<String> stops;
-    	List<String> vars;
-    	if(this.getConfig().get("StationsV") == null || this.getConfig().get("StationsV").equals("")) {
-    		vars = new ArrayList<String>();
-    	} else {
-    		vars = (List<String>) this.getConfig().get("StationsV");
-    	}
-    	if(this.getConfig().get("Stations") == null || this.getConfig().get("Stations").equals("")) {
-    		stations = new ArrayList<String>();
-    	} else {
-    		stations = (List<String>) this.getConfig().get("Stations");
-    	}
-		if(stations == null ) {
-    		stations = new ArrayList<String>();
-    	}
-		if(this.getConfig().get("Stops") == null || this.getConfig().get("Stops").equals("")) {
-    		stops = new ArrayList<String>();
-    	} else {
-    		stops = (List<String>) this.getConfig().get("Stops");
-    	}
-		if(stops == null ) {
-			stops = new ArrayList<String>();
-    	}
-		List<String> stations2 = new ArrayList<String>();
-		List<String> stops2 = new ArrayList<String>();
-		List<String> vars2 = new ArrayList<String>();
-		int j = stops.size() - 1;
-		for(int i = (stations.size() - 1); i > -1; i--) {
-			if(!stations.toArray()[i].toString().equalsIgnoreCase(station)) {
-				stations2.add(0, (String) stations.toArray()[i]);
-				if(stops.contains(stations.toArray()[i])) {
-					stops2.add(0, (String) stations.toArray()[i]);
-					vars2.add(0, (String) vars.toArray()[j]);
-					j--;
-				}
-				continue;
-			}
-			this.getConfig().set("Stations", stations2);
-			this.getConfig().set("StationsV", vars2);
-			this.getConfig().set("Stops", stops2);
-			break;
-		}
-    	return false;
+        ServicePlan plan = getServicePlan();
+        ServicePlan remaining = plan.afterStation(station);
+        if (remaining != plan) {
+            setServicePlan(remaining);
+        }
+        return false;
     }
-    
-    
+
     public int getDestIndex() {
     	if(this.getConfig().get("RouteIndex") == null) return 1;
     	return (int) this.getConfig().get("RouteIndex");
@@ -434,27 +281,8 @@ public class TrainProperties extends TrainPropertiesStore implements IProperties
     	this.getConfig().set("FRouteIndex", i);;
     }
     
-	@SuppressWarnings("unchecked")
-	public List<String> getStations() {
-		List<String> stations;
-    	List<String> stops;
-    	if(this.getConfig().get("Stations").equals("")) {
-    		stations = new ArrayList<String>();
-    	} else {
-    		stations = (List<String>) this.getConfig().get("Stations");
-    	}
-		if(stations == null ) {
-    		stations = new ArrayList<String>();
-    	}
-		if(this.getConfig().get("Stops") == null || this.getConfig().get("Stops").equals("")) {
-    		stops = new ArrayList<String>();
-    	} else {
-    		stops = (List<String>) this.getConfig().get("Stops");
-    	}
-		if(stops == null ) {
-			stops = new ArrayList<String>();
-    	}
-        return stops;
+    public List<String> getStations() {
+        return getServicePlan().stops();
     }
 
     @Override
@@ -1708,6 +1536,10 @@ public class TrainProperties extends TrainPropertiesStore implements IProperties
     }
 
     protected void onConfigurationChanged(boolean cartsChanged) {
+        // Service plans are read from the configuration again when next used
+        this.servicePlan = null;
+        this.followingServicePlan = null;
+
         // Refresh registered IProperties
         // All below should eventually become IProperties, which is when this function
         // can be removed!
@@ -13,6 +13,7 @@ import com.bergerkiller.bukkit.tc.properties.api.IPropertyRegistry;
 import com.bergerkiller.bukkit.tc.properties.standard.StandardProperties;
 import com.bergerkiller.bukkit.tc.properties.standard.type.CollisionMobCategory;
 import com.bergerkiller.bukkit.tc.properties.standard.type.TrainNameFormat;
+import com.bergerkiller.bukkit.tc.storage.BackgroundSaveWriter;
 import com.bergerkiller.bukkit.tc.storage.OfflineGroupManager;
 
 import org.bukkit.entity.Player;
@@ -519,23 +520,29 @@ public class TrainPropertiesStore extends LinkedHashSet<CartProperties> {
     }
 
     /**
-     * Saves all Train Properties to disk
+     * Takes a snapshot of all Train Properties, and has it written to disk on the
+     * background thread of the save writer.
+     *
+     * @param writer Save writer
+     * @param autosave Whether this is an autosave, which skips saving if nothing changed
      */
-    public static void save(boolean autosave) {
-        if (autosave && !hasChanges) {
-            return;
-        }
+    public static void save(BackgroundSaveWriter writer, boolean autosave) {
+        writer.submit("TrainProperties", () -> {
+            if (autosave && !hasChanges) {
+                return null;
+            }
 
-        // Delete properties from the configuration when the train no longer exists
-        for (TrainProperties prop : trainProperties.values()) {
-            if (!prop.hasHolder() && !OfflineGroupManager.contains(prop.getTrainName())) {
-                config.remove(prop.getTrainName());
-                continue;
+            // Delete properties from the configuration when the train no longer exists
+            for (TrainProperties prop : trainProperties.values()) {
+                if (!prop.hasHolder() && !OfflineGroupManager.contains(prop.getTrainName())) {
+                    config.remove(prop.getTrainName());
+                }
             }
-        }
 
-        config.save();
-        hasChanges = false;
+            hasChanges = false;
+            return BackgroundSaveWriter.snapshotYaml(config,
+                    new FileConfiguration(writer.getPlugin(), propertiesFile));
+        });
     }
 
     /**
@@ -71,11 +71,12 @@ public final class StationProperty implements ICartProperty<String> {
             final CommandSender sender,
             final TrainProperties properties
     ) {
-        if (properties.getStations() != null && properties.getStations().toArray().length > 0) {
+        List<String> stops = properties.getStations();
+        if (!stops.isEmpty()) {
         	String stations = "";
-        	for(String s : properties.getStations()) {
-        		stations = properties.getStations().contains(s) ? stations + ChatColor.GREEN + s + ChatColor.WHITE : stations + ChatColor.GREEN + s + ChatColor.WHITE;
-        		if(properties.getStations().indexOf(s) < properties.getStations().toArray().length - 2) {
+        	for(String s : stops) {
+        		stations = stations + ChatColor.GREEN + s + ChatColor.WHITE;
+        		if(stops.indexOf(s) < stops.size() - 2) {
         			stations = stations + ", ";
         		} else {
         			stations = stations + ".";
@@ -0,0 +1,238 @@
+package com.bergerkiller.bukkit.tc.properties.standard.type;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.bergerkiller.bukkit.common.config.ConfigurationNode;
+
+/**
+ * Immutable list of stations a train passes on its service, and the stations
+ * it stops at. Stations the train does not stop at are skipped. For every stop
+ * a variable name can be stored, which is used to display arrival times.<br>
+ * <br>
+ * Trains can have a second service plan for the service they run after reaching
+ * their destination, which is stored with a prefix in the configuration.
+ */
+public final class ServicePlan {
+    public static final ServicePlan NONE = new ServicePlan(Collections.emptyList(), Collections.emptyList(), Collections.emptyList());
+
+    private final List<String> stations;
+    private final List<String> stops;
+    private final List<String> vars;
+    private final Set<String> stopSet;
+
+    private ServicePlan(List<String> stations, List<String> stops, List<String> vars) {
+        this.stations = stations;
+        this.stops = stops;
+        this.vars = vars;
+        this.stopSet = new HashSet<String>(stops);
+    }
+
+    /**
+     * Gets all stations of this service, including skipped ones, in the order they are passed
+     *
+     * @return unmodifiable list of stations
+     */
+    public List<String> stations() {
+        return this.stations;
+    }
+
+    /**
+     * Gets the stations of this service the train stops at, in the order they are passed
+     *
+     * @return unmodifiable list of stops
+     */
+    public List<String> stops() {
+        return this.stops;
+    }
+
+    /**
+     * Gets the variables stored for the stops of this service
+     *
+     * @return unmodifiable list of variable names
+     */
+    public List<String> vars() {
+        return this.vars;
+    }
+
+    /**
+     * Gets whether the train stops at a station
+     *
+     * @param station Name of the station
+     * @return True if the station is one of the stops
+     */
+    public boolean isStop(String station) {
+        return this.stopSet.contains(station);
+    }
+
+    /**
+     * Gets whether the train skips the next station it passes
+     *
+     * @return True if the next station is skipped or there is no next station, False if
+     *         the train stops there, null if this service has no stops
+     */
+    public Boolean isNextStationSkipped() {
+        if (this.stops.isEmpty()) {
+            return null;
+        }
+        return this.stations.isEmpty() || !this.stopSet.contains(this.stations.get(0));
+    }
+
+    /**
+     * Gets the next station or stop of the train
+     *
+     * @param stop True to get the next stop, False to get the next station, which can be skipped
+     * @return next station or stop, null if this service has no stations or stops left
+     */
+    public String getNext(boolean stop) {
+        if (this.stations.isEmpty() || this.stops.isEmpty()) {
+            return null;
+        }
+        return stop ? this.stops.get(0) : this.stations.get(0);
+    }
+
+    /**
+     * Gets the stop after the next stop of the train
+     *
+     * @return stop after the next stop, null if there is none
+     */
+    public String getAfterNextStop() {
+        return (this.stops.size() < 2) ? null : this.stops.get(1);
+    }
+
+    /**
+     * Gets the variable stored for the next stop of the train
+     *
+     * @return variable name, null if none is stored or this service has no stations or stops left
+     */
+    public String getNextVar() {
+        if (this.stations.isEmpty() || this.stops.isEmpty() || this.vars.isEmpty()) {
+            return null;
+        }
+        return this.vars.get(0);
+    }
+
+    /**
+     * Gets the last station of this service
+     *
+     * @return last station, null if this service has no stations
+     */
+    public String getTerminus() {
+        return this.stations.isEmpty() ? null : this.stations.get(this.stations.size() - 1);
+    }
+
+    /**
+     * Adds a station to the end of this service
+     *
+     * @param station Name of the station
+     * @param stop Whether the train stops at the station
+     * @param var Variable name to store for the stop, null to store none
+     * @return updated service plan
+     */
+    public ServicePlan withStation(String station, boolean stop, String var) {
+        List<String> newStations = new ArrayList<String>(this.stations);
+        newStations.add(station);
+        List<String> newStops = this.stops;
+        if (stop) {
+            newStops = new ArrayList<String>(this.stops);
+            newStops.add(station);
+        }
+        List<String> newVars = this.vars;
+        if (var != null) {
+            newVars = new ArrayList<String>(this.vars);
+            newVars.add(var);
+        }
+        return of(newStations, newStops, newVars);
+    }
+
+    /**
+     * Removes a station and all stations before it from this service, as happens
+     * when the train leaves the station. If the station occurs more than once,
+     * the last occurrence is used.
+     *
+     * @param station Name of the station, case-insensitive
+     * @return updated service plan, or this same plan if the station is not part of it
+     */
+    public ServicePlan afterStation(String station) {
+        for (int i = this.stations.size() - 1; i >= 0; i--) {
+            if (this.stations.get(i).equalsIgnoreCase(station)) {
+                // Stops and their variables that remain are those at the end of the lists
+                List<String> newStations = this.stations.subList(i + 1, this.stations.size());
+                List<String> newStops = new ArrayList<String>();
+                for (String remaining : newStations) {
+                    if (this.stopSet.contains(remaining)) {
+                        newStops.add(remaining);
+                    }
+                }
+                int varsEnd = Math.min(this.stops.size(), this.vars.size());
+                int varsStart = Math.min(varsEnd, Math.max(0, this.stops.size() - newStops.size()));
+                return of(newStations, newStops, this.vars.subList(varsStart, varsEnd));
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Reads a service plan from configuration
+     *
+     * @param config Configuration to read from
+     * @param prefix Prefix of the keys to read, empty for the current service
+     * @return service plan
+     */
+    public static ServicePlan readFromConfig(ConfigurationNode config, String prefix) {
+        List<String> stations = readList(config, prefix + "Stations");
+        List<String> stops = readList(config, prefix + "Stops");
+        List<String> vars = readList(config, prefix + "StationsV");
+        if (stations.isEmpty() && stops.isEmpty() && vars.isEmpty()) {
+            return NONE;
+        }
+        return of(stations, stops, vars);
+    }
+
+    /**
+     * Writes this service plan to configuration
+     *
+     * @param config Configuration to write to
+     * @param prefix Prefix of the keys to write, empty for the current service
+     */
+    public void writeToConfig(ConfigurationNode config, String prefix) {
+        config.set(prefix + "Stations", new ArrayList<String>(this.stations));
+        config.set(prefix + "Stops", new ArrayList<String>(this.stops));
+        config.set(prefix + "StationsV", new ArrayList<String>(this.vars));
+    }
+
+    /**
+     * Removes a service plan from configuration
+     *
+     * @param config Configuration to remove from
+     * @param prefix Prefix of the keys to remove, empty for the current service
+     */
+    public static void removeFromConfig(ConfigurationNode config, String prefix) {
+        config.remove(prefix + "Stations");
+        config.remove(prefix + "Stops");
+        config.remove(prefix + "StationsV");
+    }
+
+    private static ServicePlan of(List<String> stations, List<String> stops, List<String> vars) {
+        return new ServicePlan(Collections.unmodifiableList(new ArrayList<String>(stations)),
+                               Collections.unmodifiableList(new ArrayList<String>(stops)),
+                               Collections.unmodifiableList(new ArrayList<String>(vars)));
+    }
+
+    private static List<String> readList(ConfigurationNode config, String key) {
+        Object value = config.get(key);
+        if (!(value instanceof List)) {
+            return Collections.emptyList();
+        }
+        List<String> result = new ArrayList<String>(((List<?>) value).size());
+        for (Object item : (List<?>) value) {
+            if (item != null) {
+                result.add(item.toString());
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,177 @@
+package com.bergerkiller.bukkit.tc.rails;
+
+import java.util.Arrays;
+
+import com.bergerkiller.bukkit.common.utils.MathUtil;
+import com.bergerkiller.bukkit.tc.utils.LongObjectOpenHashMap;
+
+/**
+ * Tracks the tick at which blocks last changed in the 16x16x16 chunk sections
+ * of a world, as reported by block events. Information cached about rails can
+ * then be trusted for as long as none of the sections it depends on changed.<br>
+ * <br>
+ * Changes older than a timeout are forgotten, so information depending on them
+ * must be verified again after that timeout regardless.
+ * This tracker is not multi-thread safe and all access must be done from the main
+ * Bukkit thread.
+ */
+final class BlockChangeTracker {
+    private static final long[] NO_SECTIONS = new long[0];
+    private final LongObjectOpenHashMap<Change> sections = new LongObjectOpenHashMap<>();
+    private final LongObjectOpenHashMap<Change> chunks = new LongObjectOpenHashMap<>();
+
+    /**
+     * Marks the sections of a block and the blocks around it as changed at the tick
+     * specified. The blocks around it are included because events such as block physics
+     * are fired for the neighbours of the block that actually changed.
+     *
+     * @param x Block X-coordinate
+     * @param y Block Y-coordinate
+     * @param z Block Z-coordinate
+     * @param tick Tick of the change
+     */
+    public void markBlock(int x, int y, int z, int tick) {
+        for (int sx = (x - 1) >> 4; sx <= ((x + 1) >> 4); sx++) {
+            for (int sy = (y - 1) >> 4; sy <= ((y + 1) >> 4); sy++) {
+                for (int sz = (z - 1) >> 4; sz <= ((z + 1) >> 4); sz++) {
+                    mark(this.sections, sectionKey(sx, sy, sz), tick);
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks all sections of a chunk as changed at the tick specified
+     *
+     * @param cx Chunk X-coordinate
+     * @param cz Chunk Z-coordinate
+     * @param tick Tick of the change
+     */
+    public void markChunk(int cx, int cz, int tick) {
+        mark(this.chunks, MathUtil.longHashToLong(cx, cz), tick);
+    }
+
+    private static void mark(LongObjectOpenHashMap<Change> changes, long key, int tick) {
+        Change change = changes.get(key);
+        if (change == null) {
+            changes.put(key, new Change(key, tick));
+        } else {
+            change.tick = tick;
+        }
+    }
+
+    /**
+     * Checks whether none of the sections specified changed at or after a tick
+     *
+     * @param sectionKeys Keys of the sections, as returned by {@link #addSectionsAround(long[], int, int, int)}
+     * @param tick Tick since which to check for changes
+     * @return True if none of the sections changed
+     */
+    public boolean isUnchangedSince(long[] sectionKeys, int tick) {
+        boolean checkSections = !this.sections.isEmpty();
+        boolean checkChunks = !this.chunks.isEmpty();
+        if (!checkSections && !checkChunks) {
+            return true;
+        }
+        for (long key : sectionKeys) {
+            if (checkSections) {
+                Change change = this.sections.get(key);
+                if (change != null && change.tick >= tick) {
+                    return false;
+                }
+            }
+            if (checkChunks) {
+                Change change = this.chunks.get(MathUtil.longHashToLong(sectionX(key), sectionZ(key)));
+                if (change != null && change.tick >= tick) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Forgets all changes that happened before a tick
+     *
+     * @param tick Tick before which to forget changes
+     */
+    public void cleanup(int tick) {
+        cleanup(this.sections, tick);
+        cleanup(this.chunks, tick);
+    }
+
+    private static void cleanup(LongObjectOpenHashMap<Change> changes, int tick) {
+        if (!changes.isEmpty()) {
+            for (Change change : changes.values()) {
+                if (change.tick < tick) {
+                    changes.remove(change.key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets all changes
+     */
+    public void clear() {
+        this.sections.clear();
+        this.chunks.clear();
+    }
+
+    /**
+     * Adds the keys of the sections a block and the blocks around it are in.
+     * Blocks placed next to the block also change a section in the result.
+     *
+     * @param sectionKeys Section keys added so far, null if none
+     * @param x Block X-coordinate
+     * @param y Block Y-coordinate
+     * @param z Block Z-coordinate
+     * @return section keys with the sections of this block added
+     */
+    public static long[] addSectionsAround(long[] sectionKeys, int x, int y, int z) {
+        if (sectionKeys == null) {
+            sectionKeys = NO_SECTIONS;
+        }
+        for (int sx = (x - 1) >> 4; sx <= ((x + 1) >> 4); sx++) {
+            for (int sy = (y - 1) >> 4; sy <= ((y + 1) >> 4); sy++) {
+                for (int sz = (z - 1) >> 4; sz <= ((z + 1) >> 4); sz++) {
+                    long key = sectionKey(sx, sy, sz);
+                    boolean found = false;
+                    for (long existing : sectionKeys) {
+                        if (existing == key) {
+                            found = true;
+                            break;
+                        }
+                    }
+                    if (!found) {
+                        sectionKeys = Arrays.copyOf(sectionKeys, sectionKeys.length + 1);
+                        sectionKeys[sectionKeys.length - 1] = key;
+                    }
+                }
+            }
+        }
+        return sectionKeys;
+    }
+
+    private static long sectionKey(int sx, int sy, int sz) {
+        return (((long) sx & 0x3FFFFFFL) << 38) | (((long) sz & 0x3FFFFFFL) << 12) | ((long) sy & 0xFFFL);
+    }
+
+    private static int sectionX(long key) {
+        return (int) (key >> 38);
+    }
+
+    private static int sectionZ(long key) {
+        return (int) (key << 26 >> 38);
+    }
+
+    private static final class Change {
+        public final long key;
+        public int tick;
+
+        public Change(long key, int tick) {
+            this.key = key;
+            this.tick = tick;
+        }
+    }
+}
@@ -52,6 +52,8 @@ public final class RailLookup {
     static int lifeTimerAtPosition = LIFE_TIMER_START;
     /** Stores the (every tick incrementing) future tick when cached information expires */
     static int verifyTimer = LIFE_TIMER_START;
+    /** This is incremented every tick and is never reset, used to track when blocks changed */
+    static int blockChangeTick = LIFE_TIMER_START;
 
     // Constant arrays used for initialization checks
     static final DetectorRegion[] NO_DETECTOR_REGIONS = new DetectorRegion[0];
@@ -62,6 +64,12 @@ public final class RailLookup {
     // Stores all WorldRailLookup instances that are in use
     private static final IdentityHashMap<World, WorldRailLookupImpl> byWorld = new IdentityHashMap<>();
 
+    // Statistics of the use of the cache of all worlds
+    static long cacheHits = 0;
+    static long cacheMisses = 0;
+    static long cacheEvictions = 0;
+    static long cacheExpiryChecks = 0;
+
     /**
      * Gets the World-specific Rail Lookup. This is more efficient to use than this RailLookup's
      * static methods, as it eliminates an unneeded by-world lookup call.
@@ -230,6 +238,62 @@ public final class RailLookup {
         }
         ++lifeTimerAtPosition;
         verifyTimer = ++lifeTimer + TCConfig.cacheVerificationTicks;
+
+        // Forget block changes older than the time cached information is trusted for
+        if ((++blockChangeTick % TCConfig.cacheEventVerificationTicks) == 0) {
+            int blockChangeTimeout = blockChangeTick - TCConfig.cacheEventVerificationTicks;
+            for (WorldRailLookupImpl lookup : byWorld.values()) {
+                lookup.cleanupBlockChanges(blockChangeTimeout);
+            }
+        }
+    }
+
+    /**
+     * Notifies that a block changed, so that cached rails and signs near the block are
+     * verified again the next time they are accessed. Only has effect when
+     * {@link TCConfig#cacheEventInvalidation} is enabled.
+     *
+     * @param block Block that changed
+     */
+    public static void notifyBlockChanged(Block block) {
+        if (TCConfig.cacheEventInvalidation) {
+            WorldRailLookupImpl lookup = byWorld.get(block.getWorld());
+            if (lookup != null) {
+                lookup.notifyBlockChanged(block.getX(), block.getY(), block.getZ());
+            }
+        }
+    }
+
+    /**
+     * Notifies that blocks in a chunk changed, so that all cached rails and signs in the
+     * chunk are verified again the next time they are accessed. Only has effect when
+     * {@link TCConfig#cacheEventInvalidation} is enabled.
+     *
+     * @param world World of the chunk
+     * @param cx Chunk X-coordinate
+     * @param cz Chunk Z-coordinate
+     */
+    public static void notifyChunkChanged(World world, int cx, int cz) {
+        if (TCConfig.cacheEventInvalidation) {
+            WorldRailLookupImpl lookup = byWorld.get(world);
+            if (lookup != null) {
+                lookup.notifyChunkChanged(cx, cz);
+            }
+        }
+    }
+
+    /**
+     * Gets statistics about the use of the rail cache of all worlds since the
+     * server started
+     *
+     * @return cache statistics
+     */
+    public static CacheStatistics getCacheStatistics() {
+        int cachedPositions = 0;
+        for (WorldRailLookupImpl lookup : byWorld.values()) {
+            cachedPositions += lookup.getCacheSize();
+        }
+        return new CacheStatistics(cachedPositions, cacheHits, cacheMisses, cacheEvictions, cacheExpiryChecks);
     }
 
     /**
@@ -387,6 +451,72 @@ public final class RailLookup {
         }
     }
 
+    /**
+     * Statistics about the use of the rail cache
+     */
+    public static final class CacheStatistics {
+        private final int cachedPositions;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expiryChecks;
+
+        private CacheStatistics(int cachedPositions, long hits, long misses, long evictions, long expiryChecks) {
+            this.cachedPositions = cachedPositions;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expiryChecks = expiryChecks;
+        }
+
+        /**
+         * Gets the number of block positions currently stored in the cache
+         *
+         * @return number of cached block positions
+         */
+        public int getCachedPositions() {
+            return this.cachedPositions;
+        }
+
+        /**
+         * Gets the number of times information was found in the cache
+         *
+         * @return number of cache hits
+         */
+        public long getHits() {
+            return this.hits;
+        }
+
+        /**
+         * Gets the number of times information was not found in the cache
+         *
+         * @return number of cache misses
+         */
+        public long getMisses() {
+            return this.misses;
+        }
+
+        /**
+         * Gets the number of block positions removed from the cache, because they
+         * were not accessed for a while or the cache was recalculated
+         *
+         * @return number of evictions
+         */
+        public long getEvictions() {
+            return this.evictions;
+        }
+
+        /**
+         * Gets the number of times a cached block position was checked for whether it
+         * expired
+         *
+         * @return number of expiry checks
+         */
+        public long getExpiryChecks() {
+            return this.expiryChecks;
+        }
+    }
+
     /**
      * Exception thrown by the lookup cache if a rail type is specified that was not
      * registered inside the RailType lookup table. This might happen when a rail type
@@ -569,6 +699,18 @@ public final class RailLookup {
             }
         }
 
+        /**
+         * Sets this TrackedSign to use a particular SignAction, instead of matching one
+         * from scratch the next time {@link #getAction()} is called. The action must
+         * have been matched against the same sign text contents.
+         *
+         * @param action SignAction to cache, null if the sign has no action
+         */
+        public void setCachedAction(SignAction action) {
+            this.cachedActionSet = true;
+            this.cachedAction = action;
+        }
+
         /**
          * Gets the RailPiece rail that activates this sign
          *
@@ -0,0 +1,240 @@
+package com.bergerkiller.bukkit.tc.rails;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.bergerkiller.bukkit.common.bases.IntVector3;
+import com.bergerkiller.bukkit.tc.TCConfig;
+import com.bergerkiller.bukkit.tc.controller.components.RailPath;
+import com.bergerkiller.bukkit.tc.controller.components.RailPiece;
+import com.bergerkiller.bukkit.tc.controller.components.RailState;
+import com.bergerkiller.bukkit.tc.rails.logic.RailLogic;
+import com.bergerkiller.bukkit.tc.rails.type.RailTypeActivator;
+import com.bergerkiller.bukkit.tc.rails.type.RailTypeCrossing;
+import com.bergerkiller.bukkit.tc.rails.type.RailTypeDetector;
+import com.bergerkiller.bukkit.tc.rails.type.RailTypePowered;
+import com.bergerkiller.bukkit.tc.rails.type.RailTypeRegular;
+import com.bergerkiller.bukkit.tc.rails.type.RailTypeVertical;
+import com.bergerkiller.bukkit.tc.utils.TrackWalkingPoint;
+
+/**
+ * Caches the result of walking from the start of one rail to the start of the
+ * next rail. Trains that look ahead on the track for obstacles walk the same
+ * rails many times per tick, and with these segments the walk from one rail to
+ * the next only has to be computed once.<br>
+ * <br>
+ * Segments are only valid for the tick they were computed in, and are discarded
+ * at the same time the {@link RailLookup} cache re-verifies its information.
+ * Within the tick a segment is walked again when a block changed near its rail,
+ * as reported to {@link RailLookup#notifyBlockChanged(org.bukkit.block.Block)}.
+ * Because of this, segments are only used when {@link TCConfig#cacheEventInvalidation}
+ * is enabled.<br>
+ * <br>
+ * Segments do not store train-specific path prediction, and should only be used
+ * when walking the track without following a predicted path. Only rail types of
+ * which the rail logic does not depend on the member on the rails are cached,
+ * other rail types are always walked by the caller.
+ * This cache is not multi-thread safe and all access must be done from the main
+ * Bukkit thread.
+ */
+public final class TrackSegmentCache {
+    private static final Map<Key, Segment> segments = new HashMap<>();
+    private static int segmentsLifeTimer = RailLookup.LIFE_TIMER_DELETED;
+    private static final Set<Class<?>> cachedRailTypes = new HashSet<>(Arrays.asList(
+            RailTypeRegular.class, RailTypeDetector.class, RailTypeActivator.class,
+            RailTypePowered.class, RailTypeCrossing.class, RailTypeVertical.class));
+
+    private TrackSegmentCache() {
+    }
+
+    /**
+     * Finds or creates the segment that starts at the rail state specified. The rail
+     * state must be at the start of a rail, as is the case after moving a
+     * {@link TrackWalkingPoint} using {@link TrackWalkingPoint#moveFull()}.
+     *
+     * @param state Rail state at the start of the rail
+     * @param logic Rail logic loaded for this state
+     * @return segment starting at this state, or null if the rail can not be cached
+     */
+    public static Segment find(RailState state, RailLogic logic) {
+        if (!TCConfig.cacheEventInvalidation ||
+            !cachedRailTypes.contains(state.railType().getClass()) ||
+            !(state.railPiece().railLookup() instanceof WorldRailLookupImpl)
+        ) {
+            return null;
+        }
+
+        if (segmentsLifeTimer != RailLookup.lifeTimer) {
+            segmentsLifeTimer = RailLookup.lifeTimer;
+            segments.clear();
+        }
+
+        Key key = new Key(state);
+        Segment segment = segments.get(key);
+        if (segment == null || !segment.isValid()) {
+            segment = new Segment(state, logic);
+            segments.put(key, segment);
+        }
+        return segment;
+    }
+
+    /**
+     * Gets the number of segments computed this tick
+     *
+     * @return number of segments
+     */
+    public static int getSegmentCount() {
+        return (segmentsLifeTimer == RailLookup.lifeTimer) ? segments.size() : 0;
+    }
+
+    /**
+     * The walk over a single rail, from the position the rail was entered
+     * to the start of the next rail.
+     */
+    public static final class Segment {
+        private final RailState state;
+        private final RailLogic logic;
+        private final WorldRailLookupImpl railLookup;
+        private final long[] sections;
+        private final int blockChangeTick;
+        private final int lifeTimer;
+        private Segment next;
+        private double length;
+
+        private Segment(RailState state, RailLogic logic) {
+            IntVector3 railPos = state.railPiece().blockPosition();
+            this.state = state.clone();
+            this.state.setMember(null);
+            this.logic = logic;
+            this.railLookup = (WorldRailLookupImpl) state.railPiece().railLookup();
+            this.sections = BlockChangeTracker.addSectionsAround(null, railPos.x, railPos.y, railPos.z);
+            this.blockChangeTick = RailLookup.blockChangeTick;
+            this.lifeTimer = RailLookup.lifeTimer;
+            this.next = null;
+            this.length = 0.0;
+        }
+
+        /**
+         * Gets the rail state at the start of this segment. Should not be modified.
+         *
+         * @return rail state
+         */
+        public RailState state() {
+            return this.state;
+        }
+
+        /**
+         * Gets the rail logic of the rail of this segment
+         *
+         * @return rail logic
+         */
+        public RailLogic logic() {
+            return this.logic;
+        }
+
+        /**
+         * Gets the rail path of the rail of this segment
+         *
+         * @return rail path
+         */
+        public RailPath path() {
+            return this.logic.getPath();
+        }
+
+        /**
+         * Gets the rail piece of this segment
+         *
+         * @return rail piece
+         */
+        public RailPiece railPiece() {
+            return this.state.railPiece();
+        }
+
+        /**
+         * Gets the distance from the start of this segment to the start of the
+         * {@link #next()} segment
+         *
+         * @return segment length
+         */
+        public double length() {
+            return this.length;
+        }
+
+        /**
+         * Gets whether this segment was computed this tick, and no blocks
+         * changed near the rail block since.
+         *
+         * @return True if this segment is valid
+         */
+        public boolean isValid() {
+            return this.lifeTimer == RailLookup.lifeTimer &&
+                   this.railLookup.isUnchangedSince(this.sections, this.blockChangeTick);
+        }
+
+        /**
+         * Gets or computes the segment that follows this one. Returns null if the
+         * track ends here, or the walk can not be cached. The caller should then
+         * walk the track on its own to find out why.
+         *
+         * @return next segment, or null if there is none
+         */
+        public Segment next() {
+            Segment next = this.next;
+            if (next != null && next.isValid()) {
+                return next;
+            }
+
+            TrackWalkingPoint walker = new TrackWalkingPoint(this.state);
+            walker.skipFirst();
+            if (!walker.moveFull() || walker.moved <= 1e-10) {
+                this.next = null;
+                return null; // End of the track, or stuck on the same position
+            }
+
+            this.length = walker.moved;
+            this.next = next = find(walker.state, walker.currentRailLogic);
+            return next;
+        }
+    }
+
+    private static final class Key {
+        private final RailPiece railPiece;
+        private final double posX, posY, posZ;
+        private final double motX, motY, motZ;
+        private final int hashCode;
+
+        public Key(RailState state) {
+            RailPath.Position position = state.position();
+            this.railPiece = state.railPiece();
+            this.posX = position.posX;
+            this.posY = position.posY;
+            this.posZ = position.posZ;
+            this.motX = position.motX;
+            this.motY = position.motY;
+            this.motZ = position.motZ;
+            this.hashCode = 31 * this.railPiece.hashCode() + Double.hashCode(this.posX + this.posY + this.posZ);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            } else if (o instanceof Key) {
+                Key other = (Key) o;
+                return this.posX == other.posX && this.posY == other.posY && this.posZ == other.posZ &&
+                       this.motX == other.motX && this.motY == other.motY && this.motZ == other.motZ &&
+                       this.railPiece.equals(other.railPiece);
+            } else {
+                return false;
+            }
+        }
+    }
+}
@@ -6,11 +6,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.logging.Level;
@@ -28,6 +25,7 @@ import com.bergerkiller.bukkit.common.utils.BlockUtil;
 import com.bergerkiller.bukkit.common.utils.MathUtil;
 import com.bergerkiller.bukkit.common.utils.WorldUtil;
 import com.bergerkiller.bukkit.common.wrappers.BlockData;
+import com.bergerkiller.bukkit.tc.TCConfig;
 import com.bergerkiller.bukkit.tc.TCTimings;
 import com.bergerkiller.bukkit.tc.TrainCarts;
 import com.bergerkiller.bukkit.tc.controller.MinecartMember;
@@ -40,6 +38,7 @@ import com.bergerkiller.bukkit.tc.rails.RailLookup.TrackedSign;
 import com.bergerkiller.bukkit.tc.rails.type.RailType;
 import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZoneCache;
 import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZoneCacheWorld;
+import com.bergerkiller.bukkit.tc.utils.LongObjectOpenHashMap;
 
 /**
  * Retrieves and caches rails and information about rails, mapped to
@@ -58,6 +57,11 @@ import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZoneCacheWorld;
  * validated every tick, such as by checking signs exist and the rail type still
  * detects the rail block as a valid rail.<br>
  * <br>
+ * Buckets are stored by their block coordinates packed into a long. To avoid checking
+ * every bucket every tick for whether it expired, buckets are put in slots by the tick
+ * at which they could expire first. Every tick only the buckets of one slot are checked.
+ * Buckets that were accessed since are moved to the slot of the tick they expire next.<br>
+ * <br>
  * This lookup is not multi-thread safe and all access must be done from the main
  * Bukkit thread.
  */
@@ -65,6 +69,9 @@ final class WorldRailLookupImpl implements WorldRailLookup {
     // Internally-used constant arrays
     private static final Bucket[] NO_RAILS_AT_POSITION = new Bucket[0];
 
+    // Number of slots of ticks buckets can be scheduled in to check for expiry. Power of 2.
+    private static final int EXPIRY_SLOT_COUNT = 64;
+
     // Used when calculating the signs at a rail
     private static final TrackedSignList SIGN_LIST_CACHE = new TrackedSignList();
 
@@ -76,8 +83,10 @@ final class WorldRailLookupImpl implements WorldRailLookup {
     private final TrainCarts traincarts;
     private World world;
     private OfflineWorld offlineWorld;
-    private Map<IntVector3, Bucket> cache;
-    private List<Bucket> cacheValues;
+    private final LongObjectOpenHashMap<Bucket> cache;
+    private final List<List<Bucket>> expirySlots;
+    private List<Bucket> expirySlotSpare;
+    private final BlockChangeTracker blockChanges;
     private MutexZoneCacheWorld mutexZones;
     private SignControllerWorld signController;
     private int ticksWithEmptyCache;
@@ -86,8 +95,13 @@ final class WorldRailLookupImpl implements WorldRailLookup {
         this.traincarts = traincarts;
         this.offlineWorld = OfflineWorld.of(world);
         this.world = world;
-        this.cache = new HashMap<>();
-        this.cacheValues = new ArrayList<>();
+        this.cache = new LongObjectOpenHashMap<>();
+        this.expirySlots = new ArrayList<>(EXPIRY_SLOT_COUNT);
+        for (int i = 0; i < EXPIRY_SLOT_COUNT; i++) {
+            this.expirySlots.add(new ArrayList<>());
+        }
+        this.expirySlotSpare = new ArrayList<>();
+        this.blockChanges = new BlockChangeTracker();
         this.mutexZones = MutexZoneCache.forWorld(this.offlineWorld);
         this.signController = traincarts.getSignController().forWorldSkipInitialization(this.world);
         this.ticksWithEmptyCache = 0;
@@ -164,35 +178,36 @@ final class WorldRailLookupImpl implements WorldRailLookup {
     void close() {
         if (!cache.isEmpty()) {
             forAllBuckets(b -> b.rail_life = RailLookup.LIFE_TIMER_DELETED);
-            cache.clear();
-            cacheValues.clear();
+            cache.clear(); // Also frees memory
+        }
+        blockChanges.clear();
+        for (int i = 0; i < EXPIRY_SLOT_COUNT; i++) {
+            expirySlots.set(i, new ArrayList<>()); // Free memory
         }
-        cache = Collections.emptyMap(); // Free memory
-        cacheValues = Collections.emptyList(); // Free memory
         world = null; // Forces errors / checking
     }
 
     @Override
     public RailPiece[] findAtStatePosition(RailState state) {
-        IntVector3 coordinates;
+        int x, y, z;
         {
             RailPath.Position pos = state.position();
+            x = MathUtil.floor(pos.posX);
+            y = MathUtil.floor(pos.posY);
+            z = MathUtil.floor(pos.posZ);
             if (pos.relative) {
                 // This is practically not used!
-                coordinates = state.railPiece().blockPosition().add(MathUtil.floor(pos.posX),
-                                                                    MathUtil.floor(pos.posY),
-                                                                    MathUtil.floor(pos.posZ));
-            } else {
-                coordinates = new IntVector3(MathUtil.floor(pos.posX),
-                                             MathUtil.floor(pos.posY),
-                                             MathUtil.floor(pos.posZ));
+                IntVector3 railPosition = state.railPiece().blockPosition();
+                x += railPosition.x;
+                y += railPosition.y;
+                z += railPosition.z;
             }
         }
 
         // If already in the cache, compute/return it right-away
         // During computation the original bucket may get deleted (if rail type was NONE)
-        IntVector3 cacheKey = createCacheKey(coordinates);
-        Bucket inCache = cache.get(cacheKey);
+        long cacheKey = createCacheKey(x, y, z);
+        Bucket inCache = getCached(cacheKey);
         if (inCache != null) {
             return inCache.getRailsAtPosition();
         }
@@ -201,15 +216,15 @@ final class WorldRailLookupImpl implements WorldRailLookup {
         // with rail type NONE and proceed from there, it results in a bucket to be created
         // that is then just thrown away again. It's better to do an at-position search first,
         // and if any of the found rails match with the position block, we use that one.
-        return discoverBucketsAtPositionBlock(cacheKey, offlineWorld.getBlockAt(coordinates));
+        return discoverBucketsAtPositionBlock(cacheKey, offlineWorld.getBlockAt(x, y, z));
     }
 
     @Override
     public RailPiece[] findAtBlockPosition(OfflineBlock positionBlock) {
         // If already in the cache, compute/return it right-away
         // During computation the original bucket may get deleted (if rail type was NONE)
-        IntVector3 cacheKey = createCacheKey(positionBlock);
-        Bucket inCache = cache.get(cacheKey);
+        long cacheKey = createCacheKey(positionBlock);
+        Bucket inCache = getCached(cacheKey);
         if (inCache != null) {
             return inCache.getRailsAtPosition();
         }
@@ -225,8 +240,8 @@ final class WorldRailLookupImpl implements WorldRailLookup {
     public RailLookup.CachedRailPiece lookupCachedRailPieceIfCached(final OfflineBlock railOfflineBlock,
                                                                     final RailType railType
     ) {
-        IntVector3 cacheKey = createCacheKey(railOfflineBlock);
-        Bucket inCache = cache.get(cacheKey);
+        long cacheKey = createCacheKey(railOfflineBlock);
+        Bucket inCache = getCached(cacheKey);
         if (inCache != null) {
             RailType inCacheType = inCache.type();
             if (inCacheType == railType) {
@@ -246,8 +261,8 @@ final class WorldRailLookupImpl implements WorldRailLookup {
 
     @Override
     public List<RailLookup.CachedRailPiece> lookupCachedRailPieces(final OfflineBlock railOfflineBlock) {
-        IntVector3 cacheKey = createCacheKey(railOfflineBlock);
-        Bucket inCache = cache.get(cacheKey);
+        long cacheKey = createCacheKey(railOfflineBlock);
+        Bucket inCache = getCached(cacheKey);
         if (inCache == null) {
             return Collections.emptyList();
         } else if (inCache.next == null) {
@@ -275,8 +290,8 @@ final class WorldRailLookupImpl implements WorldRailLookup {
                                     final RailType railType
     ) {
         // First try to find it in the cache, and if none exists, initialize a new one.
-        IntVector3 cacheKey = createCacheKey(railOfflineBlock);
-        Bucket inCache = cache.get(cacheKey);
+        long cacheKey = createCacheKey(railOfflineBlock);
+        Bucket inCache = getCached(cacheKey);
         if (inCache == null) {
             if (!railType.isRegistered()) {
                 throw new RailLookup.RailTypeNotRegisteredException(railType);
@@ -306,13 +321,13 @@ final class WorldRailLookupImpl implements WorldRailLookup {
 
     @Override
     public List<MinecartMember<?>> findMembersOnRail(IntVector3 railCoordinates) {
-        Bucket bucket = cache.get(createCacheKey(railCoordinates));
+        Bucket bucket = getCached(createCacheKey(railCoordinates));
         return (bucket == null) ? Collections.emptyList() : bucket.members;
     }
 
     @Override
     public List<MinecartMember<?>> findMembersOnRail(OfflineBlock railOfflineBlock) {
-        Bucket bucket = cache.get(createCacheKey(railOfflineBlock));
+        Bucket bucket = getCached(createCacheKey(railOfflineBlock));
         return (bucket == null) ? Collections.emptyList() : bucket.members;
     }
 
@@ -399,11 +414,11 @@ final class WorldRailLookupImpl implements WorldRailLookup {
     }
 
     private void forAllBuckets(Consumer<Bucket> callback) {
-        for (Bucket bucket : cacheValues) {
+        cache.forEachValue(bucket -> {
             for (Bucket next = bucket; next != null; next = next.next) {
                 callback.accept(next);
             }
-        }
+        });
     }
 
     /**
@@ -427,43 +442,182 @@ final class WorldRailLookupImpl implements WorldRailLookup {
             bucket.rails_at_position_life = RailLookup.LIFE_TIMER_DELETED;
             bucket.rails_at_position = NO_RAILS_AT_POSITION;
             bucket.signs = RailLookup.MISSING_RAILS_NO_SIGNS;
+            bucket.verifiedSections = null;
             return false;
         }, false);
+        blockChanges.clear();
+    }
+
+    /**
+     * Notifies that a block changed, so that cached rails and signs near it are verified
+     * again the next time they are accessed
+     *
+     * @param x Block X-coordinate
+     * @param y Block Y-coordinate
+     * @param z Block Z-coordinate
+     */
+    void notifyBlockChanged(int x, int y, int z) {
+        blockChanges.markBlock(x, y, z, RailLookup.blockChangeTick);
+    }
+
+    /**
+     * Notifies that any of the blocks of a chunk changed, so that cached rails and signs
+     * in it are verified again the next time they are accessed
+     *
+     * @param cx Chunk X-coordinate
+     * @param cz Chunk Z-coordinate
+     */
+    void notifyChunkChanged(int cx, int cz) {
+        blockChanges.markChunk(cx, cz, RailLookup.blockChangeTick);
+    }
+
+    /**
+     * Checks whether no blocks changed in the chunk sections specified at or after a tick
+     *
+     * @param sectionKeys Keys of the sections, as returned by
+     *                    {@link BlockChangeTracker#addSectionsAround(long[], int, int, int)}
+     * @param tick Tick since which to check for changes
+     * @return True if none of the sections changed
+     */
+    boolean isUnchangedSince(long[] sectionKeys, int tick) {
+        return blockChanges.isUnchangedSince(sectionKeys, tick);
+    }
+
+    /**
+     * Forgets block changes that are too old to still affect trusted cached information
+     *
+     * @param tick Tick before which to forget changes
+     */
+    void cleanupBlockChanges(int tick) {
+        blockChanges.cleanup(tick);
     }
 
+    /**
+     * Checks the buckets scheduled for the current tick for whether they expired,
+     * and removes them if so.
+     *
+     * @param deadTimeout Buckets not accessed since this life timer value expire
+     */
     void update(int deadTimeout) {
-        refreshBuckets(b -> b.checkStillValid(deadTimeout), false);
+        final int lifeTimer = RailLookup.lifeTimer;
+        final int slotIndex = lifeTimer & (EXPIRY_SLOT_COUNT - 1);
+        final List<Bucket> slot = expirySlots.get(slotIndex);
+        if (slot.isEmpty()) {
+            return;
+        }
+
+        // Swap out the list, as buckets can be rescheduled into the same slot
+        expirySlots.set(slotIndex, expirySlotSpare);
+        final Predicate<Bucket> validChecker = b -> b.checkStillValid(deadTimeout);
+        final int checkInterval = getExpiryCheckInterval();
+        for (Bucket bucket : slot) {
+            bucket.expiryCheckScheduled = false;
+
+            // Skip buckets that were removed or replaced since they were scheduled
+            if (cache.get(createCacheKey(bucket.blockPosition())) != bucket) {
+                continue;
+            }
+
+            // If accessed since it was scheduled, check again when it can expire next
+            RailLookup.cacheExpiryChecks++;
+            int expireTime = getExpireTime(bucket);
+            if (expireTime > lifeTimer) {
+                scheduleExpiryCheck(bucket, expireTime);
+                continue;
+            }
+
+            // Remove expired buckets. Buckets that are kept because they store members or
+            // detector regions are checked again after the usual expiry interval.
+            Bucket head = refreshBucket(bucket, validChecker, false);
+            if (head != null) {
+                scheduleExpiryCheck(head, Math.max(getExpireTime(head), lifeTimer + checkInterval));
+            }
+        }
+        slot.clear();
+        expirySlotSpare = slot;
     }
 
     private void refreshBuckets(Predicate<Bucket> validChecker, boolean ignoreCanBePurged) {
-        for (ListIterator<Bucket> iter = cacheValues.listIterator(); iter.hasNext();) {
-            Bucket bucket = iter.next();
-            if (validChecker.test(bucket) || (!ignoreCanBePurged && !bucket.canBePurged(bucket.next == null))) {
-                // Only remove invalid buckets from the next chain
+        for (Bucket bucket : cache.values()) {
+            Bucket head = refreshBucket(bucket, validChecker, ignoreCanBePurged);
+            if (head != null && head != bucket) {
+                scheduleExpiryCheck(head, getExpireTime(head));
+            }
+        }
+    }
+
+    /**
+     * Removes the buckets at one block that are no longer valid
+     *
+     * @param bucket Bucket stored in the cache
+     * @param validChecker Checks whether a bucket is still valid
+     * @param ignoreCanBePurged Whether to ignore immutable buckets (members, metadata)
+     * @return Bucket now stored in the cache for the block, or null if all were removed
+     */
+    private Bucket refreshBucket(Bucket bucket, Predicate<Bucket> validChecker, boolean ignoreCanBePurged) {
+        if (validChecker.test(bucket) || (!ignoreCanBePurged && !bucket.canBePurged(bucket.next == null))) {
+            // Only remove invalid buckets from the next chain
+            bucket.removeInvalidBucketsFromChain(validChecker, ignoreCanBePurged);
+            return bucket;
+        }
+
+        // If bucket has a next value, put that one in instead. Remove if all dead.
+        long cacheKey = createCacheKey(bucket.blockPosition());
+        while (true) {
+            bucket.rail_life = RailLookup.LIFE_TIMER_DELETED;
+            bucket = bucket.next;
+            if (bucket == null) {
+                // No more buckets, remove entirely
+                cache.remove(cacheKey);
+                RailLookup.cacheEvictions++;
+                return null;
+            } else if (validChecker.test(bucket) || (!ignoreCanBePurged && !bucket.canBePurged(true))) {
+                // Set this one, instead. Do remove further next entries that aren't valid
                 bucket.removeInvalidBucketsFromChain(validChecker, ignoreCanBePurged);
-            } else {
-                // If bucket has a next value, put that one in instead. Remove if all dead.
-                IntVector3 cacheKey = createCacheKey(bucket.blockPosition());
-                while (true) {
-                    bucket.rail_life = RailLookup.LIFE_TIMER_DELETED;
-                    bucket = bucket.next;
-                    if (bucket == null) {
-                        // No more buckets, remove entirely
-                        iter.remove();
-                        cache.remove(cacheKey);
-                        break;
-                    } else if (validChecker.test(bucket) || (!ignoreCanBePurged && !bucket.canBePurged(true))) {
-                        // Set this one, instead. Do remove further next entries that aren't valid
-                        bucket.removeInvalidBucketsFromChain(validChecker, ignoreCanBePurged);
-                        iter.set(bucket);
-                        cache.put(cacheKey, bucket);
-                        break;
-                    }
-                }
+                cache.put(cacheKey, bucket);
+                return bucket;
             }
         }
     }
 
+    /**
+     * Schedules a bucket stored in the cache to be checked for expiry at a later tick.
+     * If the bucket is still scheduled from before, for example because it became the
+     * head of the chain again, it is not scheduled a second time. That check will
+     * reschedule it if it is not yet expired.
+     *
+     * @param bucket Bucket stored in the cache
+     * @param lifeTimer Value of the life timer at which to check the bucket
+     */
+    private void scheduleExpiryCheck(Bucket bucket, int lifeTimer) {
+        if (bucket.expiryCheckScheduled) {
+            return;
+        }
+        bucket.expiryCheckScheduled = true;
+        lifeTimer = Math.max(lifeTimer, RailLookup.lifeTimer);
+        expirySlots.get(lifeTimer & (EXPIRY_SLOT_COUNT - 1)).add(bucket);
+    }
+
+    /**
+     * Gets the value of the life timer at which a bucket, or any of the buckets in its
+     * next chain, expires first when not accessed before then.
+     *
+     * @param bucket Bucket
+     * @return life timer value when the bucket expires
+     */
+    private static int getExpireTime(Bucket bucket) {
+        int expireTime = Integer.MAX_VALUE;
+        for (Bucket b = bucket; b != null; b = b.next) {
+            int lastAccessed = Math.max(b.rail_life, b.rails_at_position_life);
+            expireTime = Math.min(expireTime, lastAccessed + getExpiryCheckInterval());
+        }
+        return expireTime;
+    }
+
+    private static int getExpiryCheckInterval() {
+        return TCConfig.cacheExpireTicks + TCConfig.cacheVerificationTicks + 1;
+    }
+
     @Override
     public void storeDetectorRegions(IntVector3 coordinates, DetectorRegion[] regions) {
         for (Bucket b = getOrCreateAtCoordinates(coordinates); b != null; b = b.next) {
@@ -473,13 +627,24 @@ final class WorldRailLookupImpl implements WorldRailLookup {
 
     @Override
     public DetectorRegion[] getDetectorRegions(IntVector3 coordinates) {
-        Bucket bucket = this.cache.get(createCacheKey(coordinates));
+        Bucket bucket = getCached(createCacheKey(coordinates));
         return (bucket == null) ? RailLookup.NO_DETECTOR_REGIONS : bucket.detectorRegions;
     }
 
     @Override
     public Collection<IntVector3> getBlockIndex() {
-        return this.cache.keySet();
+        List<IntVector3> positions = new ArrayList<>(this.cache.size());
+        this.cache.forEachValue(bucket -> positions.add(bucket.blockPosition()));
+        return positions;
+    }
+
+    /**
+     * Gets the number of block positions stored in the cache
+     *
+     * @return number of cached block positions
+     */
+    int getCacheSize() {
+        return this.cache.size();
     }
 
     /**
@@ -491,13 +656,12 @@ final class WorldRailLookupImpl implements WorldRailLookup {
      * @return Bucket
      */
     private Bucket getOrCreateAtCoordinates(IntVector3 coordinates) {
-        IntVector3 cacheKey = createCacheKey(coordinates);
-        Bucket bucket = this.cache.get(cacheKey);
+        long cacheKey = createCacheKey(coordinates);
+        Bucket bucket = getCached(cacheKey);
         if (bucket == null) {
             bucket = new Bucket(this.offlineWorld.getBlockAt(coordinates),
                                  BlockUtil.getBlock(this.world, coordinates));
-            this.cache.put(cacheKey, bucket);
-            this.cacheValues.add(bucket);
+            addToCache(cacheKey, bucket);
         }
         return bucket;
     }
@@ -513,7 +677,7 @@ final class WorldRailLookupImpl implements WorldRailLookup {
      * @param positionOfflineBlock
      * @return List of buckets of rails at this block position
      */
-    private Bucket[] discoverBucketsAtPositionBlock(IntVector3 cacheKey, OfflineBlock positionOfflineBlock) {
+    private Bucket[] discoverBucketsAtPositionBlock(long cacheKey, OfflineBlock positionOfflineBlock) {
         // Query the registered Rail Types for whether they exist at this position
         Block positionBlock = positionOfflineBlock.getLoadedBlock();
         if (positionBlock == null) {
@@ -580,9 +744,19 @@ final class WorldRailLookupImpl implements WorldRailLookup {
         return NO_RAILS_AT_POSITION;
     }
 
-    private void addToCache(IntVector3 cacheKey, Bucket bucket) {
+    private void addToCache(long cacheKey, Bucket bucket) {
         cache.put(cacheKey, bucket);
-        cacheValues.add(bucket);
+        scheduleExpiryCheck(bucket, getExpireTime(bucket));
+    }
+
+    private Bucket getCached(long cacheKey) {
+        Bucket bucket = cache.get(cacheKey);
+        if (bucket == null) {
+            RailLookup.cacheMisses++;
+        } else {
+            RailLookup.cacheHits++;
+        }
+        return bucket;
     }
 
     /**
@@ -591,8 +765,8 @@ final class WorldRailLookupImpl implements WorldRailLookup {
      * @param block Offline Block
      * @return Cache lookup key
      */
-    private static IntVector3 createCacheKey(OfflineBlock block) {
-        return block.getPosition();
+    private static long createCacheKey(OfflineBlock block) {
+        return createCacheKey(block.getPosition());
     }
 
     /**
@@ -601,8 +775,22 @@ final class WorldRailLookupImpl implements WorldRailLookup {
      * @param coordinates Block Coordinates
      * @return Cache lookup key
      */
-    private static IntVector3 createCacheKey(IntVector3 coordinates) {
-        return coordinates;
+    private static long createCacheKey(IntVector3 coordinates) {
+        return createCacheKey(coordinates.x, coordinates.y, coordinates.z);
+    }
+
+    /**
+     * Computes the cache lookup key that refers to a certain position or rail block.
+     * The x and z coordinates are stored in 26 bits, and the y coordinate in 12 bits,
+     * which covers the full range of coordinates of a Minecraft world.
+     *
+     * @param x Block X-coordinate
+     * @param y Block Y-coordinate
+     * @param z Block Z-coordinate
+     * @return Cache lookup key
+     */
+    private static long createCacheKey(int x, int y, int z) {
+        return (((long) x & 0x3FFFFFFL) << 38) | (((long) z & 0x3FFFFFFL) << 12) | ((long) y & 0xFFFL);
     }
 
     /**
@@ -641,6 +829,23 @@ final class WorldRailLookupImpl implements WorldRailLookup {
          */
         public Bucket[] rails_at_position;
 
+        /**
+         * When verified with event invalidation enabled, stores the chunk sections of the
+         * rail block and signs. Until a block changes in these sections, the bucket does not
+         * have to be verified again. Null if the bucket must be verified by reading blocks.
+         */
+        public long[] verifiedSections = null;
+
+        /**
+         * Value of the block change tick when this bucket was last verified
+         */
+        public int verifiedTick = 0;
+
+        /**
+         * Whether this bucket is stored in one of the expiry slots, waiting to be checked
+         */
+        public boolean expiryCheckScheduled = false;
+
         // Initializes a new Bucket for a non-rail use, with RailType NONE
         // This is used when using a block position to find rails that have minecarts near it
         // If at a later time a rail block is found anyway, then this bucket is discarded and
@@ -734,21 +939,8 @@ final class WorldRailLookupImpl implements WorldRailLookup {
                 newBucket.next = this;
             }
 
-            // Replace or add to cache values mapping
-            {
-                boolean found = false;
-                for (ListIterator<Bucket> iter = cacheValues.listIterator(); iter.hasNext();) {
-                    if (iter.next() == this) {
-                        iter.set(newBucket);
-                        found = true;
-                        break;
-                    }
-                }
-                if (!found) {
-                    cacheValues.add(newBucket);
-                }
-            }
-            cache.put(createCacheKey(newBucket.blockPosition()), newBucket);
+            // Replace the mapping in the cache
+            addToCache(createCacheKey(newBucket.blockPosition()), newBucket);
 
             return newBucket;
         }
@@ -913,6 +1105,19 @@ final class WorldRailLookupImpl implements WorldRailLookup {
                 return false; // Removed from cache, another lookup required
             }
 
+            // If no blocks changed near the rails or signs since the last verification,
+            // the information is still valid. Is verified anyway every now and then.
+            long[] sections = this.verifiedSections;
+            if (sections != null) {
+                if ((RailLookup.blockChangeTick - this.verifiedTick) < TCConfig.cacheEventVerificationTicks &&
+                    blockChanges.isUnchangedSince(sections, this.verifiedTick)
+                ) {
+                    this.rail_life = RailLookup.verifyTimer;
+                    return true;
+                }
+                this.verifiedSections = null;
+            }
+
             // Check that the rails type still exists at the position
             // Will always fail for RailType NONE, if that ever happens
             if (!this.type().isRail(this.block())) {
@@ -946,6 +1151,18 @@ final class WorldRailLookupImpl implements WorldRailLookup {
                 }
             }
 
+            // Trust this information until blocks change nearby
+            if (TCConfig.cacheEventInvalidation && this.type().isInvalidatedByBlockChanges()) {
+                IntVector3 pos = this.blockPosition();
+                sections = BlockChangeTracker.addSectionsAround(null, pos.x, pos.y, pos.z);
+                for (TrackedSign sign : this.signs) {
+                    Block signBlock = sign.signBlock;
+                    sections = BlockChangeTracker.addSectionsAround(sections, signBlock.getX(), signBlock.getY(), signBlock.getZ());
+                }
+                this.verifiedSections = sections;
+                this.verifiedTick = RailLookup.blockChangeTick;
+            }
+
             // All good!
             return true;
         }
@@ -959,6 +1176,7 @@ final class WorldRailLookupImpl implements WorldRailLookup {
         public void forceCacheVerification() {
             this.rail_life = RailLookup.LIFE_TIMER_START;
             this.signs = RailLookup.MISSING_RAILS_NO_SIGNS;
+            this.verifiedSections = null;
         }
     }
 
@@ -370,6 +370,19 @@ public abstract class RailType {
         return this._isHandlingPhysics;
     }
 
+    /**
+     * Gets whether the rails of this type only change when blocks near the rails change.
+     * If true, and the rail cache uses block change events to invalidate cached information,
+     * cached rails of this type are trusted until a block event occurs near the rails or
+     * its signs. Rail types whose rails depend on state other than blocks must return false.
+     * By default returns false.
+     *
+     * @return True if cached rails of this type are invalidated by block changes
+     */
+    public boolean isInvalidatedByBlockChanges() {
+        return false;
+    }
+
     /**
      * Gets whether blocks surrounding the rails block indicate the rails is used upside-down.
      * It is only upside-down when the block 'below' the rails is air, and a solid block exists above.
@@ -20,6 +20,11 @@ public class RailTypeCrossing extends RailTypeHorizontal {
         return MaterialUtil.ISPRESSUREPLATE.get(blockData);
     }
 
+    @Override
+    public boolean isInvalidatedByBlockChanges() {
+        return true;
+    }
+
     @Override
     public boolean hasBlockActivation(Block railBlock) {
         return true; // Only wooden plates technically, but this is easy enough.
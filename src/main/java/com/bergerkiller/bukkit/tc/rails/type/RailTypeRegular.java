@@ -276,6 +276,11 @@ public class RailTypeRegular extends RailTypeHorizontal {
         return blockData.isType(RailMaterials.REGULAR);
     }
 
+    @Override
+    public boolean isInvalidatedByBlockChanges() {
+        return true;
+    }
+
     @Override
     public BlockFace[] getPossibleDirections(Block trackBlock) {
         Rails rails = Util.getRailsRO(trackBlock);
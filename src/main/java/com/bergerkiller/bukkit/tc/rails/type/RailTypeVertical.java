@@ -30,6 +30,11 @@ public class RailTypeVertical extends RailType {
         return Util.ISVERTRAIL.get(blockData);
     }
 
+    @Override
+    public boolean isInvalidatedByBlockChanges() {
+        return true;
+    }
+
     @Override
     public Block findRail(Block pos) {
         // At self position
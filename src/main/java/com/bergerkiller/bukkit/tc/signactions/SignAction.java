@@ -35,6 +35,9 @@ import com.bergerkiller.bukkit.tc.utils.SignBuildOptions;
 public abstract class SignAction {
     private static List<SignAction> actions = Collections.emptyList();
     private static List<SignAction> actionsWithLoadedChangedHandler = Collections.emptyList();
+    private static SignActionIndex actionsIndex = SignActionIndex.EMPTY;
+    private static SignActionIndex actionsWithLoadedChangedHandlerIndex = SignActionIndex.EMPTY;
+    private static int registryVersion = 0;
 
     public static void init() {
         actions = new ArrayList<>();
@@ -88,6 +91,23 @@ public abstract class SignAction {
     public static void deinit() {
         actions = Collections.emptyList();
         actionsWithLoadedChangedHandler = Collections.emptyList();
+        rebuildIndex();
+    }
+
+    private static void rebuildIndex() {
+        actionsIndex = new SignActionIndex(actions);
+        actionsWithLoadedChangedHandlerIndex = new SignActionIndex(actionsWithLoadedChangedHandler);
+        registryVersion++;
+    }
+
+    /**
+     * Gets a number that changes every time a sign action is registered or unregistered.
+     * Can be used to check whether a cached sign action of a sign is still valid.
+     *
+     * @return registry version
+     */
+    public static int getRegistryVersion() {
+        return registryVersion;
     }
 
     /**
@@ -97,12 +117,7 @@ public abstract class SignAction {
      * @return sign action, or null if not found
      */
     public static SignAction getSignAction(SignActionEvent event) {
-        for (SignAction action : actions) {
-            if (action.match(event) && action.verify(event)) {
-                return action;
-            }
-        }
-        return null;
+        return actionsIndex.find(event);
     }
 
     /**
@@ -146,6 +161,7 @@ public abstract class SignAction {
                     actionsWithLoadedChangedHandler.add(action);
                 }
             }
+            rebuildIndex();
 
             // TrackedSign stores a SignAction too - make sure this is wiped
             RailLookup.forceRecalculation();
@@ -155,8 +171,11 @@ public abstract class SignAction {
 
     public static void unregister(SignAction action) {
         if (actions.isEmpty()) return;
-        actions.remove(action);
-        actionsWithLoadedChangedHandler.remove(action);
+        if (actions.remove(action)) {
+            actionsWithLoadedChangedHandler.remove(action);
+            rebuildIndex();
+            RailLookup.forceRecalculation();
+        }
     }
     	
     public Boolean isSpawner() {
@@ -191,11 +210,9 @@ public abstract class SignAction {
      */
     public static void handleLoadChange(TrackedSign trackedSign, boolean loaded) {
         final SignActionEvent info = new SignActionEvent(trackedSign);
-        for (SignAction action : actionsWithLoadedChangedHandler) {
-            if (action.match(info) && action.verify(info)) {
-                action.loadedChanged(info, loaded);
-                return;
-            }
+        SignAction action = actionsWithLoadedChangedHandlerIndex.find(info);
+        if (action != null) {
+            action.loadedChanged(info, loaded);
         }
     }
 
@@ -367,8 +384,15 @@ public abstract class SignAction {
             return; // ignore further processing
         }
 
-        // Find matching SignAction for this sign
-        executeOneImpl(getSignAction(info), info);
+        // Find matching SignAction for this sign. The tracked sign caches the action
+        // that matches its text, which only has to be verified for this action type.
+        // The cached action was matched without an action type or member, so when there
+        // is none, look it up again in case match() depends on those.
+        SignAction action = info.getTrackedSign().getAction();
+        if (action == null || !action.verify(info)) {
+            action = getSignAction(info);
+        }
+        executeOneImpl(action, info);
     }
 
     /**
@@ -463,6 +487,22 @@ public abstract class SignAction {
      */
     public abstract boolean match(SignActionEvent info);
 
+    /**
+     * Gets the sign type names matched by this Sign Action. These are the lower-case
+     * names the second line of the sign starts with, as checked using
+     * {@link SignActionEvent#isType(String...)}. Only when the second line of a sign
+     * starts with one of these names is {@link #match(SignActionEvent)} called, which
+     * avoids calling it for signs of every other type.<br>
+     * <br>
+     * By default returns null, which means this Sign Action uses its own matching logic,
+     * and {@link #match(SignActionEvent)} is called for all signs.
+     *
+     * @return sign type names, or null if custom matching is used
+     */
+    public String[] getTypeNames() {
+        return null;
+    }
+
     /**
      * Fired when this sign is being executed for a certain event
      *
@@ -126,6 +126,11 @@ public class SignActionDetector extends SignAction {
         return info != null && info.getMode() != SignActionMode.NONE && info.isType("detect");
     }
 
+    @Override
+    public String[] getTypeNames() {
+        return new String[] { "detect" };
+    }
+
     @Override
     public boolean canSupportFakeSign(SignActionEvent info) {
         return false;
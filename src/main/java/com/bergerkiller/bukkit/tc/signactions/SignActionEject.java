@@ -28,6 +28,11 @@ public class SignActionEject extends SignAction {
         return info.isType("eject");
     }
 
+    @Override
+    public String[] getTypeNames() {
+        return new String[] { "eject" };
+    }
+
     @Override
     public boolean click(SignActionEvent info, Player player) {
         MinecartMember<?> member = MinecartMemberStore.getFromEntity(player.getVehicle());
@@ -0,0 +1,131 @@
+package com.bergerkiller.bukkit.tc.signactions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+
+import com.bergerkiller.bukkit.tc.events.SignActionEvent;
+
+/**
+ * Index of registered sign actions by the sign type names they match on the
+ * second line of the sign. Looking up the sign action of a sign only calls
+ * {@link SignAction#match(SignActionEvent)} on the actions whose type name
+ * the second line starts with, and on actions that use custom matching logic.
+ * The order in which the actions were registered is preserved.<br>
+ * <br>
+ * The index is immutable, and is built again every time a sign action is
+ * registered or unregistered.
+ */
+final class SignActionIndex {
+    public static final SignActionIndex EMPTY = new SignActionIndex(Collections.emptyList());
+    private static final int[] NO_INDICES = new int[0];
+    private final SignAction[] actions;
+    private final Map<String, int[]> byTypeName;
+    private final int[] typeNameLengths;
+    private final int[] customActions;
+
+    public SignActionIndex(List<SignAction> actions) {
+        this.actions = actions.toArray(new SignAction[actions.size()]);
+
+        Map<String, List<Integer>> byTypeNameList = new HashMap<>();
+        TreeSet<Integer> lengths = new TreeSet<>();
+        List<Integer> custom = new ArrayList<>();
+        for (int i = 0; i < this.actions.length; i++) {
+            String[] typeNames = this.actions[i].getTypeNames();
+            if (typeNames == null) {
+                custom.add(i);
+                continue;
+            }
+            for (String typeName : typeNames) {
+                String key = typeName.toLowerCase(Locale.ENGLISH);
+                List<Integer> indices = byTypeNameList.computeIfAbsent(key, k -> new ArrayList<>(1));
+                if (indices.isEmpty() || indices.get(indices.size() - 1) != i) {
+                    indices.add(i);
+                }
+                lengths.add(key.length());
+            }
+        }
+
+        this.byTypeName = new HashMap<>(byTypeNameList.size() * 2);
+        for (Map.Entry<String, List<Integer>> entry : byTypeNameList.entrySet()) {
+            this.byTypeName.put(entry.getKey(), toArray(entry.getValue()));
+        }
+        this.typeNameLengths = toArray(lengths);
+        this.customActions = toArray(custom);
+    }
+
+    /**
+     * Finds the first sign action that matches and verifies the event
+     *
+     * @param event Event to find the sign action for
+     * @return matching sign action, or null if none matches
+     */
+    public SignAction find(SignActionEvent event) {
+        // Sign types are only matched for signs with a valid header, as done by isType()
+        int[] found = NO_INDICES;
+        if (event.getHeader().isValid()) {
+            String line = event.getLowerCaseSecondCleanedLine();
+            for (int length : this.typeNameLengths) {
+                if (length > line.length()) {
+                    break;
+                }
+                int[] indices = this.byTypeName.get(line.substring(0, length));
+                if (indices != null) {
+                    found = (found.length == 0) ? indices : merge(found, indices);
+                }
+            }
+        }
+
+        // Go by both found actions and custom-matched actions in registration order
+        final int[] custom = this.customActions;
+        int f = 0, c = 0;
+        while (true) {
+            int index;
+            if (f < found.length && (c >= custom.length || found[f] < custom[c])) {
+                index = found[f++];
+            } else if (c < custom.length) {
+                index = custom[c++];
+            } else {
+                return null;
+            }
+
+            SignAction action = this.actions[index];
+            if (action.match(event) && action.verify(event)) {
+                return action;
+            }
+        }
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length || j < b.length) {
+            int value;
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                value = a[i++];
+            } else if (i >= a.length || b[j] < a[i]) {
+                value = b[j++];
+            } else {
+                value = a[i++];
+                j++;
+            }
+            result[n++] = value;
+        }
+        return (n == result.length) ? result : Arrays.copyOf(result, n);
+    }
+
+    private static int[] toArray(Iterable<Integer> values) {
+        List<Integer> list = new ArrayList<>();
+        values.forEach(list::add);
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = list.get(i);
+        }
+        return result;
+    }
+}
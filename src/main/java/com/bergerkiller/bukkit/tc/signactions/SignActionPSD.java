@@ -1,12 +1,11 @@
 package com.bergerkiller.bukkit.tc.signactions;
 
-import org.bukkit.Bukkit;
 import org.bukkit.Material;
 import org.bukkit.block.Block;
 import org.bukkit.block.BlockFace;
-import org.bukkit.scheduler.BukkitTask;
 
 import com.bergerkiller.bukkit.tc.Permission;
+import com.bergerkiller.bukkit.tc.controller.global.BlockChangeController;
 import com.bergerkiller.bukkit.tc.events.SignActionEvent;
 import com.bergerkiller.bukkit.tc.events.SignChangeActionEvent;
 import com.bergerkiller.bukkit.tc.utils.SignBuildOptions;
@@ -19,6 +18,11 @@ public class SignActionPSD extends SignAction {
 	public boolean match(SignActionEvent info) {
 		return info.isType("psd");
 	}
+
+	@Override
+	public String[] getTypeNames() {
+		return new String[] { "psd" };
+	}
 	public void place(SignActionEvent sign, int x, int y, int z, Material block, int doors, BlockFace facing, String offset) {
 		/*
 		 * Changes relative X Y Z to be the same even if the sign's facing is different
@@ -48,8 +52,9 @@ public class SignActionPSD extends SignAction {
 			z = z + Integer.parseInt(offset.split("/")[2]);
 		}
 
+		BlockChangeController blockChanges = sign.getTrainCarts().getBlockChangeController();
 		Block b = sign.getBlock().getRelative(x, y, z);
-		b.setType(block);
+		blockChanges.setType(b, block);
 		if (doors < 1)
 			return;
 		for (int i = 0; i < doors; i++) {
@@ -66,7 +71,7 @@ public class SignActionPSD extends SignAction {
 				z -= 3;
 			}
 			b = sign.getBlock().getRelative(x, y, z);
-			b.setType(block);
+			blockChanges.setType(b, block);
 		}
 
 	}
@@ -116,24 +121,20 @@ public class SignActionPSD extends SignAction {
 		}
 
 	}
-	public int chimes;
 	public void blink(int doors, SignActionEvent info) {
 		String offset = info.getExtraLinesBelow()[0];
-		chimes = 0;
+		BlockChangeController blockChanges = info.getTrainCarts().getBlockChangeController();
 		place(info, 2, 1, 2, Material.OCHRE_FROGLIGHT, doors, info.getFacing(), offset);
 		chime(info, 2, 1, 4, doors);
-		Bukkit.getScheduler().runTaskTimer(info.getTrainCarts(), (task) -> {
-			place(info, 2, 1, 2, Material.GRAY_CONCRETE, doors, info.getFacing(), offset);
-			Bukkit.getScheduler().runTaskLater(info.getTrainCarts(), () -> {
+		for (long t = 2L; t <= 22L; t += 4L) {
+			blockChanges.schedule(t, () -> {
+				place(info, 2, 1, 2, Material.GRAY_CONCRETE, doors, info.getFacing(), offset);
+			});
+			blockChanges.schedule(t + 2L, () -> {
 				place(info, 2, 1, 2, Material.OCHRE_FROGLIGHT, doors, info.getFacing(), offset);
 				chime(info, 2, 1, 4, doors);
-			}, 2L);
-			chimes += 4;
-			if(chimes > 20) {
-				task.cancel();
-			}
-		}, 2L, 4L);
-		
+			});
+		}
 	}
 	
 	@Override
@@ -147,20 +148,20 @@ public class SignActionPSD extends SignAction {
 			String doors = info.getLine(2);
 			String duration = info.getLine(3);
 			String[] stop = info.getExtraLinesBelow();
-			Bukkit.getScheduler().runTaskLater(info.getTrainCarts(), () -> {
+			BlockChangeController blockChanges = info.getTrainCarts().getBlockChangeController();
+			blockChanges.schedule(16L, () -> {
 				place(info, 2, 1, 2, Material.VERDANT_FROGLIGHT, Integer.parseInt(doors), info.getFacing(), offset);
 				place(info, 2, 0, 1, Material.REDSTONE_TORCH, Integer.parseInt(doors) - 1, info.getFacing(), offset);
-			}, 16L);
+			});
 			
-			Bukkit.getScheduler().runTaskLater(info.getTrainCarts(), () -> {
+			blockChanges.schedule(Integer.parseInt(duration)*20L - 30L + 16L, () -> {
 				blink(Integer.parseInt(doors), info);
-				
-	        }, new Long(Integer.parseInt(duration)*20-30) + 16L);
+			});
 			
-			Bukkit.getScheduler().runTaskLater(info.getTrainCarts(), () -> {
+			blockChanges.schedule(Integer.parseInt(duration)*20L - 2L + 16L, () -> {
 				place(info, 2, 1, 2, Material.PEARLESCENT_FROGLIGHT, Integer.parseInt(doors), info.getFacing(), offset);
 				place(info, 2, 0, 1, Material.AIR, Integer.parseInt(doors) - 1, info.getFacing(), offset);
-	        }, new Long(Integer.parseInt(duration)*20-2) + 16L);
+			});
 
 
 		}
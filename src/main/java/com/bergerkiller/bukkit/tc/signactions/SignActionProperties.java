@@ -38,6 +38,11 @@ public class SignActionProperties extends SignAction {
         return info.isType("property");
     }
 
+    @Override
+    public String[] getTypeNames() {
+        return new String[] { "property" };
+    }
+
     @Override
     public void execute(SignActionEvent info) {
         if (!info.isPowered()) return;
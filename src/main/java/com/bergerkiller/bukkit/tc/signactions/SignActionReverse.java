@@ -20,6 +20,11 @@ public class SignActionReverse extends SignAction {
     public boolean match(SignActionEvent info) {
         return info.isType("plat");
     }
+
+    @Override
+    public String[] getTypeNames() {
+        return new String[] { "plat" };
+    }
      
     
     public static String parseStation(String string) {
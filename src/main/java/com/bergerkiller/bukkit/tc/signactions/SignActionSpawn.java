@@ -45,6 +45,11 @@ public class SignActionSpawn extends SignAction {
         return SpawnSign.isValid(info);
     }
 
+    @Override
+    public String[] getTypeNames() {
+        return new String[] { "spawn" };
+    }
+
     @Override
     public boolean canSupportFakeSign(SignActionEvent info) {
         // If no auto-spawning logic is used, then it is supported
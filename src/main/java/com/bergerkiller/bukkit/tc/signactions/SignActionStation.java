@@ -2,6 +2,7 @@ package com.bergerkiller.bukkit.tc.signactions;
 
 import com.bergerkiller.bukkit.tc.ArrivalSigns;
 import com.bergerkiller.bukkit.tc.Direction;
+import com.bergerkiller.bukkit.tc.PassengerAnnouncer;
 import com.bergerkiller.bukkit.tc.Permission;
 import com.bergerkiller.bukkit.tc.Station;
 
@@ -14,12 +15,8 @@ import com.bergerkiller.bukkit.tc.events.SignChangeActionEvent;
 import com.bergerkiller.bukkit.tc.utils.SignBuildOptions;
 import com.bergerkiller.bukkit.tc.utils.StationParser;
 
-import net.md_5.bungee.api.ChatMessageType;
-import net.md_5.bungee.chat.ComponentSerializer;
-
 import org.bukkit.Bukkit;
 import org.bukkit.block.BlockFace;
-import org.bukkit.entity.Player;
 
 public class SignActionStation extends SignAction {
 
@@ -28,36 +25,21 @@ public class SignActionStation extends SignAction {
 		return info.isType("station") && info.getMode() != SignActionMode.NONE;
 	}
 
+	@Override
+	public String[] getTypeNames() {
+		return new String[] { "station" };
+	}
+
 
 
 	public static void announce(SignActionEvent info, MinecartGroup group, String message, String color, Boolean play,
 			Boolean raw) {
-		for (MinecartMember<?> member : group) {
-			announce(info, member, message, color, play, raw);
-		}
+		PassengerAnnouncer.announce(group, message, color, play, raw);
 	}
 
 	public static void announce(SignActionEvent info, MinecartMember<?> member, String message, String color,
 			Boolean play, Boolean raw) {
-		if(message == null) return;
-		for (Player player : member.getEntity().getPlayerPassengers()) {
-			color = StationParser.convertColor(color);
-			if (raw) {
-				player.spigot().sendMessage(ChatMessageType.ACTION_BAR, ComponentSerializer.parse(message.toString()));
-			} else {
-				player.spigot().sendMessage(ChatMessageType.ACTION_BAR,
-						ComponentSerializer.parse("{\"text\":\"" + message + "\", \"color\":\"" + color + "\"}"));
-			}
-			if (play) {
-				player.playSound(player.getLocation(), "minecraft:block.note_block.chime", 10, 1);
-				new java.util.Timer().schedule(new java.util.TimerTask() {
-					@Override
-					public void run() {
-						player.playSound(player.getLocation(), "minecraft:block.note_block.chime", 10, (float) 0.85);
-					}
-				}, 300);
-			}
-		}
+		PassengerAnnouncer.announce(member, message, color, play, raw);
 	}
 
 	@Override
@@ -97,14 +79,12 @@ public class SignActionStation extends SignAction {
 			if(!info.getExtraLinesBelow()[0].equalsIgnoreCase("") && !info.getExtraLinesBelow()[1].equalsIgnoreCase("")) {
 				if(info.getGroup().getProperties().getStations().toArray().length > 0) {
 					announce(info, info.getGroup(), "This is a " + info.getLine(2).replaceAll("\\$", "").split(">")[0] + " Line service to " + info.getGroup().getProperties().getDestination().split("~")[0] + ".", StationParser.convertColor(info.getLine(2).split(">")[0]), true, false);
+					String color = StationParser.convertColor(line);
 					if(info.getGroup().getProperties().checkNextStation() == false) {
-						Bukkit.getScheduler().runTaskLater(info.getTrainCarts(), () -> {
-							announce(info, info.getGroup(), "The next station is closed.", StationParser.convertColor(line), true, false);
-						}, 60L);
+						PassengerAnnouncer.announceLater(info.getTrainCarts(), info.getGroup(), 60L, () -> "The next station is closed.", color, true, false);
 					}
-					Bukkit.getScheduler().runTaskLater(info.getTrainCarts(), () -> {
-						announce(info, info.getGroup(), "The next station is " + info.getGroup().getProperties().getNextStation(true) + ".", StationParser.convertColor(line), true, false);
-					}, info.getGroup().getProperties().checkNextStation() == true ? 60L : 120L);
+					PassengerAnnouncer.announceLater(info.getTrainCarts(), info.getGroup(), info.getGroup().getProperties().checkNextStation() == true ? 60L : 120L,
+							() -> "The next station is " + info.getGroup().getProperties().getNextStation(true) + ".", color, true, false);
 				}
 			}
 			info.setLevers(false);
@@ -132,33 +112,25 @@ public class SignActionStation extends SignAction {
 			ArrivalSigns.trigger(info.getSign(), info.getMember(), info.getExtraLinesBelow()[3].split("#")[group.getProperties().getDestIndex()], "-" + (station.getDelay()/1000 + 0.35), true, null, true);
 			announce(info, info.getGroup(), "This station is " + StationParser.parseStation(info.getLine(3).split("~")[0]) + ".", info.getLine(2).split(">")[0],
 					true, false);
-			Long t = 50L;
+			String color = StationParser.convertColor(line);
+			long t = 50L;
 			if(info.getGroup().getProperties().getStations().toArray().length  < 1 || info.getGroup().getProperties().getDestination().split("~")[0].equalsIgnoreCase(StationParser.parseStation(info.getLine(3).split("~")[0])) ) {
-				Bukkit.getScheduler().runTaskLater(info.getTrainCarts(), () -> {
-					announce(info, info.getGroup(), "This train terminates here. Please take all your belongings when leaving the train.",
-							StationParser.convertColor(line), false, false);
-				}, t);
+				PassengerAnnouncer.announceLater(info.getTrainCarts(), info.getGroup(), t,
+						() -> "This train terminates here. Please take all your belongings when leaving the train.", color, false, false);
 				t += 50L;
 			}
-			Bukkit.getScheduler().runTaskLater(info.getTrainCarts(), () -> {
-				announce(info, info.getGroup(), "Mind the gap between the train and the platform.",
-						StationParser.convertColor(line).split(">")[0], false, false);
-			}, t);
+			PassengerAnnouncer.announceLater(info.getTrainCarts(), info.getGroup(), t,
+					() -> "Mind the gap between the train and the platform.", color.split(">")[0], false, false);
 			t += 50L;
-			if (StationParser.parseMetro(info.getExtraLinesBelow()[2], line) != null && StationParser.parseMetro(info.getExtraLinesBelow()[2], line) != "[]") {
-				Bukkit.getScheduler().runTaskLater(info.getTrainCarts(), () -> {
-					announce(info, info.getGroup(),
-							StationParser.parseMetro(info.getExtraLinesBelow()[2], StationParser.convertColor(line)),
-							StationParser.convertColor(line).split(">")[0], false, true);
-				}, t);
+			String metro = StationParser.parseMetro(info.getExtraLinesBelow()[2], line);
+			if (metro != null && metro != "[]") {
+				PassengerAnnouncer.announceLater(info.getTrainCarts(), info.getGroup(), t,
+						() -> StationParser.parseMetro(info.getExtraLinesBelow()[2], color), color.split(">")[0], false, true);
 				t += 50L;
 			} 
-			if (StationParser.parseRail(info.getExtraLinesBelow()[2], line) != null && StationParser.parseMetro(info.getExtraLinesBelow()[2], line) != "[]") {
-				Bukkit.getScheduler().runTaskLater(info.getTrainCarts(), () -> {
-						announce(info, info.getGroup(),
-								StationParser.parseRail(info.getExtraLinesBelow()[2], StationParser.convertColor(line)),
-								StationParser.convertColor(line), false, true);
-				}, t);
+			if (StationParser.parseRail(info.getExtraLinesBelow()[2], line) != null && metro != "[]") {
+				PassengerAnnouncer.announceLater(info.getTrainCarts(), info.getGroup(), t,
+						() -> StationParser.parseRail(info.getExtraLinesBelow()[2], color), color, false, true);
 			}
 		}
 
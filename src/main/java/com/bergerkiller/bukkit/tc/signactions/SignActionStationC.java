@@ -12,6 +12,11 @@ public class SignActionStationC extends SignAction {
 	public boolean match(SignActionEvent info) {
 		return info.isType("closed");
 	}
+
+	@Override
+	public String[] getTypeNames() {
+		return new String[] { "closed" };
+	}
 	
 
 	@Override
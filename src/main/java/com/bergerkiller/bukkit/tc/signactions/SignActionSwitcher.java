@@ -93,6 +93,11 @@ public class SignActionSwitcher extends SignAction {
         return info.isType("switcher", "tag");
     }
 
+    @Override
+    public String[] getTypeNames() {
+        return new String[] { "switcher", "tag" };
+    }
+
     @Override
     public void execute(SignActionEvent info) {
         (new SwitcherLogic(info)).run();
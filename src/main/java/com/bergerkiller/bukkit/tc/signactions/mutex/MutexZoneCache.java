@@ -4,16 +4,19 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.UUID;
 
 import com.bergerkiller.bukkit.common.bases.IntVector3;
 import com.bergerkiller.bukkit.common.offline.OfflineBlock;
 import com.bergerkiller.bukkit.common.offline.OfflineWorld;
 import com.bergerkiller.bukkit.common.offline.OfflineWorldMap;
+import com.bergerkiller.bukkit.common.utils.CommonUtil;
 import com.bergerkiller.bukkit.tc.TrainCarts;
 import com.bergerkiller.bukkit.tc.offline.sign.OfflineSign;
 import com.bergerkiller.bukkit.tc.offline.sign.OfflineSignMetadataHandler;
@@ -23,6 +26,8 @@ public class MutexZoneCache {
     private static final OfflineWorldMap<MutexZoneCacheWorld> cachesByWorld = new OfflineWorldMap<>();
     private static final Map<String, MutexZoneSlot> slotsByName = new HashMap<>();
     private static final List<MutexZoneSlot> slotsList = new ArrayList<>();
+    private static final PriorityQueue<MutexZoneSlot> slotsToRefresh = new PriorityQueue<>(
+            Comparator.comparingInt(s -> s.refreshTick));
 
     public static void init(TrainCarts plugin) {
         plugin.getOfflineSigns().registerHandler(MutexSignMetadata.class, new OfflineSignMetadataHandler<MutexSignMetadata>() {
@@ -77,6 +82,10 @@ public class MutexZoneCache {
 
     public static void deinit(TrainCarts plugin) {
         plugin.getOfflineSigns().unregisterHandler(MutexSignMetadata.class);
+        for (MutexZoneSlot slot : slotsToRefresh) {
+            slot.refreshScheduled = false;
+        }
+        slotsToRefresh.clear();
     }
 
     private static void addMutexSign(OfflineWorld world, IntVector3 signPosition, MutexSignMetadata metadata) {
@@ -178,15 +187,44 @@ public class MutexZoneCache {
     }
 
     /**
-     * Refreshes all mutex zone slots, releasing groups that are no longer on it
+     * Gets all mutex zone slots that exist, including the slots of anonymous mutex zones
+     *
+     * @return slots
+     */
+    public static List<MutexZoneSlot> getSlots() {
+        return new ArrayList<>(slotsList);
+    }
+
+    /**
+     * Schedules a slot to be refreshed at a later server tick. If the slot
+     * was already scheduled, it is refreshed at the tick it was scheduled at.
+     *
+     * @param slot Slot to refresh
+     * @param tick Server tick at which to refresh the slot
+     */
+    static void scheduleRefresh(MutexZoneSlot slot, int tick) {
+        if (!slot.refreshScheduled) {
+            slot.refreshScheduled = true;
+            slot.refreshTick = tick;
+            slotsToRefresh.add(slot);
+        }
+    }
+
+    /**
+     * Refreshes the mutex zone slots that have groups inside that could have
+     * left, releasing groups that are no longer on it. Slots are refreshed in
+     * the order of the tick they were scheduled at, so slots that have no groups
+     * inside are not looked at.
      */
     public static void refreshAll() {
-        // Note: done by index on purpose to avoid concurrent modification exceptions
-        // They may occur if a zone loads/unloads as a result of a lever toggle/etc.
-        if (!slotsList.isEmpty()) {
-            for (int i = 0; i < slotsList.size(); i++) {
-                slotsList.get(i).onTick();
-            }
+        // Note: slots can be scheduled again while refreshing, but always at a later tick
+        // Zones can also load/unload as a result of a lever toggle/etc.
+        int nowTicks = CommonUtil.getServerTicks();
+        MutexZoneSlot slot;
+        while ((slot = slotsToRefresh.peek()) != null && slot.refreshTick <= nowTicks) {
+            slotsToRefresh.poll();
+            slot.refreshScheduled = false;
+            slot.onTick();
         }
     }
 }
@@ -18,13 +18,19 @@ import com.bergerkiller.bukkit.tc.controller.components.RailPath;
 import com.bergerkiller.bukkit.tc.utils.TrackWalkingPoint;
 
 /**
- * Mutex zones that exist on a particular world
+ * Mutex zones that exist on a particular world. Zones are found using a
+ * {@link MutexZoneTree} of all zones on the world, which is built again
+ * the first time it is used after zones are added or removed. The chunks
+ * that contain zones are tracked as well to quickly check for nearby zones.
  */
 public class MutexZoneCacheWorld {
     private static final MutexZone[] NO_ZONES = new MutexZone[0];
     private final OfflineWorld world;
     private final Map<IntVector3, MutexZone> bySignPosition = new HashMap<>();
     private final LongHashMap<MutexZone[]> byChunk = new LongHashMap<>();
+    private final List<MutexZone> zones = new ArrayList<>();
+    private MutexZoneTree tree = MutexZoneTree.EMPTY;
+    private boolean treeChanged = false;
 
     public MutexZoneCacheWorld(OfflineWorld world) {
         this.world = world;
@@ -43,63 +49,32 @@ public class MutexZoneCacheWorld {
     }
 
     public MutexZone find(IntVector3 position) {
-        MutexZone[] inChunk = byChunk.get(position.getChunkX(), position.getChunkZ());
-        if (inChunk != null) {
-            for (MutexZone zone : inChunk) {
-                if (zone.containsBlock(position)) {
-                    return zone;
-                }
-            }
-        }
-        return null;
+        return getTree().findContaining(position);
     }
 
     public boolean isMutexZoneNearby(IntVector3 block, int radius) {
-        int chunkMinX = MathUtil.toChunk(block.x - radius);
-        int chunkMaxX = MathUtil.toChunk(block.x + radius);
-        int chunkMinZ = MathUtil.toChunk(block.z - radius);
-        int chunkMaxZ = MathUtil.toChunk(block.z + radius);
-        for (int cz = chunkMinZ; cz <= chunkMaxZ; cz++) {
-            for (int cx = chunkMinX; cx <= chunkMaxX; cx++) {
-                MutexZone[] zonesAtChunk = byChunk.get(cx, cz);
-                if (zonesAtChunk != null) {
-                    for (MutexZone zone : zonesAtChunk) {
-                        if (zone.isNearby(block, radius)) {
-                            return true;
-                        }
-                    }
-                }
-            }
-        }
-        return false;
+        return getTree().intersectsAny(block.x - radius, block.y - radius, block.z - radius,
+                                       block.x + radius, block.y + radius, block.z + radius);
     }
 
     public List<MutexZone> findNearbyZones(IntVector3 block, int radius) {
-        List<MutexZone> result = Collections.emptyList();
-        int chunkMinX = (block.x - radius) >> 4;
-        int chunkMaxX = (block.x + radius) >> 4;
-        int chunkMinZ = (block.z - radius) >> 4;
-        int chunkMaxZ = (block.z + radius) >> 4;
-        for (int cz = chunkMinZ; cz <= chunkMaxZ; cz++) {
-            for (int cx = chunkMinX; cx <= chunkMaxX; cx++) {
-                MutexZone[] zonesAtChunk = byChunk.get(cx, cz);
-                if (zonesAtChunk != null) {
-                    for (MutexZone zone : zonesAtChunk) {
-                        if (zone.isNearby(block, radius)) {
-                            if (result.isEmpty()) {
-                                result = new ArrayList<>();
-                            }
-                            result.add(zone);
-                        }
-                    }
-                }
-            }
+        List<MutexZone> result = getTree().findIntersecting(block.x - radius, block.y - radius, block.z - radius,
+                                                            block.x + radius, block.y + radius, block.z + radius);
+        return result.isEmpty() ? Collections.emptyList() : result;
+    }
+
+    private MutexZoneTree getTree() {
+        if (treeChanged) {
+            treeChanged = false;
+            tree = new MutexZoneTree(zones.toArray(new MutexZone[zones.size()]));
         }
-        return result;
+        return tree;
     }
 
     public void add(MutexZone zone) {
         bySignPosition.put(zone.signBlock.getPosition(), zone);
+        zones.add(zone);
+        treeChanged = true;
 
         // Usually only one zone sits in a chunk. This optimizes that case.
         MutexZone[] singleZone = new MutexZone[] {zone};
@@ -128,6 +103,9 @@ public class MutexZoneCacheWorld {
     public MutexZone removeAtSign(IntVector3 signPosition) {
         MutexZone zone = bySignPosition.remove(signPosition);
         if (zone != null) {
+            zones.remove(zone);
+            treeChanged = true;
+
             // De-register in all the chunks
             int chunkMinX = zone.start.getChunkX();
             int chunkMaxX = zone.end.getChunkX();
@@ -155,6 +133,9 @@ public class MutexZoneCacheWorld {
     public void clear() {
         bySignPosition.clear();
         byChunk.clear();
+        zones.clear();
+        tree = MutexZoneTree.EMPTY;
+        treeChanged = false;
     }
 
     /**
@@ -205,49 +186,18 @@ public class MutexZoneCacheWorld {
             p1.assertAbsolute();
             p2.assertAbsolute();
 
-            int cx1 = MathUtil.toChunk(p1.posX);
-            int cz1 = MathUtil.toChunk(p1.posZ);
-            int cx2 = MathUtil.toChunk(p2.posX);
-            int cz2 = MathUtil.toChunk(p2.posZ);
+            // Track the chunk of the end point, used by isNear()
+            findZonesInChunk(MathUtil.toChunk(p2.posX), MathUtil.toChunk(p2.posZ));
 
-            // Iterate the chunks visited from p1 to p2
-            // If same chunk, skip some special logic that combines mutex zones together
-            List<MutexZone> zones;
-            if (cx1 == cx2 && cz1 == cz2) {
-                zones = Arrays.asList(findZonesInChunk(cx1, cz1));
-            } else {
-                zones = Collections.emptyList();
-
-                final int cx_step = (cx1 > cx2) ? -1 : 1;
-                final int cz_step = (cz1 > cz2) ? -1 : 1;
-                int cz = cz1;
-                while (true) {
-                    int cx = cx1;
-                    while (true) {
-                        // Loops from cx1/cz1 -> cx2/cz2
-                        {
-                            for (MutexZone zone : findZonesInChunk(cx, cz)) {
-                                if (zones.isEmpty()) {
-                                    zones = new ArrayList<>(4);
-                                    zones.add(zone);
-                                } else if (!zones.contains(zone)) {
-                                    zones.add(zone);
-                                }
-                            }
-                        }
-
-                        if (cx == cx2)
-                            break;
-                        else
-                            cx += cx_step;
-                    }
-
-                    if (cz == cz2)
-                        break;
-                    else
-                        cz += cz_step;
-                }
-            }
+            // Find the zones that overlap with the blocks between p1 and p2
+            // Zones further away can not be hit within the distance searched
+            List<MutexZone> zones = getTree().findIntersecting(
+                    MathUtil.floor(Math.min(p1.posX, p2.posX)) - 1,
+                    MathUtil.floor(Math.min(p1.posY, p2.posY)) - 1,
+                    MathUtil.floor(Math.min(p1.posZ, p2.posZ)) - 1,
+                    MathUtil.floor(Math.max(p1.posX, p2.posX)),
+                    MathUtil.floor(Math.max(p1.posY, p2.posY)),
+                    MathUtil.floor(Math.max(p1.posZ, p2.posZ)));
 
             if (zones.isEmpty()) {
                 return null;
@@ -290,19 +240,13 @@ public class MutexZoneCacheWorld {
             }
         }
 
-        private MutexZone[] findZonesInChunk(int cx, int cz) {
-            // Get/update the mutex zones in the current chunk
+        private void findZonesInChunk(int cx, int cz) {
+            // Update the mutex zones in the current chunk
             if (cx != this.chunkX || cz != this.chunkZ) {
                 this.chunkX = cx;
                 this.chunkZ = cz;
                 MutexZone[] zones = byChunk.get(cx, cz);
-                if (zones == null) {
-                    zones = NO_ZONES;
-                }
-                this.chunkZones = zones;
-                return zones;
-            } else {
-                return this.chunkZones;
+                this.chunkZones = (zones == null) ? NO_ZONES : zones;
             }
         }
 
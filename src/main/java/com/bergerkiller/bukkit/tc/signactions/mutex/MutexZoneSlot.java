@@ -34,6 +34,17 @@ public class MutexZoneSlot {
     private List<MutexZone> zones;
     private List<String> statements;
     private int tickLastHardEntered = 0;
+    int refreshTick = 0; // Server tick at which onTick() must be called next
+    boolean refreshScheduled = false;
+    private int statEnterCount = 0;
+    private int statContentionCount = 0;
+    private int statConflictCount = 0;
+    private int statWaitCount = 0;
+    private long statWaitTicks = 0;
+    private int statMaxWaitTicks = 0;
+    private int statHoldCount = 0;
+    private long statHoldTicks = 0;
+    private int statMaxHoldTicks = 0;
 
     protected MutexZoneSlot(String name) {
         this.name = name;
@@ -103,10 +114,10 @@ public class MutexZoneSlot {
     }
 
     /**
-     * Called every tick to refresh mutex zones that have a group inside.
+     * Called to refresh mutex zones that have a group inside.
      * If a group leaves a zone, this eventually releases that group again.
-     * 
-     * @param trainWaiting Whether this is called while a train is waiting for the mutex
+     * Is called by {@link MutexZoneCache#refreshAll()} once the first group
+     * inside could have left, and schedules itself again while groups remain.
      */
     public void onTick() {
         if (!entered.isEmpty()) {
@@ -117,6 +128,7 @@ public class MutexZoneSlot {
                 EnteredGroup enteredGroup = iter.next();
                 if (!enteredGroup.refresh()) {
                     iter.remove();
+                    enteredGroup.onRemoved();
                     trainsHaveLeft = true;
                 } else if (enteredGroup.hardEnter) {
                     hasHardEnteredGroup = true;
@@ -126,6 +138,33 @@ public class MutexZoneSlot {
                 this.setLevers(false);
             }
         }
+        if (!entered.isEmpty()) {
+            int nowTicks = CommonUtil.getServerTicks();
+            int nextTick = Integer.MAX_VALUE;
+            for (EnteredGroup enteredGroup : entered) {
+                nextTick = Math.min(nextTick, enteredGroup.serverTickLastProbed() + TICK_DELAY_CLEAR_AUTOMATIC);
+            }
+            MutexZoneCache.scheduleRefresh(this, Math.max(nowTicks + 1, nextTick));
+        }
+    }
+
+    /**
+     * Gets statistics about how often trains waited for, and entered, this slot
+     * since the statistics were last reset
+     *
+     * @return statistics
+     */
+    public Statistics getStatistics() {
+        return new Statistics(this);
+    }
+
+    /**
+     * Resets the statistics returned by {@link #getStatistics()}
+     */
+    public void resetStatistics() {
+        statEnterCount = statContentionCount = statConflictCount = 0;
+        statWaitCount = statMaxWaitTicks = statHoldCount = statMaxHoldTicks = 0;
+        statWaitTicks = statHoldTicks = 0;
     }
 
     /**
@@ -176,6 +215,7 @@ public class MutexZoneSlot {
                         EnteredGroup entered = iter.next();
                         if (entered.group == group) {
                             iter.remove();
+                            entered.onRemoved();
                             wasGroupHardEntered = entered.hardEnter;
                         } else if (entered.hardEnter) {
                             hasHardEnteredGroup = true;
@@ -208,6 +248,7 @@ public class MutexZoneSlot {
 
         EnteredGroup enteredGroup = new EnteredGroup(group, distanceToMutex, nowTicks);
         this.entered.add(enteredGroup);
+        MutexZoneCache.scheduleRefresh(this, CommonUtil.getServerTicks() + TICK_DELAY_CLEAR_AUTOMATIC);
         return enteredGroup;
     }
 
@@ -344,6 +385,10 @@ public class MutexZoneSlot {
          */
         private final ArrayList<EnteredGroup> groupsDeactivatingMe = new ArrayList<>(2);
         private IntVector3 groupsDeactivatingMeConflictRail = null;
+        /** Server tick when this group was first told to wait for the mutex, -1 if not waiting */
+        private int waitStartTick = -1;
+        /** Server tick when this group last hard-entered the mutex */
+        private int hardEnterTick = 0;
 
         public EnteredGroup(MinecartGroup group, double distanceToMutex, int nowTicks) {
             this.group = group;
@@ -427,6 +472,37 @@ public class MutexZoneSlot {
          * @return Enter Result
          */
         public EnterResult enter(MutexZoneSlotType type, IntVector3 railBlock, boolean hard) {
+            boolean wasHardEntered = this.hardEnter;
+            EnterResult result = tryEnter(type, railBlock, hard);
+
+            // Track statistics
+            int nowTicks = CommonUtil.getServerTicks();
+            if (result.isOccupied()) {
+                if (this.waitStartTick == -1) {
+                    this.waitStartTick = nowTicks;
+                    statContentionCount++;
+                }
+            } else if (result == EnterResult.CONFLICT) {
+                statConflictCount++;
+            }
+            if (!wasHardEntered && this.hardEnter) {
+                statEnterCount++;
+                this.hardEnterTick = nowTicks;
+                if (this.waitStartTick != -1) {
+                    int waitTicks = nowTicks - this.waitStartTick;
+                    statWaitCount++;
+                    statWaitTicks += waitTicks;
+                    statMaxWaitTicks = Math.max(statMaxWaitTicks, waitTicks);
+                    this.waitStartTick = -1;
+                }
+            } else if (wasHardEntered && !this.hardEnter) {
+                onReleased(nowTicks);
+            }
+
+            return result;
+        }
+
+        private EnterResult tryEnter(MutexZoneSlotType type, IntVector3 railBlock, boolean hard) {
             // If true, returns SUCCESS_DELAY instead of SUCCESS to avoid trouble
             // We need one full tick to decide what train is allowed to go next
             // When this is the case, no train can ever hard-enter the mutex
@@ -561,6 +637,19 @@ public class MutexZoneSlot {
                    occupiedRails.isSmartLockedVerify(group, nowTicks, rail);
         }
 
+        private void onRemoved() {
+            if (this.hardEnter) {
+                onReleased(CommonUtil.getServerTicks());
+            }
+        }
+
+        private void onReleased(int nowTicks) {
+            int holdTicks = nowTicks - this.hardEnterTick;
+            statHoldCount++;
+            statHoldTicks += holdTicks;
+            statMaxHoldTicks = Math.max(statMaxHoldTicks, holdTicks);
+        }
+
         private boolean refresh() {
             // If group unloads or is deleted weirdly, clean it up right away
             if (group.isUnloaded() || !MinecartGroupStore.getGroups().contains(group)) {
@@ -582,6 +671,37 @@ public class MutexZoneSlot {
         }
     }
 
+    /**
+     * Statistics of a mutex zone slot, which can be used to tune signalling.
+     * Durations are measured in server ticks.
+     */
+    public static final class Statistics {
+        /** Number of times a group was given access to the mutex */
+        public final int enterCount;
+        /** Number of times a group had to wait because the mutex was occupied */
+        public final int contentionCount;
+        /** Number of times two groups were inside the mutex at the same time */
+        public final int conflictCount;
+        /** Average time a group waited before it was given access, 0 if none waited */
+        public final double averageWaitTicks;
+        /** Longest time a group waited before it was given access */
+        public final int maxWaitTicks;
+        /** Average time a group held the mutex, 0 if none left it yet */
+        public final double averageHoldTicks;
+        /** Longest time a group held the mutex */
+        public final int maxHoldTicks;
+
+        private Statistics(MutexZoneSlot slot) {
+            this.enterCount = slot.statEnterCount;
+            this.contentionCount = slot.statContentionCount;
+            this.conflictCount = slot.statConflictCount;
+            this.averageWaitTicks = (slot.statWaitCount == 0) ? 0.0 : ((double) slot.statWaitTicks / slot.statWaitCount);
+            this.maxWaitTicks = slot.statMaxWaitTicks;
+            this.averageHoldTicks = (slot.statHoldCount == 0) ? 0.0 : ((double) slot.statHoldTicks / slot.statHoldCount);
+            this.maxHoldTicks = slot.statMaxHoldTicks;
+        }
+    }
+
     private final class IgnoredEnteredGroup extends EnteredGroup {
 
         public IgnoredEnteredGroup(MinecartGroup group, double distanceToMutex, int nowTicks) {
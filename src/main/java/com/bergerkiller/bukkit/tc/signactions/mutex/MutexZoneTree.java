@@ -0,0 +1,192 @@
+package com.bergerkiller.bukkit.tc.signactions.mutex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import com.bergerkiller.bukkit.common.bases.IntVector3;
+
+/**
+ * Bounding volume hierarchy of the mutex zones of a world. Zones are split
+ * along the longest axis of the area they cover, so that point and box queries
+ * only look at the few zones nearby, even in areas with many nested zones.<br>
+ * <br>
+ * The tree is immutable and is built again when zones are added or removed.
+ * When more than one zone matches, zones that were added first are returned first.
+ */
+final class MutexZoneTree {
+    public static final MutexZoneTree EMPTY = new MutexZoneTree(new MutexZone[0]);
+    private static final int LEAF_SIZE = 4;
+    private final MutexZone[] zones;
+    private final int[] order;
+    private final Node root;
+
+    /**
+     * Builds a new tree
+     *
+     * @param zones Zones to put in the tree, in the order they were added
+     */
+    public MutexZoneTree(MutexZone[] zones) {
+        Integer[] indices = new Integer[zones.length];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = i;
+        }
+        this.root = (indices.length == 0) ? null : build(zones, indices, 0, indices.length);
+        this.zones = new MutexZone[indices.length];
+        this.order = new int[indices.length];
+        for (int i = 0; i < indices.length; i++) {
+            this.zones[i] = zones[indices[i]];
+            this.order[i] = indices[i];
+        }
+    }
+
+    /**
+     * Finds the zone that contains a block. If more than one zone contains
+     * the block, the zone that was added first is returned.
+     *
+     * @param block Block coordinates
+     * @return zone containing the block, or null if there is none
+     */
+    public MutexZone findContaining(IntVector3 block) {
+        if (this.root == null) {
+            return null;
+        }
+        int best = this.root.findContaining(block, -1);
+        return (best == -1) ? null : this.zones[best];
+    }
+
+    /**
+     * Checks whether any zone overlaps with an area of blocks
+     *
+     * @return True if a zone overlaps with the area
+     */
+    public boolean intersectsAny(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return this.root != null && this.root.intersectsAny(minX, minY, minZ, maxX, maxY, maxZ);
+    }
+
+    /**
+     * Finds all zones that overlap with an area of blocks
+     *
+     * @return zones that overlap with the area, in the order they were added
+     */
+    public List<MutexZone> findIntersecting(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        if (this.root == null) {
+            return new ArrayList<MutexZone>(0);
+        }
+        List<Integer> found = new ArrayList<Integer>();
+        this.root.collect(minX, minY, minZ, maxX, maxY, maxZ, found);
+        if (found.size() > 1) {
+            found.sort(Comparator.comparingInt(i -> this.order[i]));
+        }
+        List<MutexZone> result = new ArrayList<MutexZone>(found.size());
+        for (Integer index : found) {
+            result.add(this.zones[index]);
+        }
+        return result;
+    }
+
+    private Node build(MutexZone[] zones, Integer[] indices, int from, int to) {
+        Node node = new Node(from, to);
+        for (int i = from; i < to; i++) {
+            node.include(zones[indices[i]]);
+        }
+        if ((to - from) > LEAF_SIZE) {
+            // Split at the median of the zone centers along the longest axis
+            int sizeX = node.maxX - node.minX;
+            int sizeY = node.maxY - node.minY;
+            int sizeZ = node.maxZ - node.minZ;
+            Comparator<Integer> comparator;
+            if (sizeX >= sizeY && sizeX >= sizeZ) {
+                comparator = Comparator.comparingInt(i -> zones[i].start.x + zones[i].end.x);
+            } else if (sizeZ >= sizeY) {
+                comparator = Comparator.comparingInt(i -> zones[i].start.z + zones[i].end.z);
+            } else {
+                comparator = Comparator.comparingInt(i -> zones[i].start.y + zones[i].end.y);
+            }
+            Arrays.sort(indices, from, to, comparator);
+            int mid = (from + to) >>> 1;
+            node.left = build(zones, indices, from, mid);
+            node.right = build(zones, indices, mid, to);
+        }
+        return node;
+    }
+
+    private final class Node {
+        public final int from, to;
+        public int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        public int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        public Node left = null;
+        public Node right = null;
+
+        public Node(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        public void include(MutexZone zone) {
+            minX = Math.min(minX, zone.start.x);
+            minY = Math.min(minY, zone.start.y);
+            minZ = Math.min(minZ, zone.start.z);
+            maxX = Math.max(maxX, zone.end.x);
+            maxY = Math.max(maxY, zone.end.y);
+            maxZ = Math.max(maxZ, zone.end.z);
+        }
+
+        public boolean intersects(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            return this.minX <= maxX && this.maxX >= minX &&
+                   this.minY <= maxY && this.maxY >= minY &&
+                   this.minZ <= maxZ && this.maxZ >= minZ;
+        }
+
+        public int findContaining(IntVector3 block, int best) {
+            if (!intersects(block.x, block.y, block.z, block.x, block.y, block.z)) {
+                return best;
+            } else if (left != null) {
+                return right.findContaining(block, left.findContaining(block, best));
+            }
+            for (int i = from; i < to; i++) {
+                if ((best == -1 || order[i] < order[best]) && zones[i].containsBlock(block)) {
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        public boolean intersectsAny(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+            if (!intersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+                return false;
+            } else if (left != null) {
+                return left.intersectsAny(minX, minY, minZ, maxX, maxY, maxZ) ||
+                       right.intersectsAny(minX, minY, minZ, maxX, maxY, maxZ);
+            }
+            for (int i = from; i < to; i++) {
+                if (zoneIntersects(zones[i], minX, minY, minZ, maxX, maxY, maxZ)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public void collect(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, List<Integer> result) {
+            if (!intersects(minX, minY, minZ, maxX, maxY, maxZ)) {
+                return;
+            } else if (left != null) {
+                left.collect(minX, minY, minZ, maxX, maxY, maxZ, result);
+                right.collect(minX, minY, minZ, maxX, maxY, maxZ, result);
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                if (zoneIntersects(zones[i], minX, minY, minZ, maxX, maxY, maxZ)) {
+                    result.add(i);
+                }
+            }
+        }
+    }
+
+    private static boolean zoneIntersects(MutexZone zone, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        return zone.start.x <= maxX && zone.end.x >= minX &&
+               zone.start.y <= maxY && zone.end.y >= minY &&
+               zone.start.z <= maxZ && zone.end.z >= minZ;
+    }
+}
@@ -37,6 +37,8 @@ public class SpawnSign {
     private String spawnFormat;
     private LongHashMap<SignSpawnChunk> chunks = new LongHashMap<SignSpawnChunk>();
     private int num_chunks_loaded = 0;
+    long scheduledSpawnTime = Long.MAX_VALUE; // managed by SpawnSignManager
+    long scheduleOrder = 0; // managed by SpawnSignManager
 
     SpawnSign(TrainCarts plugin, OfflineSignStore store, OfflineSign sign, SpawnSignManager.SpawnSignMetadata metadata) {
         this.plugin = plugin;
@@ -141,6 +143,22 @@ public class SpawnSign {
         }
     }
 
+    /**
+     * Gets the time at which this spawn sign should spawn next, after a
+     * time at which spawns were last handled. Returns MAX_VALUE when this
+     * spawn sign is inactive.
+     *
+     * @param afterTime Time until which spawns were handled
+     * @return next spawn timestamp in milliseconds
+     */
+    long getNextSpawnTime(long afterTime) {
+        if (!this.isActive() || !this.hasInterval()) {
+            return Long.MAX_VALUE;
+        }
+        long numIntervals = Math.floorDiv(afterTime - state.autoSpawnStartTime, state.intervalMillis) + 1;
+        return state.autoSpawnStartTime + (numIntervals * state.intervalMillis);
+    }
+
     /**
      * Checks whether this spawn sign is powered by redstone / active
      * 
@@ -231,6 +249,16 @@ public class SpawnSign {
         }
     }
 
+    /**
+     * Gets whether the chunks around this spawn sign are still kept loaded after
+     * spawning, waiting for {@link #loadChunksAsyncResetAuto()} to release them
+     *
+     * @return True if the chunks are waiting to be released
+     */
+    boolean isFreeingChunks() {
+        return this.ticksUntilFreeing > 0;
+    }
+
     /**
      * Removes this spawn sign from the spawn sign manager
      */
@@ -278,6 +306,7 @@ public class SpawnSign {
 
             // Keep the area loaded for 2 more ticks, allowing the train to activate signs
             this.ticksUntilFreeing = 2;
+            this.plugin.getSpawnSignManager().notifySpawned(this);
 
             // Ensure all chunks we may need are loaded (getChunk())
             for (SignSpawnChunk chunk : this.chunks.getValues()) {
@@ -4,10 +4,16 @@ import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import org.bukkit.block.Block;
 import org.bukkit.plugin.java.JavaPlugin;
@@ -23,15 +29,29 @@ import com.bergerkiller.bukkit.tc.offline.sign.OfflineSignStore;
 /**
  * Tracks all the spawn signs globally on the server, and tracks the regular
  * interval of spawning trains at them. Every tick new chunks are routinely loaded
- * asynchronously prior to new spawns to minimize performance problems.
+ * asynchronously prior to new spawns to minimize performance problems.<br>
+ * <br>
+ * Spawn signs are kept ordered by the time they spawn next, in one lane for
+ * signs that must still start loading chunks, and one lane for signs that must
+ * spawn. Every tick only the signs at the front of these lanes that are due are
+ * looked at. The next spawn time is computed from the {@link SpawnSignMetadata}
+ * of the sign, and is computed again only when that metadata changes.
  */
 public class SpawnSignManager {
     public static final long SPAWN_WARMUP_TIME = 10000; // give 10 seconds time to load chunks
     public static final long SPAWN_LOAD_DEBOUNCE = 30000; // Keep the area around a spawn sign loaded for at most 30s
+    private static final Comparator<SpawnSign> BY_SPAWN_TIME = Comparator.comparingLong((SpawnSign s) -> s.scheduledSpawnTime)
+            .thenComparingLong(s -> s.scheduleOrder);
     private final TrainCarts plugin;
     private final UpdateTask updateTask;
     private final Map<OfflineBlock, SpawnSign> signs = new HashMap<OfflineBlock, SpawnSign>();
+    private final TreeSet<SpawnSign> warmupLane = new TreeSet<SpawnSign>(BY_SPAWN_TIME); // must start loading chunks
+    private final TreeSet<SpawnSign> spawnLane = new TreeSet<SpawnSign>(BY_SPAWN_TIME); // must spawn
+    private final Set<SpawnSign> warming = new HashSet<SpawnSign>(); // loading chunks, taken from the warmup lane
+    private final Set<SpawnSign> releasing = new HashSet<SpawnSign>(); // spawned, chunks must be released
+    private long handledTime = Long.MAX_VALUE; // spawns up until this time have been handled
     private List<SpawnSign> cachedSortedSigns = null; // when null, is re-sorted
+    private long scheduleOrder = 0;
 
     public SpawnSignManager(TrainCarts plugin) {
         this.plugin = plugin;
@@ -44,25 +64,29 @@ public class SpawnSignManager {
             public void onUpdated(OfflineSignStore store, OfflineSign sign, SpawnSignMetadata oldValue, SpawnSignMetadata newValue) {
                 SpawnSign spawnSign = signs.get(sign.getBlock());
                 if (spawnSign != null) {
+                    unschedule(spawnSign);
                     spawnSign.updateState(sign, newValue);
-                    notifyChanged();
+                    schedule(spawnSign);
                 }
             }
 
             @Override
             public void onAdded(OfflineSignStore store, OfflineSign sign, SpawnSignMetadata metadata) {
                 SpawnSign newSpawnSign = new SpawnSign(plugin, store, sign, metadata);
+                newSpawnSign.scheduleOrder = scheduleOrder++;
                 signs.put(sign.getBlock(), newSpawnSign);
-                notifyChanged();
+                schedule(newSpawnSign);
             }
 
             @Override
             public void onRemoved(OfflineSignStore store, OfflineSign sign, SpawnSignMetadata metadata) {
                 SpawnSign removedSign = signs.remove(sign.getBlock());
                 if (removedSign != null) {
+                    unschedule(removedSign);
+                    releasing.remove(removedSign);
                     removedSign.loadChunksAsyncReset();
+                    cachedSortedSigns = null;
                 }
-                notifyChanged();
             }
 
             @Override
@@ -120,6 +144,10 @@ public class SpawnSignManager {
             old_sign.loadChunksAsyncReset();
         }
         this.signs.clear();
+        this.warmupLane.clear();
+        this.spawnLane.clear();
+        this.warming.clear();
+        this.releasing.clear();
         this.cachedSortedSigns = null;
     }
 
@@ -175,37 +203,75 @@ public class SpawnSignManager {
 
     /**
      * Gets a list of spawn signs, sorted with the spawn sign that is soonest
-     * to spawn at the beginning of the list.
+     * to spawn at the beginning of the list. Spawn signs that do not spawn
+     * automatically are at the end of the list.
      * 
-     * @return sorted spawn signs
+     * @return sorted spawn signs, unmodifiable
      */
     public List<SpawnSign> getSigns() {
         if (this.cachedSortedSigns == null) {
-            this.cachedSortedSigns = new ArrayList<SpawnSign>(this.signs.values());
-
-            // Doesn't appear to be needed anymore.
-            /*
-            Collections.sort(this.cachedSortedSigns, new Comparator<SpawnSign>() {
-                @Override
-                public int compare(SpawnSign s1, SpawnSign s2) {
-                    return Long.compare(s1.getNextSpawnTime(), s2.getNextSpawnTime());
+            List<SpawnSign> result = new ArrayList<SpawnSign>(this.signs.size());
+            result.addAll(this.spawnLane);
+            for (SpawnSign sign : this.signs.values()) {
+                if (sign.scheduledSpawnTime == Long.MAX_VALUE) {
+                    result.add(sign);
                 }
-            });
-            */
+            }
+            this.cachedSortedSigns = Collections.unmodifiableList(result);
         }
         return this.cachedSortedSigns;
     }
 
     /**
-     * Tells the manager that a spawn sign has changed prompting re-saving and
-     * resetting of the sorted list.
+     * Tells the manager that a spawn sign has changed, re-computing when all
+     * spawn signs spawn next.
+     *
+     * @deprecated Spawn signs are rescheduled automatically when their metadata
+     *             changes, calling this is no longer needed
      */
+    @Deprecated
     public void notifyChanged() {
+        for (SpawnSign sign : this.signs.values()) {
+            unschedule(sign);
+            schedule(sign);
+        }
+        this.cachedSortedSigns = null;
+    }
+
+    /**
+     * Tells the manager that a spawn sign spawned a train, after which the chunks
+     * kept loaded around it must be released again
+     *
+     * @param sign Spawn sign that spawned
+     */
+    void notifySpawned(SpawnSign sign) {
+        if (this.signs.get(sign.getLocation()) == sign) {
+            this.releasing.add(sign);
+        }
+    }
+
+    private void schedule(SpawnSign sign) {
         this.cachedSortedSigns = null;
+        long afterTime = (this.handledTime == Long.MAX_VALUE) ? System.currentTimeMillis() : this.handledTime;
+        sign.scheduledSpawnTime = sign.getNextSpawnTime(afterTime);
+        if (sign.scheduledSpawnTime != Long.MAX_VALUE) {
+            this.warmupLane.add(sign);
+            this.spawnLane.add(sign);
+        }
+    }
+
+    private void unschedule(SpawnSign sign) {
+        // Must be done before the scheduled spawn time changes, as it is used to find the sign
+        if (sign.scheduledSpawnTime != Long.MAX_VALUE) {
+            this.warmupLane.remove(sign);
+            this.spawnLane.remove(sign);
+            this.warming.remove(sign);
+            sign.scheduledSpawnTime = Long.MAX_VALUE;
+            this.cachedSortedSigns = null;
+        }
     }
 
     private class UpdateTask extends Task {
-        private long previousTime = Long.MAX_VALUE;
 
         public UpdateTask(JavaPlugin plugin) {
             super(plugin);
@@ -214,22 +280,43 @@ public class SpawnSignManager {
         @Override
         public void run() {
             long currentTime = System.currentTimeMillis();
-            if (previousTime != Long.MAX_VALUE) {
-                for (SpawnSign pending : getSigns()) {
-                    long remainingMillis = pending.getRemaining(previousTime, currentTime);
-                    if (remainingMillis > SPAWN_LOAD_DEBOUNCE) {
-                        pending.loadChunksAsyncResetAuto();
-                    } else if (remainingMillis == 0) {
-                        pending.spawn();
-                    } else if (remainingMillis <= SPAWN_WARMUP_TIME) {
-                        // Warmup! How many chunks are loaded versus should be loaded by now?
-                        pending.loadChunksAsync(1.0 - ((double) (remainingMillis-1000) / (double) SPAWN_WARMUP_TIME));
-                    }
+            handledTime = currentTime;
+
+            // Release chunks of signs that spawned, unless they spawn again soon
+            for (Iterator<SpawnSign> iter = releasing.iterator(); iter.hasNext();) {
+                SpawnSign sign = iter.next();
+                if ((sign.scheduledSpawnTime - currentTime) > SPAWN_LOAD_DEBOUNCE) {
+                    sign.loadChunksAsyncResetAuto();
+                }
+                if (!sign.isFreeingChunks()) {
+                    iter.remove();
                 }
             }
-            previousTime = currentTime;
-        }
 
+            // Signs that spawn soon start loading chunks
+            SpawnSign sign;
+            while (!warmupLane.isEmpty() && ((sign = warmupLane.first()).scheduledSpawnTime - SPAWN_WARMUP_TIME) <= currentTime) {
+                warmupLane.pollFirst();
+                warming.add(sign);
+            }
+            for (SpawnSign pending : warming) {
+                long remainingMillis = pending.scheduledSpawnTime - currentTime;
+                if (remainingMillis > 0) {
+                    // Warmup! How many chunks are loaded versus should be loaded by now?
+                    pending.loadChunksAsync(1.0 - ((double) (remainingMillis-1000) / (double) SPAWN_WARMUP_TIME));
+                }
+            }
+
+            // Spawn signs that are due, and schedule their next spawn
+            while (!spawnLane.isEmpty() && (sign = spawnLane.first()).scheduledSpawnTime <= currentTime) {
+                unschedule(sign);
+                sign.spawn();
+                if (signs.get(sign.getLocation()) == sign) {
+                    unschedule(sign); // Spawning can update the metadata, which schedules it
+                    schedule(sign);
+                }
+            }
+        }
     }
 
     public static final class SpawnSignMetadata {
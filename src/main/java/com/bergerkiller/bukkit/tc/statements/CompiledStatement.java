@@ -0,0 +1,86 @@
+package com.bergerkiller.bukkit.tc.statements;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.bergerkiller.bukkit.tc.TCConfig;
+
+/**
+ * Statement text that has been parsed once, so it can be evaluated repeatedly
+ * without parsing it again. Statement shortcuts are replaced, the '!' inversion
+ * prefix and '@' array syntax are parsed, and the statements that match the text
+ * are looked up in the order they are tried.<br>
+ * <br>
+ * More than one statement can match, because statements that require a train
+ * or a sign event are skipped when evaluated without one. Use
+ * {@link Statement#compile(String)} to obtain a cached instance.<br>
+ * <br>
+ * Only the text up to the matched statement is compiled. The remainder, such as
+ * numeric comparisons, item names and operators, is still parsed by the matched
+ * statement every time it is handled.
+ */
+public final class CompiledStatement {
+    final String text;
+    final String[] array;
+    final boolean inverted;
+    final Candidate[] candidates;
+
+    private CompiledStatement(String text, String[] array, boolean inverted, Candidate[] candidates) {
+        this.text = text;
+        this.array = array;
+        this.inverted = inverted;
+        this.candidates = candidates;
+    }
+
+    /**
+     * Parses statement text
+     *
+     * @param statementText Text to parse, before statement shortcuts are replaced
+     * @param statements Registered statements, in the order they are tried
+     * @return compiled statement
+     */
+    static CompiledStatement compile(String statementText, List<Statement> statements) {
+        boolean inv = false;
+        String text = TCConfig.statementShortcuts.replace(statementText);
+        while (!text.isEmpty() && text.charAt(0) == '!') {
+            text = text.substring(1);
+            inv = !inv;
+        }
+        if (text.isEmpty()) {
+            return new CompiledStatement(text, null, inv, new Candidate[0]);
+        }
+
+        String lowerText = text.toLowerCase();
+        int idx = lowerText.indexOf('@');
+        String arrayText = idx == -1 ? null : lowerText.substring(0, idx);
+        String[] array = idx == -1 ? null : Statement.parseArray(text.substring(idx + 1));
+        List<Candidate> candidates = new ArrayList<Candidate>(2);
+        for (Statement statement : statements) {
+            Candidate candidate;
+            if (arrayText != null && statement.matchArray(arrayText)) {
+                candidate = new Candidate(statement, true);
+            } else if (statement.match(lowerText)) {
+                candidate = new Candidate(statement, false);
+            } else {
+                continue;
+            }
+            candidates.add(candidate);
+
+            // Statements that need neither a train nor an event are always used
+            if (!statement.requiresTrain() && !statement.requiredEvent()) {
+                break;
+            }
+        }
+        return new CompiledStatement(text, array, inv, candidates.toArray(new Candidate[candidates.size()]));
+    }
+
+    static final class Candidate {
+        public final Statement statement;
+        public final boolean isArray;
+
+        public Candidate(Statement statement, boolean isArray) {
+            this.statement = statement;
+            this.isArray = isArray;
+        }
+    }
+}
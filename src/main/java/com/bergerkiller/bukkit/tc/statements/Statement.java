@@ -1,16 +1,26 @@
 package com.bergerkiller.bukkit.tc.statements;
 
-import com.bergerkiller.bukkit.tc.TCConfig;
 import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
 import com.bergerkiller.bukkit.tc.controller.MinecartMember;
 import com.bergerkiller.bukkit.tc.events.SignActionEvent;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public abstract class Statement {
+    private static final int COMPILED_CACHE_SIZE = 1024;
     private static List<Statement> statements = new ArrayList<>();
+    private static final Map<String, CompiledStatement> compiled = new LinkedHashMap<String, CompiledStatement>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CompiledStatement> eldest) {
+            return this.size() > COMPILED_CACHE_SIZE;
+        }
+    };
 
     public static String[] parseArray(String text) {
         return text.split(";", -1);
@@ -42,6 +52,36 @@ public abstract class Statement {
 
     public static void deinit() {
         statements.clear();
+        clearCompiled();
+    }
+
+    /**
+     * Parses statement text so that it can be evaluated quickly. Statements are
+     * cached by their text, so statements on signs are only parsed the first time
+     * they are used, and again when the sign text changes.
+     *
+     * @param text Statement text
+     * @return compiled statement
+     */
+    public static CompiledStatement compile(String text) {
+        synchronized (compiled) {
+            CompiledStatement statement = compiled.get(text);
+            if (statement == null) {
+                statement = CompiledStatement.compile(text, statements);
+                compiled.put(text, statement);
+            }
+            return statement;
+        }
+    }
+
+    /**
+     * Forgets all compiled statements. Must be called when the registered
+     * statements or statement shortcuts change.
+     */
+    public static void clearCompiled() {
+        synchronized (compiled) {
+            compiled.clear();
+        }
     }
 
     public static <T extends Statement> T register(T statement) {
@@ -60,6 +100,7 @@ public abstract class Statement {
         }
 
         statements.add(index, statement);
+        clearCompiled();
         return statement;
     }
 
@@ -101,7 +142,8 @@ public abstract class Statement {
      * <br>
      * Empty statements are ignored. Statements preceeding with & use AND-logic
      * with all the statements prior, and statements preceeding with | use OR-logic.
-     * Others default to AND.
+     * Others default to AND. Statements are combined from first to last, and
+     * statements that can no longer change the result are not evaluated.
      *
      * @param member to use, or null to use group
      * @param group  to use, or null to use member
@@ -121,11 +163,10 @@ public abstract class Statement {
                     isLogicAnd = false;
                     statementText = statementText.substring(1);
                 }
-                boolean result = Statement.has(member, group, statementText, event);
-                if (isLogicAnd) {
-                    match &= result;
-                } else {
-                    match |= result;
+
+                // Skip statements that can not change the result anymore
+                if (isLogicAnd ? match : !match) {
+                    match = Statement.has(member, group, statementText, event);
                 }
             }
         }
@@ -303,45 +344,30 @@ public abstract class Statement {
             this.lastStatement = null;
             this.lastStatementIsArray = false;
 
-            boolean inv = false;
-            String text = TCConfig.statementShortcuts.replace(this.text);
-            while (!text.isEmpty() && text.charAt(0) == '!') {
-                text = text.substring(1);
-                inv = !inv;
-            }
-            if (text.isEmpty()) {
-                return inv;
-            }
-            String lowerText = text.toLowerCase();
-            int idx = lowerText.indexOf('@');
-            String arrayText = idx == -1 ? null : lowerText.substring(0, idx);
-            String[] array = idx == -1 ? null : parseArray(text.substring(idx + 1));
-            for (Statement statement : statements) {
-                if (arrayText != null && statement.matchArray(arrayText)) {
-                    this.lastStatement = statement;
-                    this.lastStatementIsArray = true;
-                    if (signEvent == null && statement.requiredEvent()) {
-                        continue;
-                    }
+            CompiledStatement compiled = compile(this.text);
+            boolean inv = compiled.inverted;
+            for (CompiledStatement.Candidate candidate : compiled.candidates) {
+                Statement statement = candidate.statement;
+                this.lastStatement = statement;
+                this.lastStatementIsArray = true;
+                if (signEvent == null && statement.requiredEvent()) {
+                    continue;
+                }
+                if (candidate.isArray) {
                     if (member != null) {
-                        return statement.handleArray(member, array, signEvent) != inv;
+                        return statement.handleArray(member, compiled.array, signEvent) != inv;
                     } else if (group != null) {
-                        return statement.handleArray(group, array, signEvent) != inv;
+                        return statement.handleArray(group, compiled.array, signEvent) != inv;
                     } else if (!statement.requiresTrain()) {
-                        return statement.handleArray((MinecartMember<?>) null, array, signEvent) != inv;
-                    }
-                } else if (statement.match(lowerText)) {
-                    this.lastStatement = statement;
-                    this.lastStatementIsArray = true;
-                    if (signEvent == null && statement.requiredEvent()) {
-                        continue;
+                        return statement.handleArray((MinecartMember<?>) null, compiled.array, signEvent) != inv;
                     }
+                } else {
                     if (member != null) {
-                        return statement.handle(member, text, signEvent) != inv;
+                        return statement.handle(member, compiled.text, signEvent) != inv;
                     } else if (group != null) {
-                        return statement.handle(group, text, signEvent) != inv;
+                        return statement.handle(group, compiled.text, signEvent) != inv;
                     } else if (!statement.requiresTrain()) {
-                        return statement.handle((MinecartMember<?>) null, text, signEvent) != inv;
+                        return statement.handle((MinecartMember<?>) null, compiled.text, signEvent) != inv;
                     }
                 }
             }
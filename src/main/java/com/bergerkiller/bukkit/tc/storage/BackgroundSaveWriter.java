@@ -0,0 +1,320 @@
+package com.bergerkiller.bukkit.tc.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+import com.bergerkiller.bukkit.common.config.ConfigurationNode;
+import com.bergerkiller.bukkit.common.config.FileConfiguration;
+import com.bergerkiller.bukkit.tc.TrainCarts;
+
+/**
+ * Writes the data stores of TrainCarts to disk on a background thread.
+ * On the main thread a cheap snapshot is taken of a store that changed, which
+ * is then encoded, compressed and written to file by the background thread.
+ * When a store is saved again before its previous snapshot was written, only
+ * the latest snapshot is written.<br>
+ * <br>
+ * The time spent taking a snapshot and writing it is tracked for every store.
+ */
+public class BackgroundSaveWriter {
+    private final TrainCarts plugin;
+    private final Object lock = new Object();
+    private final Map<String, Snapshot> pending = new LinkedHashMap<>();
+    private final Map<String, StoreTimings> timings = new LinkedHashMap<>();
+    private Thread thread = null;
+    private String writing = null;
+    private boolean shuttingDown = false;
+
+    public BackgroundSaveWriter(TrainCarts plugin) {
+        this.plugin = plugin;
+    }
+
+    /**
+     * Gets the TrainCarts plugin instance that owns this writer
+     *
+     * @return TrainCarts plugin
+     */
+    public TrainCarts getPlugin() {
+        return this.plugin;
+    }
+
+    /**
+     * Takes a snapshot of a store and schedules it for writing to disk. The snapshot
+     * supplier is called right away on the current thread, and should return null if
+     * the store has no changes that need saving.
+     *
+     * @param storeName Name of the store, used to replace older pending snapshots and for timings
+     * @param snapshotSupplier Supplier of the snapshot to write
+     */
+    public void submit(String storeName, Supplier<Snapshot> snapshotSupplier) {
+        long startTime = System.nanoTime();
+        Snapshot snapshot = snapshotSupplier.get();
+        long duration = System.nanoTime() - startTime;
+        if (snapshot == null) {
+            return;
+        }
+
+        synchronized (lock) {
+            timings.computeIfAbsent(storeName, StoreTimings::new).snapshotTaken(duration);
+            pending.put(storeName, snapshot);
+            if (thread == null) {
+                shuttingDown = false;
+                thread = new Thread(this::runWorker, "TrainCarts:SaveWriterThread");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until all snapshots submitted before have been written to disk
+     */
+    public void sync() {
+        synchronized (lock) {
+            while (!pending.isEmpty() || writing != null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes all pending snapshots to disk and stops the background thread
+     */
+    public void stop() {
+        Thread thread;
+        synchronized (lock) {
+            shuttingDown = true;
+            lock.notifyAll();
+            thread = this.thread;
+        }
+        if (thread != null) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) { /* ignore */ }
+        }
+    }
+
+    /**
+     * Gets the timings of all the stores that have been saved so far
+     *
+     * @return store timings
+     */
+    public Collection<StoreTimings> getTimings() {
+        synchronized (lock) {
+            List<StoreTimings> result = new ArrayList<>(timings.size());
+            for (StoreTimings t : timings.values()) {
+                result.add(t.clone());
+            }
+            return result;
+        }
+    }
+
+    private void runWorker() {
+        while (true) {
+            String storeName;
+            Snapshot snapshot;
+            synchronized (lock) {
+                writing = null;
+                lock.notifyAll();
+                while (pending.isEmpty() && !shuttingDown) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) { /* ignore */ }
+                }
+                if (pending.isEmpty()) {
+                    thread = null;
+                    return; // Shutting down and everything was written
+                }
+
+                Map.Entry<String, Snapshot> next = pending.entrySet().iterator().next();
+                pending.remove(next.getKey());
+                storeName = writing = next.getKey();
+                snapshot = next.getValue();
+            }
+
+            long startTime = System.nanoTime();
+            try {
+                snapshot.write();
+            } catch (Throwable t) {
+                plugin.getLogger().log(Level.SEVERE, "Failed to save " + storeName, t);
+            }
+            long duration = System.nanoTime() - startTime;
+
+            synchronized (lock) {
+                timings.computeIfAbsent(storeName, StoreTimings::new).snapshotWritten(duration);
+            }
+        }
+    }
+
+    /**
+     * Creates a snapshot of a YAML configuration. The configuration is copied on the
+     * calling thread, and written to the file of the target configuration later.
+     *
+     * @param config Configuration to copy
+     * @param target Configuration to copy the configuration into, and to save
+     * @return snapshot
+     */
+    public static Snapshot snapshotYaml(ConfigurationNode config, FileConfiguration target) {
+        target.setTo(config);
+        return target::save;
+    }
+
+    /**
+     * Creates a snapshot of binary data. The encoder is called later on the writer
+     * thread, so it must only access data that was copied on the calling thread.
+     * The encoded data is then handed to the writer to be compressed and written to file.
+     *
+     * @param encoder Encodes a copy of the data to be saved
+     * @param writer Writes the encoded data to file
+     * @return snapshot
+     */
+    public static Snapshot snapshotData(DataEncoder encoder, DataSnapshotWriter writer) {
+        return () -> {
+            ByteArrayOutputStream b_stream = new ByteArrayOutputStream();
+            try (DataOutputStream stream = new DataOutputStream(b_stream)) {
+                encoder.encode(stream);
+            }
+            writer.write(b_stream.toByteArray());
+        };
+    }
+
+    /**
+     * A snapshot of a store that can be written to disk on another thread.
+     * Must not access the store it was taken from.
+     */
+    @FunctionalInterface
+    public static interface Snapshot {
+        void write() throws IOException;
+    }
+
+    /**
+     * Encodes the data of a store into a stream
+     */
+    @FunctionalInterface
+    public static interface DataEncoder {
+        void encode(DataOutputStream stream) throws IOException;
+    }
+
+    /**
+     * Writes data encoded by a {@link DataEncoder} to file
+     */
+    @FunctionalInterface
+    public static interface DataSnapshotWriter {
+        void write(byte[] data) throws IOException;
+    }
+
+    /**
+     * Tracks the time spent saving a single store
+     */
+    public static final class StoreTimings implements Cloneable {
+        private final String storeName;
+        private int saveCount = 0;
+        private int writeCount = 0;
+        private long lastSnapshotTime = 0;
+        private long lastWriteTime = 0;
+        private long totalSnapshotTime = 0;
+        private long totalWriteTime = 0;
+
+        private StoreTimings(String storeName) {
+            this.storeName = storeName;
+        }
+
+        private void snapshotTaken(long duration) {
+            this.saveCount++;
+            this.lastSnapshotTime = duration;
+            this.totalSnapshotTime += duration;
+        }
+
+        private void snapshotWritten(long duration) {
+            this.writeCount++;
+            this.lastWriteTime = duration;
+            this.totalWriteTime += duration;
+        }
+
+        /**
+         * Gets the name of the store
+         *
+         * @return store name
+         */
+        public String getStoreName() {
+            return this.storeName;
+        }
+
+        /**
+         * Gets the number of times a snapshot was taken of the store
+         *
+         * @return number of saves
+         */
+        public int getSaveCount() {
+            return this.saveCount;
+        }
+
+        /**
+         * Gets the number of times a snapshot was written to disk. This can be less
+         * than {@link #getSaveCount()} when snapshots were replaced before they were written.
+         *
+         * @return number of writes
+         */
+        public int getWriteCount() {
+            return this.writeCount;
+        }
+
+        /**
+         * Gets the time it took to take the last snapshot on the main thread, in nanoseconds
+         *
+         * @return last snapshot time
+         */
+        public long getLastSnapshotTime() {
+            return this.lastSnapshotTime;
+        }
+
+        /**
+         * Gets the time it took to write the last snapshot on the background thread, in nanoseconds
+         *
+         * @return last write time
+         */
+        public long getLastWriteTime() {
+            return this.lastWriteTime;
+        }
+
+        /**
+         * Gets the total time spent taking snapshots on the main thread, in nanoseconds
+         *
+         * @return total snapshot time
+         */
+        public long getTotalSnapshotTime() {
+            return this.totalSnapshotTime;
+        }
+
+        /**
+         * Gets the total time spent writing snapshots on the background thread, in nanoseconds
+         *
+         * @return total write time
+         */
+        public long getTotalWriteTime() {
+            return this.totalWriteTime;
+        }
+
+        @Override
+        public StoreTimings clone() {
+            try {
+                return (StoreTimings) super.clone();
+            } catch (CloneNotSupportedException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -33,6 +33,7 @@ public class OfflineGroup {
     public OfflineWorld world;
     private boolean loaded;
     public boolean isBeingRemoved = false;
+    OfflineGroupSimulation simulation = null;
 
     public OfflineGroup(MinecartGroup group) {
         this(group.size());
@@ -83,6 +84,15 @@ public class OfflineGroup {
         return this.loaded;
     }
 
+    /**
+     * Gets the simulation that keeps this group moving while it is unloaded
+     *
+     * @return simulation, or null if this group is not simulated
+     */
+    public OfflineGroupSimulation getSimulation() {
+        return this.simulation;
+    }
+
     public boolean isMoving() {
         for (OfflineMember member : members) {
             if (member.isMoving()) {
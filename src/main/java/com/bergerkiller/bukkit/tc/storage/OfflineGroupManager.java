@@ -5,6 +5,7 @@ import com.bergerkiller.bukkit.common.config.DataReader;
 import com.bergerkiller.bukkit.common.config.DataWriter;
 import com.bergerkiller.bukkit.common.offline.OfflineWorld;
 import com.bergerkiller.bukkit.common.offline.OfflineWorldMap;
+import com.bergerkiller.bukkit.common.utils.CommonUtil;
 import com.bergerkiller.bukkit.common.utils.EntityUtil;
 import com.bergerkiller.bukkit.common.utils.MathUtil;
 import com.bergerkiller.bukkit.common.utils.StreamUtil;
@@ -29,6 +30,7 @@ import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.function.BiConsumer;
 import java.util.logging.Level;
 
 public class OfflineGroupManager {
@@ -495,12 +497,35 @@ public class OfflineGroupManager {
         }
         synchronized (managers) {
             OfflineGroup wg = new OfflineGroup(group);
+            wg.simulation = OfflineGroupSimulation.start(group.getTrainCarts(), wg, group);
             OfflineGroupMapImpl map = get(world);
             wg.updateLoadedChunks(map);
             map.add(wg);
         }
     }
 
+    /**
+     * Advances the simulations of all unloaded trains on loaded worlds
+     *
+     * @param ticks Number of ticks elapsed since the previous update
+     * @param restore Called for trains that should now be restored, with the world they are on
+     */
+    public static void updateSimulations(int ticks, BiConsumer<World, OfflineGroup> restore) {
+        synchronized (managers) {
+            for (OfflineGroupMapImpl map : new ArrayList<>(managers.values())) {
+                World world = map.getWorld().getLoadedWorld();
+                if (world == null || !map.canRestoreGroups()) {
+                    continue;
+                }
+                for (OfflineGroup group : new ArrayList<>(map.values())) {
+                    if (group.simulation != null && group.simulation.update(world, ticks)) {
+                        restore.accept(world, group);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Check if a minecart is in an offline group<br>
      * Used to check if a minecart can be linked
@@ -607,7 +632,17 @@ public class OfflineGroupManager {
 
         public void restoreGroup(TrainCarts plugin, OfflineGroup group) {
             this.remove(group);
-            group.create(plugin, group.world.getLoadedWorld());
+            MinecartGroup restored = group.create(plugin, group.world.getLoadedWorld());
+            if (restored != null && group.simulation != null && group.simulation.hasPassedNode()) {
+                // Teleport the next tick, as this may be called while handling a chunk load event
+                // If the train can not be teleported it stays where players loaded it
+                final OfflineGroupSimulation simulation = group.simulation;
+                CommonUtil.nextTick(() -> {
+                    if (!restored.isUnloaded()) {
+                        simulation.relocate(restored);
+                    }
+                });
+            }
         }
 
         public void refreshGroups(TrainCarts traincarts) {
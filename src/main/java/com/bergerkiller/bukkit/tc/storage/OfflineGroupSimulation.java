@@ -0,0 +1,287 @@
+package com.bergerkiller.bukkit.tc.storage;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.util.Vector;
+
+import com.bergerkiller.bukkit.common.BlockLocation;
+import com.bergerkiller.bukkit.common.bases.IntVector3;
+import com.bergerkiller.bukkit.common.offline.OfflineWorld;
+import com.bergerkiller.bukkit.common.utils.WorldUtil;
+import com.bergerkiller.bukkit.tc.TCConfig;
+import com.bergerkiller.bukkit.tc.TrainCarts;
+import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
+import com.bergerkiller.bukkit.tc.controller.MinecartMember;
+import com.bergerkiller.bukkit.tc.controller.components.RailJunction;
+import com.bergerkiller.bukkit.tc.controller.components.RailPiece;
+import com.bergerkiller.bukkit.tc.pathfinding.PathConnection;
+import com.bergerkiller.bukkit.tc.pathfinding.PathNode;
+import com.bergerkiller.bukkit.tc.pathfinding.PathWorld;
+import com.bergerkiller.bukkit.tc.properties.TrainProperties;
+import com.bergerkiller.bukkit.tc.properties.TrainPropertiesStore;
+import com.bergerkiller.bukkit.tc.signactions.mutex.MutexZoneCache;
+
+/**
+ * Keeps advancing a train that was unloaded while driving to a destination along
+ * the route found by the path finding routing table. The train is moved virtually
+ * using the distances between the path nodes, its speed when it unloaded and a fixed
+ * delay at every station passed. Once the train virtually reaches a node in a loaded
+ * area, or reaches its destination, it is restored and teleported to that node.<br>
+ * <br>
+ * The actual Minecart entities stay where they were unloaded until the train is restored.
+ * Mutex zones, other trains and destination changes by station signs are not simulated.
+ * For that reason the train is only teleported when the node is in a loaded chunk, is not
+ * inside a mutex zone and no other train occupies its rail. Otherwise, or when the train is
+ * restored early because players came near it, it is restored where it was unloaded.
+ */
+public class OfflineGroupSimulation {
+    private final String trainName;
+    private final String startNodeName;
+    private final PathConnection[] route;
+    private final double speed;
+    private int routeIndex;
+    private double distance;
+    private double stationTicks;
+    private PathNode previousNode;
+    private PathNode node;
+    private boolean passedNode;
+    private boolean finished;
+
+    private OfflineGroupSimulation(String trainName, String startNodeName, PathNode node, PathConnection[] route, double speed, double distance) {
+        this.trainName = trainName;
+        this.startNodeName = startNodeName;
+        this.route = route;
+        this.speed = speed;
+        this.routeIndex = 0;
+        this.distance = distance;
+        this.stationTicks = 0.0;
+        this.previousNode = null;
+        this.node = node;
+        this.passedNode = false;
+        this.finished = false;
+    }
+
+    /**
+     * Starts simulating a group that is being unloaded. Only trains that are moving
+     * and have a destination that can be reached from the last path node they passed
+     * are simulated.
+     *
+     * @param plugin TrainCarts plugin instance
+     * @param offlineGroup Offline group created for the group
+     * @param group The group being unloaded
+     * @return simulation, or null if this group can not be simulated
+     */
+    public static OfflineGroupSimulation start(TrainCarts plugin, OfflineGroup offlineGroup, MinecartGroup group) {
+        if (!TCConfig.simulateUnloadedTrains || offlineGroup.members.length == 0 || !offlineGroup.isMoving()) {
+            return null;
+        }
+
+        TrainProperties properties = group.getProperties();
+        if (!properties.hasDestination() || properties.getLastPathNode().isEmpty()) {
+            return null;
+        }
+
+        PathWorld pathWorld = plugin.getPathProvider().getWorld(group.getWorld());
+        PathNode from = pathWorld.getNodeByName(properties.getLastPathNode());
+        PathNode to = pathWorld.getNodeByName(properties.getDestination());
+        if (from == null || to == null || from == to) {
+            return null;
+        }
+        PathConnection[] route = from.findRoute(to);
+        if (route.length == 0) {
+            return null;
+        }
+
+        // Speed is the same for all members, and is also set for trains that were being launched
+        OfflineMember head = offlineGroup.members[0];
+        double speed = Math.min(Math.sqrt(head.motX * head.motX + head.motZ * head.motZ), properties.getSpeedLimit());
+        if (speed <= 0.0) {
+            return null;
+        }
+
+        // The distance traveled since passing the node is not known, this is a good guess
+        Location headLoc = group.head().getEntity().getLocation();
+        double dx = headLoc.getX() - (from.location.x + 0.5);
+        double dy = headLoc.getY() - (from.location.y + 0.5);
+        double dz = headLoc.getZ() - (from.location.z + 0.5);
+        double distance = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        distance = Math.min(distance, 0.99 * route[0].distance);
+
+        return new OfflineGroupSimulation(properties.getTrainName(), properties.getLastPathNode(), from, route, speed, distance);
+    }
+
+    /**
+     * Gets whether this train has virtually passed at least one path node since it was unloaded.
+     * If so, the train is teleported to that node when it is restored, if possible.
+     *
+     * @return True if the train passed a path node
+     */
+    public boolean hasPassedNode() {
+        return this.passedNode;
+    }
+
+    /**
+     * Gets the path node last passed by the train
+     *
+     * @return last passed path node
+     */
+    public PathNode getNode() {
+        return this.node;
+    }
+
+    /**
+     * Gets whether the train reached the end of the route or a path node in a loaded area,
+     * and is no longer advanced
+     *
+     * @return True if finished
+     */
+    public boolean isFinished() {
+        return this.finished;
+    }
+
+    /**
+     * Advances the train along the route by the number of ticks specified
+     *
+     * @param world World the train is on
+     * @param ticks Number of ticks that elapsed
+     * @return True if the train reached a path node in a loaded area, or reached the end of the route,
+     *         and should now be restored
+     */
+    public boolean update(World world, int ticks) {
+        if (this.isFinished()) {
+            return false;
+        }
+
+        double remainingTicks = ticks;
+        while (remainingTicks > 0.0) {
+            // Wait at stations that were passed
+            if (this.stationTicks > 0.0) {
+                double waited = Math.min(this.stationTicks, remainingTicks);
+                this.stationTicks -= waited;
+                remainingTicks -= waited;
+                continue;
+            }
+
+            // Move along the current connection, and stop if the next node is not reached yet
+            PathConnection connection = this.route[this.routeIndex];
+            double distanceLeft = connection.distance - this.distance;
+            double distanceMoved = remainingTicks * this.speed;
+            if (distanceMoved < distanceLeft) {
+                this.distance += distanceMoved;
+                break;
+            }
+
+            // Passed the next node
+            remainingTicks -= distanceLeft / this.speed;
+            this.distance = 0.0;
+            this.routeIndex++;
+            this.previousNode = this.node;
+            this.node = connection.destination;
+            this.passedNode = true;
+
+            // Keep the path node the train last passed up to date, so that routing remains correct
+            TrainProperties properties = TrainPropertiesStore.get(this.trainName);
+            if (properties != null && this.node.getName() != null) {
+                properties.setLastPathNode(this.node.getName());
+            }
+
+            // Restore the train once it is near players again, or the end of the route is reached
+            if (this.routeIndex >= this.route.length || isAreaLoaded(world, this.node.location)) {
+                this.finished = true;
+                return true;
+            }
+
+            if (this.node.isStation()) {
+                this.stationTicks = TCConfig.simulateUnloadedTrainsStationDelay;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Teleports a group that was restored to the path node this train last passed.
+     * This is only done when the simulation finished, and the node is in a loaded chunk,
+     * is not inside a mutex zone and is not occupied by another train. If the train
+     * is not teleported, the path node it last passed is reset to the node it passed
+     * before it was unloaded.
+     *
+     * @param group The restored group
+     * @return True if the group was teleported
+     */
+    public boolean relocate(MinecartGroup group) {
+        if (this.passedNode && this.finished && this.tryRelocate(group)) {
+            return true;
+        }
+
+        TrainProperties properties = group.getProperties();
+        if (this.passedNode && !this.startNodeName.isEmpty()) {
+            properties.setLastPathNode(this.startNodeName);
+        }
+        return false;
+    }
+
+    private boolean tryRelocate(MinecartGroup group) {
+        // Checked first, as looking up the block would load the chunk
+        World world = group.getWorld();
+        BlockLocation location = this.node.location;
+        if (world == null || !location.world.equals(world.getName()) || !isAreaLoaded(world, location)) {
+            return false;
+        }
+
+        // The simulation does not keep track of mutex zones or other trains
+        OfflineWorld offlineWorld = OfflineWorld.of(world);
+        if (MutexZoneCache.find(offlineWorld, new IntVector3(location.x, location.y, location.z)) != null) {
+            return false;
+        }
+        Block railBlock = location.getBlock();
+        if (railBlock == null) {
+            return false;
+        }
+        RailPiece railPiece = RailPiece.create(railBlock);
+        for (MinecartMember<?> member : railPiece.members()) {
+            if (member.getGroup() != group) {
+                return false;
+            }
+        }
+
+        BlockFace direction = this.findDirection(railPiece);
+        if (direction == null) {
+            return false;
+        }
+        group.teleportAndGo(railBlock, direction);
+        return true;
+    }
+
+    private BlockFace findDirection(RailPiece railPiece) {
+        List<RailJunction> junctions = railPiece.getJunctions();
+
+        // Take the junction of the connection leading onwards
+        if (this.routeIndex < this.route.length) {
+            String junctionName = this.route[this.routeIndex].junctionName;
+            for (RailJunction junction : junctions) {
+                if (junction.name().equals(junctionName)) {
+                    return junction.position().getMotionFace();
+                }
+            }
+        }
+
+        // Keep going in the same direction as the train came from
+        if (this.previousNode == null) {
+            return null;
+        }
+        BlockLocation from = this.previousNode.location;
+        BlockLocation to = this.node.location;
+        Vector direction = new Vector(to.x - from.x, to.y - from.y, to.z - from.z);
+        Optional<RailJunction> best = RailJunction.findBest(junctions, direction);
+        return best.isPresent() ? best.get().position().getMotionFace() : null;
+    }
+
+    private static boolean isAreaLoaded(World world, BlockLocation location) {
+        return WorldUtil.isChunkEntitiesLoaded(world, location.x >> 4, location.z >> 4);
+    }
+}
@@ -0,0 +1,80 @@
+package com.bergerkiller.bukkit.tc.storage;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import com.bergerkiller.bukkit.common.Task;
+import com.bergerkiller.bukkit.common.chunk.ForcedChunk;
+import com.bergerkiller.bukkit.common.utils.CommonUtil;
+import com.bergerkiller.bukkit.tc.TrainCarts;
+
+/**
+ * Periodically advances the {@link OfflineGroupSimulation} of all unloaded trains.
+ * When a simulated train must be restored, the chunks its Minecarts are in are kept
+ * loaded until it is, after which it is teleported to where the simulation left it.
+ */
+public class OfflineGroupSimulator extends Task {
+    public static final int INTERVAL = 20;
+    private static final int RESTORE_TIMEOUT = 60 * 20;
+    private final List<Restoring> restoring = new ArrayList<>();
+
+    public OfflineGroupSimulator(TrainCarts plugin) {
+        super(plugin);
+    }
+
+    /**
+     * Starts simulating unloaded trains
+     *
+     * @return this
+     */
+    public OfflineGroupSimulator startSimulating() {
+        this.start(INTERVAL, INTERVAL);
+        return this;
+    }
+
+    /**
+     * Stops simulating unloaded trains, and releases all chunks kept loaded to restore trains
+     */
+    public void stopSimulating() {
+        this.stop();
+        this.restoring.forEach(Restoring::close);
+        this.restoring.clear();
+    }
+
+    @Override
+    public void run() {
+        // Release the chunks of trains that have been restored, or that failed to restore in time
+        int ticks = CommonUtil.getServerTicks();
+        for (Iterator<Restoring> iter = this.restoring.iterator(); iter.hasNext();) {
+            Restoring restoring = iter.next();
+            if (restoring.group.isLoadedAsGroup() || ticks > restoring.deadline) {
+                restoring.close();
+                iter.remove();
+            }
+        }
+
+        // Advance trains, and load the chunks of trains that should be restored
+        OfflineGroupManager.updateSimulations(INTERVAL, (world, group) -> {
+            this.restoring.add(new Restoring(group, group.forceLoadChunks(world), ticks + RESTORE_TIMEOUT));
+        });
+    }
+
+    private static final class Restoring implements AutoCloseable {
+        public final OfflineGroup group;
+        public final List<ForcedChunk> chunks;
+        public final int deadline;
+
+        public Restoring(OfflineGroup group, List<ForcedChunk> chunks, int deadline) {
+            this.group = group;
+            this.chunks = chunks;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void close() {
+            this.chunks.forEach(ForcedChunk::close);
+            this.chunks.clear();
+        }
+    }
+}
@@ -23,6 +23,7 @@ import com.bergerkiller.bukkit.tc.Localization;
 import com.bergerkiller.bukkit.tc.TrainCarts;
 import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
 import com.bergerkiller.bukkit.tc.properties.TrainProperties;
+import com.bergerkiller.bukkit.tc.storage.BackgroundSaveWriter;
 
 public class TicketStore {
     private static final Material FILLED_MAP_TYPE = getFirst("FILLED_MAP", "LEGACY_MAP");
@@ -467,16 +468,26 @@ public class TicketStore {
         traincarts.getDataFile("images").mkdirs();
     }
 
-    public static void save(TrainCarts traincarts, boolean autosave) {
-        if (autosave && !hasChanges) {
-            return;
-        }
+    /**
+     * Takes a snapshot of all tickets, and has it written to file on the background
+     * thread of the save writer.
+     *
+     * @param writer Save writer
+     * @param autosave Whether this is an autosave, which skips saving if nothing changed
+     */
+    public static void save(BackgroundSaveWriter writer, boolean autosave) {
+        writer.submit("tickets", () -> {
+            if (autosave && !hasChanges) {
+                return null;
+            }
 
-        FileConfiguration config = new FileConfiguration(traincarts, saveFileName);
-        for (Ticket ticket : ticketMap.values()) {
-            ticket.save(config.getNode(ticket.getName()));
-        }
-        config.save();
-        hasChanges = false;
+            // Tickets are stored in a new configuration every time, which is the snapshot
+            FileConfiguration config = new FileConfiguration(writer.getPlugin(), saveFileName);
+            for (Ticket ticket : ticketMap.values()) {
+                ticket.save(config.getNode(ticket.getName()));
+            }
+            hasChanges = false;
+            return config::save;
+        });
     }
 }
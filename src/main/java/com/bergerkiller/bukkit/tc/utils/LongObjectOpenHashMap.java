@@ -0,0 +1,229 @@
+package com.bergerkiller.bukkit.tc.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Hash map with primitive long keys, using open addressing with linear probing.
+ * Unlike a HashMap with boxed keys, looking up values does not allocate any
+ * memory, and entries are stored in two flat arrays. Null values can not be
+ * stored.<br>
+ * <br>
+ * This map is not multi-thread safe.
+ *
+ * @param <V> Value type
+ */
+public final class LongObjectOpenHashMap<V> {
+    private static final int MIN_CAPACITY = 16;
+    private long[] keys;
+    private Object[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    public LongObjectOpenHashMap() {
+        this.init(MIN_CAPACITY);
+    }
+
+    private void init(int capacity) {
+        this.keys = new long[capacity];
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+        this.size = 0;
+        this.resizeThreshold = (capacity * 3) >> 2;
+    }
+
+    /**
+     * Gets the number of entries stored in this map
+     *
+     * @return size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets whether this map has no entries
+     *
+     * @return True if empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Gets the value stored for a key
+     *
+     * @param key Key
+     * @return value, or null if not stored
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        final long[] keys = this.keys;
+        final Object[] values = this.values;
+        final int mask = this.mask;
+        int index = hash(key) & mask;
+        Object value;
+        while ((value = values[index]) != null) {
+            if (keys[index] == key) {
+                return (V) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Stores a value for a key, replacing a previous value
+     *
+     * @param key Key
+     * @param value Value to store, can not be null
+     * @return previous value stored, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Value can not be null");
+        }
+
+        final long[] keys = this.keys;
+        final Object[] values = this.values;
+        final int mask = this.mask;
+        int index = hash(key) & mask;
+        Object prev;
+        while ((prev = values[index]) != null) {
+            if (keys[index] == key) {
+                values[index] = value;
+                return (V) prev;
+            }
+            index = (index + 1) & mask;
+        }
+
+        keys[index] = key;
+        values[index] = value;
+        if (++this.size > this.resizeThreshold) {
+            this.resize(values.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Removes the value stored for a key
+     *
+     * @param key Key
+     * @return value that was removed, or null if none was stored
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        final long[] keys = this.keys;
+        final Object[] values = this.values;
+        final int mask = this.mask;
+        int index = hash(key) & mask;
+        Object value;
+        while ((value = values[index]) != null) {
+            if (keys[index] == key) {
+                this.size--;
+                this.shiftBack(index);
+                return (V) value;
+            }
+            index = (index + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Removes all entries from this map
+     */
+    public void clear() {
+        if (this.values.length == MIN_CAPACITY) {
+            Arrays.fill(this.values, null);
+            this.size = 0;
+        } else {
+            this.init(MIN_CAPACITY);
+        }
+    }
+
+    /**
+     * Calls a callback for all values stored in this map. The map must not be
+     * modified while doing so.
+     *
+     * @param action Callback to call for all values
+     */
+    @SuppressWarnings("unchecked")
+    public void forEachValue(Consumer<V> action) {
+        for (Object value : this.values) {
+            if (value != null) {
+                action.accept((V) value);
+            }
+        }
+    }
+
+    /**
+     * Gets a copy of all the values stored in this map. The map can be
+     * modified while iterating the returned list.
+     *
+     * @return list of values
+     */
+    public List<V> values() {
+        List<V> result = new ArrayList<>(this.size);
+        this.forEachValue(result::add);
+        return result;
+    }
+
+    // Removes the entry at an index, moving entries after it that were
+    // displaced by collisions back so that lookups still find them
+    private void shiftBack(int index) {
+        final long[] keys = this.keys;
+        final Object[] values = this.values;
+        final int mask = this.mask;
+        int gap = index;
+        int curr = index;
+        while (true) {
+            curr = (curr + 1) & mask;
+            Object value = values[curr];
+            if (value == null) {
+                break;
+            }
+
+            // Can only move the entry into the gap if the gap lies between
+            // the slot it hashes to and its current slot
+            int home = hash(keys[curr]) & mask;
+            if (((curr - home) & mask) >= ((curr - gap) & mask)) {
+                keys[gap] = keys[curr];
+                values[gap] = value;
+                gap = curr;
+            }
+        }
+        values[gap] = null;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = this.keys;
+        Object[] oldValues = this.values;
+        int oldSize = this.size;
+        this.init(capacity);
+
+        final long[] keys = this.keys;
+        final Object[] values = this.values;
+        final int mask = this.mask;
+        for (int i = 0; i < oldValues.length; i++) {
+            Object value = oldValues[i];
+            if (value != null) {
+                int index = hash(oldKeys[i]) & mask;
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = value;
+            }
+        }
+        this.size = oldSize;
+    }
+
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -12,6 +12,7 @@ import com.bergerkiller.bukkit.tc.controller.components.RailPath;
 import com.bergerkiller.bukkit.tc.controller.components.RailPiece;
 import com.bergerkiller.bukkit.tc.controller.components.RailState;
 import com.bergerkiller.bukkit.tc.controller.components.RailTracker.TrackedRail;
+import com.bergerkiller.bukkit.tc.rails.RailLookup;
 
 /**
  * Handles the logic of switching rails from one junction position
@@ -56,8 +57,10 @@ public class RailJunctionSwitcher {
 
         // Switch the rails, permanently altering the logic
         // Also notify a physics change, so trains recalculate things
+        // Physics events are suppressed while switching, so notify the rail cache ourselves
         MinecartGroupStore.notifyPhysicsChange();
         this.rail.type().switchJunction(this.rail.block(), from, to);
+        RailLookup.notifyBlockChanged(this.rail.block());
 
         // Move all minecarts that are currently on this rail to the new junction path.
         // This uses the previously calculated distance traveled on the previous junction.
@@ -1,62 +1,180 @@
 package com.bergerkiller.bukkit.tc.utils;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Expands the abbreviated station names and line colors written on station signs.
+ * Station names are expanded in a single pass, replacing every '$' followed by the
+ * longest abbreviation that matches. Results are cached by the raw sign text,
+ * as the same signs are parsed again every time a train stops.
+ */
 public class StationParser {
+	private static final int CACHE_SIZE = 512;
+	private static final String[][] DEFAULT_ABBREVIATIONS = {
+			{"CAI", "CC Airport Inter."}, {"A", "Ailsbury"}, {"C", "Cashvillage"}, {"F", "Fernhill"},
+			{"H", "Hemstead"}, {"N", "New Arbridge"}, {"Rd", "Road"}, {"P", "Park"},
+			{"Q", "Quarter"}, {"S", "Shopping Centre"}, {"R", "Racecourse"}
+	};
+	private static final String[][] COLORS = {
+			{"$CHR", "#FF0000"}, {"$GAR", "#1BF400"}, {"$HS1", "#00946F"}, {"$HS2", "#00DFFF"},
+			{"$SVR", "#B955FF"}, {"$Purple", "#54009f"}, {"$Blue", "#387eff"}, {"$Green", "#22D74C"},
+			{"$Orange", "#FF7F27"}, {"$Pink", "#FFAEC9"}, {"$Red", "#ED1C24"}, {"$Yellow", "#FCE600"},
+			{"$NAT", "#0075B4"}, {"$FTrams", "#BFAF81"}, {"$Cyan", "#86c4bf"}, {"$Beige", "#fce6a7"}
+	};
+	private static Map<String, String> abbreviations = Collections.emptyMap();
+	private static int maxAbbreviationLength = 0;
+	private static final Map<String, String> stationCache = createCache();
+	private static final Map<String, String> colorCache = createCache();
+	private static final Map<String, String> messageCache = createCache();
+
+	static {
+		setAbbreviations(getDefaultAbbreviations());
+	}
+
+	/**
+	 * Gets the default abbreviations of station names, without the '$' prefix
+	 *
+	 * @return default abbreviations mapped to the text they expand to
+	 */
+	public static Map<String, String> getDefaultAbbreviations() {
+		Map<String, String> defaults = new LinkedHashMap<String, String>();
+		for (String[] abbreviation : DEFAULT_ABBREVIATIONS) {
+			defaults.put(abbreviation[0], abbreviation[1]);
+		}
+		return defaults;
+	}
+
+	/**
+	 * Sets the abbreviations that can be used in station names, without the '$' prefix
+	 *
+	 * @param values Abbreviations mapped to the text they expand to
+	 */
+	public static void setAbbreviations(Map<String, String> values) {
+		Map<String, String> table = new HashMap<String, String>();
+		int maxLength = 0;
+		for (Map.Entry<String, String> entry : values.entrySet()) {
+			if (!entry.getKey().isEmpty() && entry.getValue() != null) {
+				table.put(entry.getKey(), entry.getValue());
+				maxLength = Math.max(maxLength, entry.getKey().length());
+			}
+		}
+		synchronized (stationCache) {
+			abbreviations = table;
+			maxAbbreviationLength = maxLength;
+			stationCache.clear();
+		}
+	}
+
 	public static String parseStation(String string) {
-			if(string.equalsIgnoreCase("") || string ==  null) return null;
-			string = string.replaceAll("\\$CAI", "CC Airport Inter.");
-			string = string.replaceAll("\\$A", "Ailsbury").replaceAll("\\$C", "Cashvillage").replaceAll("\\$F", "Fernhill")
-					.replaceAll("\\$H", "Hemstead").replaceAll("\\$N", "New Arbridge");
-			string = string.replaceAll("\\$Rd", "Road").replaceAll("\\$P", "Park");
-			string = string.replaceAll("\\$Q", "Quarter").replaceAll("\\$S", "Shopping Centre").replaceAll("\\$R",
-					"Racecourse");
+		if (string == null || string.isEmpty()) return null;
+		synchronized (stationCache) {
+			String result = stationCache.get(string);
+			if (result == null) {
+				result = expandAbbreviations(string);
+				stationCache.put(string, result);
+			}
+			return result;
+		}
+	}
+
+	private static String expandAbbreviations(String string) {
+		int start = string.indexOf('$');
+		if (start == -1) {
 			return string;
 		}
-	
+		StringBuilder result = new StringBuilder(string.length() + 32);
+		result.append(string, 0, start);
+		int i = start;
+		int len = string.length();
+		while (i < len) {
+			char c = string.charAt(i);
+			if (c == '$') {
+				// Longest abbreviation following the $ wins
+				String expanded = null;
+				int keyLength = Math.min(maxAbbreviationLength, len - i - 1);
+				for (; keyLength > 0; keyLength--) {
+					expanded = abbreviations.get(string.substring(i + 1, i + 1 + keyLength));
+					if (expanded != null) {
+						break;
+					}
+				}
+				if (expanded != null) {
+					result.append(expanded);
+					i += 1 + keyLength;
+					continue;
+				}
+			}
+			result.append(c);
+			i++;
+		}
+		return result.toString();
+	}
+
 	public static String[] listColor() {
 		String[] colors = {"CHR","GAR","HS1","HS2","SVR","Purple","Blue","Green","Orange","Pink","Blue","Green","Orange","Red","Yellow","NAT","FTrams","Beige","Cyan"};
 		return colors;
 	}
 	
 	public static String convertColor(String name) {
+		synchronized (colorCache) {
+			String result = colorCache.get(name);
+			if (result == null) {
+				result = lookupColor(name);
+				colorCache.put(name, result);
+			}
+			return result;
+		}
+	}
+
+	private static String lookupColor(String name) {
 		name = name.split("/")[0];
-		if (name.contains("$CHR"))
-			return "#FF0000";
-		if (name.contains("$GAR"))
-			return "#1BF400";
-		if (name.contains("$HS1"))
-			return "#00946F";
-		if (name.contains("$HS2"))
-			return "#00DFFF";
-		if (name.contains("$SVR"))
-			return "#B955FF";
-		if(name.contains("$Purple"))
-			return "#54009f";
-		if (name.contains("$Blue"))
-			return "#387eff";
-		if (name.contains("$Green"))
-			return "#22D74C";
-		if (name.contains("$Orange"))
-			return "#FF7F27";
-		if (name.contains("$Pink"))
-			return "#FFAEC9";
-		if (name.contains("$Red"))
-			return "#ED1C24";
-		if (name.contains("$Yellow"))
-			return "#FCE600";
-		if (name.contains("$NAT"))
-			return "#0075B4";
-		if (name.contains("$FTrams"))
-			return "#BFAF81";
-		if(name.contains("$Cyan"))
-			return "#86c4bf";
-		if(name.contains("$Beige"))
-			return "#fce6a7";
+		for (String[] color : COLORS) {
+			if (name.contains(color[0])) {
+				return color[1];
+			}
+		}
 		if(name.startsWith("$")) 
 			return name.substring(1);
 		return name;
 	}
 	
 	public static String parseMetro(String string, String color) {
+		return cachedMessage('M', string, color);
+	}
+
+	public static String parseRail(String string, String color) {
+		return cachedMessage('R', string, color);
+	}
+
+	private static String cachedMessage(char type, String string, String color) {
+		String key = type + color + '\0' + string;
+		synchronized (messageCache) {
+			if (messageCache.containsKey(key)) {
+				return messageCache.get(key);
+			}
+		}
+		String result = (type == 'M') ? createMetroMessage(string, color) : createRailMessage(string, color);
+		synchronized (messageCache) {
+			messageCache.put(key, result);
+		}
+		return result;
+	}
+
+	private static <V> Map<String, V> createCache() {
+		return new LinkedHashMap<String, V>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				return this.size() > CACHE_SIZE;
+			}
+		};
+	}
+
+	private static String createMetroMessage(String string, String color) {
 		String result = "[{\"text\":\"Change here for the \",\"color\":\"" + convertColor(color) + "\"}";
 		String a = ", ";
 		int b = 0;
@@ -107,7 +225,7 @@ public class StationParser {
 		return result;
 	}
 
-	public static String parseRail(String string, String color) {
+	private static String createRailMessage(String string, String color) {
 		String result = "[{\"text\":\"Also change here for \",\"color\":\"" + convertColor(color) + "\"}";
 		String a = ", ";
 		int b = 0;
@@ -7,6 +7,7 @@ import com.bergerkiller.bukkit.tc.controller.components.RailPath;
 import com.bergerkiller.bukkit.tc.controller.components.RailPiece;
 import com.bergerkiller.bukkit.tc.controller.components.RailState;
 import com.bergerkiller.bukkit.tc.pathfinding.PathPredictEvent;
+import com.bergerkiller.bukkit.tc.rails.TrackSegmentCache;
 import com.bergerkiller.bukkit.tc.rails.logic.RailLogic;
 import com.bergerkiller.bukkit.tc.rails.type.RailType;
 
@@ -65,6 +66,14 @@ public class TrackWalkingPoint {
     private boolean first = true;
     private boolean isAtEnd = false;
     private Predictor predictor = null;
+    /**
+     * Whether {@link #moveFull()} may use the {@link TrackSegmentCache}
+     */
+    private boolean useSegmentCache = false;
+    /**
+     * Segment that starts at the current state, if known
+     */
+    private TrackSegmentCache.Segment segment = null;
 
     public TrackWalkingPoint(RailState state) {
         state.position().assertAbsolute();
@@ -122,6 +131,18 @@ public class TrackWalkingPoint {
         }
     }
 
+    /**
+     * Sets whether {@link #moveFull()} may use the {@link TrackSegmentCache} to move to the
+     * next rail, re-using walks done earlier this tick. Segments are not used while a
+     * predicted path is followed, or while the loop filter is enabled.
+     *
+     * @param enabled Whether to use the segment cache
+     */
+    public void setUseSegmentCache(boolean enabled) {
+        this.useSegmentCache = enabled;
+        this.segment = null;
+    }
+
     /**
      * Gets a speed limit imposed for the current rail block.
      * {@link #setFollowPredictedPath(MinecartMember)} must be called first before
@@ -157,6 +178,8 @@ public class TrackWalkingPoint {
      * @return True if the step was successful
      */
     public boolean moveStep(double limit) {
+        this.segment = null;
+
         // No rails
         if (isDerailed()) {
             return false;
@@ -232,6 +255,40 @@ public class TrackWalkingPoint {
             return true;
         }
 
+        // Jump to the next rail using a segment walked before, if possible
+        if (this.useSegmentCache && this.predictor == null && this.loopFilter == null) {
+            return moveFullSegment();
+        }
+
+        return moveFullWalk();
+    }
+
+    private boolean moveFullSegment() {
+        TrackSegmentCache.Segment current = this.segment;
+        TrackSegmentCache.Segment next = (current == null) ? null : current.next();
+        if (next == null) {
+            // Walk the rails, and if successful, look up the segment that starts here
+            this.segment = null;
+            if (!moveFullWalk()) {
+                return false;
+            }
+            this.segment = TrackSegmentCache.find(this.state, this.currentRailLogic);
+            return true;
+        }
+
+        MinecartMember<?> member = this.state.member();
+        this.state.setTo(next.state());
+        this.state.setMember(member);
+        this.currentRailLogic = next.logic();
+        this.currentRailPath = next.path();
+        this.moved = current.length();
+        this.movedTotal += this.moved;
+        this.isAtEnd = true;
+        this.segment = next;
+        return true;
+    }
+
+    private boolean moveFullWalk() {
         // Move the full length of the path, to the end of the path'
         this.moved = this.currentRailPath.move(this.state, Double.MAX_VALUE);
         this.movedTotal += this.moved;
@@ -256,6 +313,8 @@ public class TrackWalkingPoint {
      * @return True if movement was successful, False if not
      */
     public boolean move(final double distance) {
+        this.segment = null;
+
         // If no position is known, then we did not have a valid starting point at all
         if (isDerailed()) {
             return false;
@@ -417,6 +476,7 @@ public class TrackWalkingPoint {
                 }
             } while (!BlockUtil.equals(this.state.railBlock(), railsBlock));
         }
+        this.segment = null;
 
         // Found our rails Block! Move a tiny step further onto it.
         // Query the desired spawn location that we should move towards.
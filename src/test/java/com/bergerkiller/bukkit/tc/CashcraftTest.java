@@ -1,5 +1,7 @@
 package com.bergerkiller.bukkit.tc;
 
+import static org.junit.Assert.assertEquals;
+
 import org.junit.Test;
 
 import com.bergerkiller.bukkit.tc.utils.StationParser;
@@ -15,6 +17,14 @@ public class CashcraftTest {
     	}
     }
     
+    @Test
+    public void testStationNameExpansion() {
+    	assertEquals("CC Airport Inter.", StationParser.parseStation("$CAI"));
+    	assertEquals("Cashvillage Road", StationParser.parseStation("$C $Rd"));
+    	assertEquals("Racecourse Park", StationParser.parseStation("$R $P"));
+    	assertEquals("$X Ailsbury", StationParser.parseStation("$X $A"));
+    }
+    
     @Test
     public void testStationAnnouncement() {
     	String[] colors = {"BGO>1"};
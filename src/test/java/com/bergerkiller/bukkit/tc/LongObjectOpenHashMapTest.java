@@ -0,0 +1,56 @@
+package com.bergerkiller.bukkit.tc;
+
+import static org.junit.Assert.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.bergerkiller.bukkit.tc.utils.LongObjectOpenHashMap;
+
+public class LongObjectOpenHashMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        LongObjectOpenHashMap<String> map = new LongObjectOpenHashMap<>();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(5L, "a"));
+        assertNull(map.put(-5L, "b"));
+        assertEquals("a", map.put(5L, "c"));
+        assertEquals(2, map.size());
+        assertEquals("c", map.get(5L));
+        assertEquals("b", map.get(-5L));
+        assertNull(map.get(6L));
+        assertEquals("c", map.remove(5L));
+        assertNull(map.remove(5L));
+        assertNull(map.get(5L));
+        assertEquals(1, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(-5L));
+    }
+
+    @Test
+    public void testMatchesHashMap() {
+        // Uses a small key range so that entries collide and are removed often
+        LongObjectOpenHashMap<Long> map = new LongObjectOpenHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(1234);
+        for (int i = 0; i < 200000; i++) {
+            long key = random.nextInt(5000) * 0x100000000L;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                Long value = Long.valueOf(i);
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+        assertEquals(expected.size(), map.values().size());
+    }
+}
@@ -0,0 +1,124 @@
+package com.bergerkiller.bukkit.tc;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.bergerkiller.bukkit.tc.controller.MinecartGroup;
+import com.bergerkiller.bukkit.tc.controller.MinecartMember;
+import com.bergerkiller.bukkit.tc.events.SignActionEvent;
+import com.bergerkiller.bukkit.tc.statements.Statement;
+
+/**
+ * Tests the combining of multiple statements with AND/OR logic
+ */
+public class StatementEvaluationTest {
+    private static final String[] PREFIXES = {"", "&", "|"};
+    private CountingStatement counter;
+
+    @Before
+    public void setup() {
+        counter = Statement.register(new CountingStatement());
+    }
+
+    @After
+    public void cleanup() {
+        Statement.deinit();
+    }
+
+    @Test
+    public void testSkipUnchangeableStatements() {
+        assertFalse(hasMultiple("test_false", "&test_true", "&test_true"));
+        assertEquals(1, counter.count);
+
+        assertTrue(hasMultiple("test_true", "|test_false", "|test_true"));
+        assertEquals(1, counter.count);
+
+        // OR after a failed AND must still be evaluated
+        assertTrue(hasMultiple("test_false", "&test_true", "|test_true"));
+        assertEquals(2, counter.count);
+    }
+
+    @Test
+    public void testSameResultAsEvaluatingAll() {
+        // Every combination of 4 statements with all prefixes and results
+        int count = 4;
+        int prefixCombinations = (int) Math.pow(PREFIXES.length, count);
+        for (int p = 0; p < prefixCombinations; p++) {
+            for (int v = 0; v < (1 << count); v++) {
+                List<String> texts = new ArrayList<String>(count);
+                int prefixIndex = p;
+                for (int i = 0; i < count; i++) {
+                    String prefix = PREFIXES[prefixIndex % PREFIXES.length];
+                    prefixIndex /= PREFIXES.length;
+                    texts.add(prefix + (((v >> i) & 1) != 0 ? "test_true" : "test_false"));
+                }
+                assertEquals(texts.toString(), evaluateAll(texts),
+                        Statement.hasMultiple((MinecartMember<?>) null, null, texts, null));
+            }
+        }
+    }
+
+    private boolean hasMultiple(String... texts) {
+        counter.count = 0;
+        List<String> list = new ArrayList<String>(texts.length);
+        for (String text : texts) {
+            list.add(text);
+        }
+        return Statement.hasMultiple((MinecartMember<?>) null, null, list, null);
+    }
+
+    // Evaluates all statements, the way it was done before statements were skipped
+    private static boolean evaluateAll(List<String> texts) {
+        boolean match = true;
+        for (String text : texts) {
+            boolean isLogicAnd = !text.startsWith("|");
+            if (text.startsWith("&") || text.startsWith("|")) {
+                text = text.substring(1);
+            }
+            boolean result = Statement.has((MinecartMember<?>) null, null, text, null);
+            if (isLogicAnd) {
+                match &= result;
+            } else {
+                match |= result;
+            }
+        }
+        return match;
+    }
+
+    private static final class CountingStatement extends Statement {
+        public int count = 0;
+
+        @Override
+        public boolean match(String text) {
+            return text.startsWith("test_");
+        }
+
+        @Override
+        public boolean matchArray(String text) {
+            return false;
+        }
+
+        @Override
+        public boolean requiresTrain() {
+            return false;
+        }
+
+        @Override
+        public boolean handle(MinecartMember<?> member, String text, SignActionEvent event) {
+            count++;
+            return text.equals("test_true");
+        }
+
+        @Override
+        public boolean handle(MinecartGroup group, String text, SignActionEvent event) {
+            count++;
+            return text.equals("test_true");
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.bergerkiller.bukkit.tc.pathfinding;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import com.bergerkiller.bukkit.common.BlockLocation;
+
+/**
+ * Tests that connections found by path finding during a tick are only added
+ * to the nodes once the tick ends, and that lookups done in the same tick see
+ * either none or all of them.
+ */
+public class PathConnectionMergeTest {
+
+    @Test
+    public void testLookupsDuringTick() {
+        PathProvider provider = new PathProvider(null);
+        PathWorld world = provider.getWorld("world");
+        PathNode a = world.addNode(new BlockLocation("world", 0, 64, 0));
+        PathNode b = world.addNode(new BlockLocation("world", 10, 64, 0));
+        PathNode c = world.addNode(new BlockLocation("world", 20, 64, 0));
+        PathNode d = world.addNode(new BlockLocation("world", 30, 64, 0));
+        a.addNeighbour(b, 10.0, "east");
+
+        // Compute the routing tables before the new connections are found
+        assertNull(a.findConnection(d));
+        assertNull(c.findConnection(d));
+        assertNotNull(a.findConnection(b));
+
+        // Connections found by the operations of this tick
+        provider.addFoundConnection(b, c, 10.0, "east");
+        provider.addFoundConnection(c, d, 10.0, "east");
+
+        // Lookups in the same tick still see the graph as it was before
+        assertNull(a.findConnection(d));
+        assertNull(b.findConnection(c));
+        assertEquals(0, a.findRoute(d).length);
+        assertTrue(b.getNeighbours().isEmpty());
+        assertTrue(c.getNeighbours().isEmpty());
+
+        // At the end of the tick all connections are added at once
+        provider.mergeFoundConnections();
+        PathConnection connection = a.findConnection(d);
+        assertNotNull(connection);
+        assertEquals(d, connection.destination);
+        assertEquals(30.0, connection.distance, 1e-10);
+        assertEquals("east", connection.junctionName);
+        assertEquals(3, a.findRoute(d).length);
+        assertNotNull(b.findConnection(d));
+        assertNotNull(c.findConnection(d));
+    }
+
+    @Test
+    public void testMergeShorterConnection() {
+        PathProvider provider = new PathProvider(null);
+        PathWorld world = provider.getWorld("world");
+        PathNode a = world.addNode(new BlockLocation("world", 0, 64, 0));
+        PathNode b = world.addNode(new BlockLocation("world", 10, 64, 0));
+        a.addNeighbour(b, 20.0, "east");
+        assertEquals(20.0, a.findConnection(b).distance, 1e-10);
+
+        // A shorter route found this tick replaces the longer one once merged
+        provider.addFoundConnection(a, b, 12.0, "north");
+        assertEquals(20.0, a.findConnection(b).distance, 1e-10);
+        provider.mergeFoundConnections();
+        assertEquals(12.0, a.findConnection(b).distance, 1e-10);
+        assertEquals("north", a.findConnection(b).junctionName);
+        assertEquals(1, a.getNeighbours().size());
+    }
+}